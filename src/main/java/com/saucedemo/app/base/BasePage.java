@@ -1,34 +1,65 @@
 package com.saucedemo.app.base;
 
+import com.saucedemo.app.controller.CommandBatch;
+import com.saucedemo.app.controller.ElementCache;
+import com.saucedemo.app.controller.ElementStateCache;
+import com.saucedemo.app.controller.FlightRecorder;
+import com.saucedemo.app.controller.LoggerManager;
+import com.saucedemo.app.controller.ScrollEngine;
+import com.saucedemo.app.controller.TimeoutBudget;
+import com.saucedemo.app.controller.WaitEngine;
+import com.saucedemo.app.controller.WaitStrategy;
+import com.saucedemo.app.utils.Constants;
 import com.saucedemo.app.utils.MobileGestures;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.HasOnScreenKeyboard;
+import io.appium.java_client.HidesKeyboard;
 import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import io.appium.java_client.pagefactory.DefaultElementByBuilder;
+import io.appium.java_client.pagefactory.bys.builder.HowToUseSelectors;
+import io.appium.java_client.pagefactory.iOSXCUITFindBy;
 import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidArgumentException;
 import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.FluentWait;
 import org.testng.Assert;
 
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 
 /**
  * Abstract base page class providing common Appium page operations.
  * Implements UserGestures for gesture support.
  */
 public abstract class BasePage implements MobileGestures {
+    private static final int KEYBOARD_TIMEOUT_SECONDS = 2;
+    private static final int VERIFY_TIMEOUT_SECONDS = 10;
+    private static final int VALIDATE_TIMEOUT_SECONDS = 5;
+
     /**
-     * The Appium driver instance for interacting with the mobile app.
+     * Native locators of page fields, by platform and field.
      */
-    protected final AppiumDriver DRIVER;
+    private static final Map<String, By> LOCATORS = new ConcurrentHashMap<>();
 
     /**
-     * FluentWait instance for waiting on conditions.
+     * The Appium driver instance for interacting with the mobile app.
      */
-    protected final FluentWait<AppiumDriver> wait;
+    protected final AppiumDriver DRIVER;
 
     /**
      * Constructs a BasePage with the given AppiumDriver.
@@ -37,19 +68,47 @@ public abstract class BasePage implements MobileGestures {
      */
     protected BasePage(AppiumDriver driver) {
         this.DRIVER = driver;
-        this.wait = new FluentWait<>(this.DRIVER)
-                .withTimeout(Duration.ofSeconds(10))
-                .pollingEvery(Duration.ofSeconds(2));
     }
 
     /**
-     * Finds a single element using the given By locator.
+     * Finds a single element using the given By locator. Repeated lookups are served from the ElementCache
+     * until the next mutating command.
      *
      * @param locator the AppiumBy locator
      * @return the found WebElement
      */
     protected WebElement getElement(By locator) {
-        return DRIVER.findElement(locator);
+        FlightRecorder.command("findElement", locator);
+        return ElementCache.find(DRIVER, getClass(), locator);
+    }
+
+    /**
+     * Applies an action to the element located by the given locator. If the cached element turned out
+     * to be stale, it is looked up again and the action is retried once.
+     *
+     * @param locator the AppiumBy locator
+     * @param action  the action to apply
+     * @param <T>     the result type
+     * @return the result of the action
+     */
+    protected <T> T withElement(By locator, Function<WebElement, T> action) {
+        try {
+            return action.apply(getElement(locator));
+        } catch (StaleElementReferenceException e) {
+            ElementCache.evict(getClass(), locator);
+            return action.apply(getElement(locator));
+        }
+    }
+
+    /**
+     * Captures the current screen as a PageSnapshot with a single getPageSource() round trip.
+     * Read-only checks on the snapshot are evaluated locally.
+     *
+     * @return the page snapshot
+     */
+    protected PageSnapshot takeSnapshot() {
+        FlightRecorder.command("getPageSource", getClass().getSimpleName());
+        return new PageSnapshot(DRIVER.getPageSource());
     }
 
     /**
@@ -58,7 +117,13 @@ public abstract class BasePage implements MobileGestures {
      * @param element the WebElement to tap
      */
     protected void click(WebElement element) {
-        element.click();
+        FlightRecorder.command("click", element);
+        WaitStrategy.implicitly(DRIVER);
+        try {
+            element.click();
+        } finally {
+            invalidateCaches();
+        }
     }
 
     /**
@@ -67,9 +132,33 @@ public abstract class BasePage implements MobileGestures {
      * @param element the WebElement to tap
      */
     protected void tap(WebElement element) {
+        FlightRecorder.command("tap", element);
+        WaitStrategy.implicitly(DRIVER);
         tap(DRIVER, element);
     }
 
+    /**
+     * Taps at the center of the given bounds, e.g. of an element of a PageSnapshot.
+     *
+     * @param rect the bounds to tap
+     */
+    protected void tap(Rectangle rect) {
+        FlightRecorder.command("tap", rect);
+        tap(DRIVER, rect);
+    }
+
+    /**
+     * Taps on the element located by the given locator.
+     *
+     * @param locator the AppiumBy locator
+     */
+    protected void tap(By locator) {
+        withElement(locator, element -> {
+            tap(element);
+            return null;
+        });
+    }
+
     /**
      * Clears and enters text into the given WebElement.
      *
@@ -77,10 +166,234 @@ public abstract class BasePage implements MobileGestures {
      * @param text    the text to enter
      */
     protected void enterText(WebElement element, String text) {
-        element.clear();
-        element.click();
-        addDelay(1);
-        element.sendKeys(text);
+        FlightRecorder.command("enterText", element);
+        WaitStrategy.implicitly(DRIVER);
+        try {
+            element.clear();
+            element.click();
+            waitForKeyboard();
+            element.sendKeys(text);
+        } finally {
+            invalidateCaches();
+        }
+    }
+
+    /**
+     * Fills several text fields in one call and logs the time taken for the form. With fast.text.entry.enabled,
+     * values are set directly where the platform allows it (replaceElementValue on Android), without focusing
+     * the fields or waiting for the keyboard. The keyboard is then hidden once and each value is checked with
+     * one read; masked values (passwords) are checked by length. Otherwise each field goes through enterText.
+     *
+     * Fields and values are passed as parallel lists rather than a map, as hashing a PageFactory proxy would
+     * look the element up.
+     *
+     * @param form   the name of the form, for the timing
+     * @param fields the fields, in entry order
+     * @param values the values of the fields
+     */
+    protected void fillFields(String form, List<WebElement> fields, List<String> values) {
+        if (fields.size() != values.size()) {
+            throw new IllegalArgumentException("Form " + form + " has " + fields.size() + " fields but " + values.size() + " values.");
+        }
+        long start = System.nanoTime();
+        boolean fast = Constants.ENABLE_FAST_TEXT_ENTRY;
+        WaitStrategy.implicitly(DRIVER);
+        if (fast) {
+            for (int i = 0; i < fields.size(); i++) {
+                setValue(fields.get(i), values.get(i));
+            }
+            hideKeyboard();
+            for (int i = 0; i < fields.size(); i++) {
+                verifyValue(fields.get(i), values.get(i));
+            }
+        } else {
+            for (int i = 0; i < fields.size(); i++) {
+                enterText(fields.get(i), values.get(i));
+            }
+        }
+        LoggerManager.atInfo()
+                .with("page", getClass().getSimpleName())
+                .with("form", form)
+                .with("fields", fields.size())
+                .with("mode", fast ? "fast" : "typed")
+                .with("durationMs", (System.nanoTime() - start) / 1_000_000)
+                .log("Form filled");
+    }
+
+    /**
+     * Fills a form and taps its submit button. With the execute-driver plugin (command.batch.appium.plugin), the
+     * values, their read back and the tap go to the server in one round trip. Whatever the server did not run is
+     * done through fillFields and tap, starting with the first command that did not run, so nothing is entered or
+     * tapped twice.
+     *
+     * @param form        the name of the form, for the logs
+     * @param fields      the fields, in entry order
+     * @param values      the values of the fields
+     * @param submit      the submit button
+     * @param submitError error message if the submit button is not clickable
+     */
+    protected void submitForm(String form, List<WebElement> fields, List<String> values, WebElement submit,
+                              String submitError) {
+        if (fields.size() != values.size()) {
+            throw new IllegalArgumentException("Form " + form + " has " + fields.size() + " fields but " + values.size() + " values.");
+        }
+        CommandBatch batch = newBatch(form);
+        for (int i = 0; i < fields.size(); i++) {
+            batch.setValue(fields.get(i), values.get(i)).getText(fields.get(i));
+        }
+        List<Object> results = batch.click(submit).run();
+        int filled = Math.min(results.size() / 2, fields.size());
+        for (int i = 0; i < filled; i++) {
+            verifyValue(fields.get(i), (String) results.get(2 * i + 1), values.get(i));
+        }
+        if (filled < fields.size()) {
+            fillFields(form, fields.subList(filled, fields.size()), values.subList(filled, values.size()));
+        }
+        if (results.size() <= 2 * fields.size()) {
+            verifyElementClickable(submit, submitError);
+            tap(submit);
+        }
+    }
+
+    /**
+     * Starts recording the commands of a step of this page, to be sent to the server in one round trip.
+     *
+     * @param step the name of the step
+     * @return the empty batch
+     */
+    protected CommandBatch newBatch(String step) {
+        return new CommandBatch(DRIVER, getClass().getSimpleName() + " " + step, this::getLocator, isBatchEnabled());
+    }
+
+    /**
+     * Returns whether the steps of this page are sent to the server in one round trip.
+     *
+     * @return true if steps are batched, by default as configured through CommandBatch
+     */
+    protected boolean isBatchEnabled() {
+        return CommandBatch.isEnabled();
+    }
+
+    /**
+     * Returns the native locator of a WebElement field of this page for the current platform, as built by the
+     * AppiumFieldDecorator from the field's single @AndroidFindBy or @iOSXCUITFindBy annotation.
+     *
+     * @param element the PageFactory proxy held by a field of this page
+     * @return the locator, or null if the element is not held by a field of this page with a single locator
+     */
+    protected By getLocator(WebElement element) {
+        boolean android = DRIVER instanceof AndroidDriver;
+        for (Class<?> type = getClass(); type != BasePage.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.getType() == WebElement.class && !Modifier.isStatic(field.getModifiers()) && holds(field, element)) {
+                    return LOCATORS.computeIfAbsent((android ? "Android " : "iOS ") + field,
+                            key -> NativeByBuilder.build(field, android));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a field of this page holds the given element. Proxies are compared by identity, as
+     * comparing them by value would look the element up.
+     *
+     * @param field   the field
+     * @param element the element
+     * @return true if the field holds the element
+     */
+    private boolean holds(Field field, WebElement element) {
+        try {
+            field.setAccessible(true);
+            return field.get(this) == element;
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Could not read field " + field.getName(), e);
+        }
+    }
+
+    /**
+     * Sets the value of a text field without focusing it: through replaceElementValue on Android, falling back
+     * to clear and sendKeys elsewhere or if the command is not supported.
+     *
+     * @param element the WebElement to fill
+     * @param text    the value
+     */
+    private void setValue(WebElement element, String text) {
+        FlightRecorder.command("setValue", element);
+        if (DRIVER instanceof AndroidDriver) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("text", text);
+            try {
+                executeGesture(DRIVER, element, "mobile: replaceElementValue", params);
+                return;
+            } catch (UnsupportedCommandException | InvalidArgumentException e) {
+                LoggerManager.debug("replaceElementValue not available, typing instead: {}", e.getMessage());
+            }
+        }
+        try {
+            element.clear();
+            element.sendKeys(text);
+        } finally {
+            invalidateCaches();
+        }
+    }
+
+    /**
+     * Checks with one read that a text field holds the value that was set.
+     *
+     * @param element  the WebElement to check
+     * @param expected the value that was set
+     * @throws IllegalStateException if the field holds another value
+     */
+    private void verifyValue(WebElement element, String expected) {
+        verifyValue(element, ElementStateCache.getText(element), expected);
+    }
+
+    /**
+     * Checks that the value read from a text field is the value that was set. Masked values are compared by length.
+     *
+     * @param element  the WebElement that was read, for the error message
+     * @param actual   the value read from the field
+     * @param expected the value that was set
+     * @throws IllegalStateException if the field holds another value
+     */
+    private void verifyValue(WebElement element, String actual, String expected) {
+        boolean masked = !actual.isEmpty() && actual.chars().allMatch(c -> c == '\u2022');
+        if (masked ? actual.length() != expected.length() : !actual.equals(expected)) {
+            throw new IllegalStateException(String.format("Field %s does not hold the entered value.", element));
+        }
+    }
+
+    /**
+     * Hides the on-screen keyboard if it is shown. Failing to hide it does not fail the step.
+     */
+    private void hideKeyboard() {
+        if (!(DRIVER instanceof HasOnScreenKeyboard) || !(DRIVER instanceof HidesKeyboard)) {
+            return;
+        }
+        try {
+            if (((HasOnScreenKeyboard) DRIVER).isKeyboardShown()) {
+                ((HidesKeyboard) DRIVER).hideKeyboard();
+            }
+        } catch (WebDriverException e) {
+            LoggerManager.debug("Could not hide the keyboard: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Waits briefly for the on-screen keyboard after focusing a field. Typing does not depend on it,
+     * so the step carries on if the keyboard does not show.
+     */
+    private void waitForKeyboard() {
+        if (!(DRIVER instanceof HasOnScreenKeyboard)) {
+            return;
+        }
+        try {
+            waitFor("waitForKeyboard", getClass().getSimpleName(), Duration.ofSeconds(KEYBOARD_TIMEOUT_SECONDS), false, null,
+                    ((HasOnScreenKeyboard) DRIVER)::isKeyboardShown);
+        } catch (TimeoutException e) {
+            LoggerManager.debug("Keyboard not shown after {} s, typing anyway.", KEYBOARD_TIMEOUT_SECONDS);
+        }
     }
 
     /**
@@ -90,22 +403,56 @@ public abstract class BasePage implements MobileGestures {
      * @return inner text of an element
      */
     protected String getElementText(WebElement element) {
-        return element.getText();
+        WaitStrategy.implicitly(DRIVER);
+        return ElementStateCache.getText(element);
+    }
+
+    /**
+     * Gets the inner text of the element located by the given locator
+     *
+     * @param locator the AppiumBy locator
+     * @return inner text of the element
+     */
+    protected String getElementText(By locator) {
+        return withElement(locator, ElementStateCache::getText);
     }
 
     /**
-     * Scrolls into view for the given locator depending on platform.
+     * Scrolls into view for the given locator depending on platform: through the UiScrollable locator on Android,
+     * through the ScrollEngine on iOS. The UiScrollable lookup scrolls the screen, so the caches are dropped after it.
      *
      * @param androidLocator the locator for Android
-     * @param iosLocator     the locator for iOS
+     * @param iosLocator     the locator for iOS, may be null to skip scrolling on iOS
      */
     protected void scrollIntoView(By androidLocator, By iosLocator) {
         if (DRIVER instanceof AndroidDriver) {
-            DRIVER.findElement(androidLocator);
-        } else {
-            //scrollDown(DRIVER, element);
-            //iosScroll(DRIVER, iosLocator, "predicateString");
+            FlightRecorder.command("scrollIntoView", androidLocator);
+            try {
+                WaitStrategy.implicitly(DRIVER);
+                DRIVER.findElement(androidLocator);
+            } finally {
+                invalidateCaches();
+            }
+        } else if (iosLocator != null) {
+            scrollUntilVisible(iosLocator);
+        }
+    }
+
+    /**
+     * Scrolls down until the element located by the given locator is fully on screen, with steps adapted to the
+     * distance of the element, and stops at the end of the list.
+     *
+     * @param locator the By locator
+     * @return the element
+     * @throws NoSuchElementException if the element is not found within scroll.max.scrolls scrolls
+     */
+    protected WebElement scrollUntilVisible(By locator) {
+        FlightRecorder.command("scrollUntilVisible", locator);
+        WebElement element = ScrollEngine.scrollUntilVisible(DRIVER, this, locator, "down", Constants.SCROLL_MAX_SCROLLS);
+        if (element == null) {
+            throw new NoSuchElementException("Element not found after scrolling: " + locator);
         }
+        return element;
     }
 
     /**
@@ -114,6 +461,7 @@ public abstract class BasePage implements MobileGestures {
      * @param direction the direction to scroll ("up" or "down")
      */
     protected void scroll(String direction) {
+        FlightRecorder.command("scroll", direction);
         if (direction.equalsIgnoreCase("down"))
             scrollDown(DRIVER);
         else
@@ -128,12 +476,7 @@ public abstract class BasePage implements MobileGestures {
      * @return true if displayed, false otherwise
      */
     protected boolean isElementDisplayed(WebElement element, int timeoutInSeconds) {
-        try {
-            return wait.withTimeout(Duration.ofSeconds(timeoutInSeconds))
-                    .until(driver -> element.isDisplayed());
-        } catch (TimeoutException | NoSuchElementException e) {
-            return false;
-        }
+        return isElementDisplayed(element, Duration.ofSeconds(timeoutInSeconds), false);
     }
 
     /**
@@ -144,23 +487,19 @@ public abstract class BasePage implements MobileGestures {
      * @return true if displayed, false otherwise
      */
     protected boolean isElementDisplayed(By locator, int timeoutInSeconds) {
-        try {
-            wait.withTimeout(Duration.ofSeconds(timeoutInSeconds))
-                    .until(ExpectedConditions.visibilityOfElementLocated(locator));
-            return true;
-        } catch (TimeoutException | NoSuchElementException e) {
-            return false;
-        }
+        return isElementDisplayed(locator, Duration.ofSeconds(timeoutInSeconds), false);
     }
 
     /**
-     * Verifies that the given element is displayed, throws AssertionError with errorMessage if not.
+     * Verifies that the given element is displayed, throws TimeoutException with errorMessage if not.
+     * The timeout is learned from previous waits for the element, 10 seconds without history.
      *
      * @param element     the WebElement to verify
      * @param errorMessage error message if not displayed
      */
     protected void verifyElementDisplayed(WebElement element, String errorMessage) {
-        verifyElementDisplayed(element, errorMessage, 10);
+        waitFor("verifyElementDisplayed", element, getTimeoutBudget(element, VERIFY_TIMEOUT_SECONDS), true, errorMessage,
+                () -> ElementStateCache.isDisplayed(element));
     }
 
     /**
@@ -171,19 +510,20 @@ public abstract class BasePage implements MobileGestures {
      * @param timeoutInSeconds timeout in seconds
      */
     protected void verifyElementDisplayed(WebElement element, String errorMessage, int timeoutInSeconds) {
-        wait.withTimeout(Duration.ofSeconds(timeoutInSeconds))
-                .ignoring(NoSuchElementException.class).withMessage(errorMessage)
-                .until(driver -> element.isDisplayed());
+        waitFor("verifyElementDisplayed", element, Duration.ofSeconds(timeoutInSeconds), false, errorMessage,
+                () -> ElementStateCache.isDisplayed(element));
     }
 
     /**
-     * Verifies that the given element is clickable, throws AssertionError with errorMessage if not.
+     * Verifies that the given element is clickable, throws TimeoutException with errorMessage if not.
+     * The timeout is learned from previous waits for the element, 10 seconds without history.
      *
      * @param element      the WebElement to verify
      * @param errorMessage error message if not clickable
      */
     protected void verifyElementClickable(WebElement element, String errorMessage) {
-        verifyElementClickable(element, errorMessage, 10);
+        waitFor("verifyElementClickable", element, getTimeoutBudget(element, VERIFY_TIMEOUT_SECONDS), true, errorMessage,
+                () -> ElementStateCache.isDisplayed(element) && ElementStateCache.isEnabled(element));
     }
 
     /**
@@ -194,36 +534,253 @@ public abstract class BasePage implements MobileGestures {
      * @param timeoutInSeconds timeout in seconds
      */
     protected void verifyElementClickable(WebElement element, String errorMessage, int timeoutInSeconds) {
-        wait.withTimeout(Duration.ofSeconds(timeoutInSeconds))
-                .ignoring(NoSuchElementException.class).withMessage(errorMessage)
-                .until(driver -> element.isDisplayed() && element.isEnabled());
+        waitFor("verifyElementClickable", element, Duration.ofSeconds(timeoutInSeconds), false, errorMessage,
+                () -> ElementStateCache.isDisplayed(element) && ElementStateCache.isEnabled(element));
+    }
+
+    /**
+     * Checks immediately whether no element matches the given locator: a single findElements round trip
+     * with the implicit wait off, so a negative answer does not wait out any timeout.
+     *
+     * @param locator the By locator
+     * @return true if no element matches
+     */
+    protected boolean isElementAbsent(By locator) {
+        FlightRecorder.command("isElementAbsent", locator);
+        return WaitStrategy.findElementsNow(DRIVER, locator).isEmpty();
+    }
+
+    /**
+     * Checks if the element located by the given locator disappears within the specified timeout.
+     *
+     * @param locator          the By locator
+     * @param timeoutInSeconds timeout in seconds
+     * @return true if absent, false if still present after the timeout
+     */
+    protected boolean isElementAbsent(By locator, int timeoutInSeconds) {
+        try {
+            waitFor("isElementAbsent", locator, Duration.ofSeconds(timeoutInSeconds), false, null,
+                    () -> DRIVER.findElements(locator).isEmpty());
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Asserts that no element matches the given locator, without waiting.
+     *
+     * @param locator      the By locator
+     * @param errorMessage error message if an element matches
+     */
+    protected void validateElementAbsent(By locator, String errorMessage) {
+        Assert.assertTrue(isElementAbsent(locator), errorMessage);
+    }
+
+    /**
+     * Waits until the given element has stopped moving, i.e. two consecutive polls report the same location and size.
+     * Replaces fixed sleeps while an animation settles.
+     *
+     * @param element          the WebElement to watch
+     * @param errorMessage     error message if the element does not settle
+     * @param timeoutInSeconds timeout in seconds
+     */
+    protected void waitForElementStable(WebElement element, String errorMessage, int timeoutInSeconds) {
+        Rectangle[] previous = new Rectangle[1];
+        waitFor("waitForElementStable", element, Duration.ofSeconds(timeoutInSeconds), false, errorMessage, () -> {
+            Rectangle current = element.getRect();
+            boolean stable = current.equals(previous[0]);
+            previous[0] = current;
+            return stable;
+        });
     }
 
     /**
      * Asserts that the element located by the given locator is displayed.
+     * The timeout is learned from previous waits for the locator, 5 seconds without history.
      *
      * @param locator      the By locator
      * @param errorMessage error message if not displayed
      */
     protected void validateElementDisplayed(By locator, String errorMessage) {
-        Assert.assertTrue(isElementDisplayed(locator, 5), errorMessage);
+        Assert.assertTrue(isElementDisplayed(locator, getTimeoutBudget(locator, VALIDATE_TIMEOUT_SECONDS), true), errorMessage);
     }
 
     /**
      * Asserts that the given element is displayed.
+     * The timeout is learned from previous waits for the element, 5 seconds without history.
      *
      * @param element      the WebElement to validate
      * @param errorMessage error message if not displayed
      */
     protected void validateElementDisplayed(WebElement element, String errorMessage) {
-        Assert.assertTrue(isElementDisplayed(element, 5), errorMessage);
+        Assert.assertTrue(isElementDisplayed(element, getTimeoutBudget(element, VALIDATE_TIMEOUT_SECONDS), true), errorMessage);
     }
 
-    protected void addDelay(int timeInSecs) {
+    /**
+     * Executes a mobile gesture, then drops the cached elements and element state, as the gesture may
+     * have changed the screen. All gestures of MobileGestures end up here.
+     *
+     * @param driver      the Appium driver instance
+     * @param gestureName the mobile gesture command
+     * @param params      additional parameters for the gesture
+     * @return the result of the gesture
+     */
+    @Override
+    public Object executeGesture(AppiumDriver driver, String gestureName, Map<String, Object> params) {
         try {
-            Thread.sleep(timeInSecs * 1000L);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+            return MobileGestures.super.executeGesture(driver, gestureName, params);
+        } finally {
+            invalidateCaches();
+        }
+    }
+
+    /**
+     * Returns the location and size of the given element through the ElementStateCache.
+     *
+     * @param element the WebElement to measure
+     * @return the element rect
+     */
+    @Override
+    public Rectangle getElementRect(WebElement element) {
+        WaitStrategy.implicitly(DRIVER);
+        return ElementStateCache.getRect(element);
+    }
+
+    /**
+     * Drops the cached elements and element state of the current thread after a mutating command.
+     */
+    private void invalidateCaches() {
+        ElementCache.invalidateAll();
+        ElementStateCache.clear();
+    }
+
+    /**
+     * Checks once whether the element located by the given locator is visible, through the ElementCache.
+     * A stale cached element is evicted, so the next poll looks it up again.
+     *
+     * @param locator the By locator
+     * @return true if the element is visible
+     */
+    private boolean isLocatedElementVisible(By locator) {
+        try {
+            return ElementStateCache.isDisplayed(getElement(locator));
+        } catch (StaleElementReferenceException e) {
+            ElementCache.evict(getClass(), locator);
+            return false;
+        } catch (NoSuchElementException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the given element is displayed within the given timeout.
+     *
+     * @param element the WebElement to check
+     * @param timeout the timeout
+     * @param learned whether the timeout is a TimeoutBudget
+     * @return true if displayed, false otherwise
+     */
+    private boolean isElementDisplayed(WebElement element, Duration timeout, boolean learned) {
+        try {
+            waitFor("isElementDisplayed", element, timeout, learned, null, () -> ElementStateCache.isDisplayed(element));
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if the element located by the given locator is displayed within the given timeout.
+     *
+     * @param locator the By locator
+     * @param timeout the timeout
+     * @param learned whether the timeout is a TimeoutBudget
+     * @return true if displayed, false otherwise
+     */
+    private boolean isElementDisplayed(By locator, Duration timeout, boolean learned) {
+        try {
+            waitFor("isElementDisplayed", locator, timeout, learned, null, () -> isLocatedElementVisible(locator));
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the timeout for a default-timeout wait on this page, learned from previous waits for the locator.
+     *
+     * @param locator        the locator or element waited for
+     * @param defaultSeconds the timeout without history
+     * @return the timeout
+     */
+    private Duration getTimeoutBudget(Object locator, int defaultSeconds) {
+        return TimeoutBudget.get(getTimeoutBudgetKey(locator), defaultSeconds);
+    }
+
+    /**
+     * @param locator the locator or element waited for
+     * @return the key the waits for the locator on this page are learned under
+     */
+    private String getTimeoutBudgetKey(Object locator) {
+        return getClass().getSimpleName() + " " + locator;
+    }
+
+    /**
+     * Waits for a condition on the adaptive WaitEngine schedule, with the implicit wait off, and writes a structured event for the finished wait:
+     * page, wait method, locator, duration and outcome. The duration of a met condition is recorded for TimeoutBudget;
+     * a learned timeout that runs out is recorded as well, so that the budget of the locator grows.
+     *
+     * @param action       the wait method
+     * @param locator      the locator or element waited for
+     * @param timeout      the timeout
+     * @param learned      whether the timeout is a TimeoutBudget
+     * @param errorMessage message of the TimeoutException, may be null
+     * @param condition    the condition to wait for
+     * @throws TimeoutException if the condition is not met within the timeout
+     */
+    private void waitFor(String action, Object locator, Duration timeout, boolean learned, String errorMessage,
+                         BooleanSupplier condition) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            WaitStrategy.explicitly(DRIVER, () -> WaitEngine.until(getClass().getSimpleName() + "." + action + " " + locator,
+                    condition, timeout, errorMessage));
+            success = true;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            if (success || learned) {
+                TimeoutBudget.record(getTimeoutBudgetKey(locator), nanos);
+            }
+            FlightRecorder.command(action + (success ? "" : " (failed)"), locator);
+            LoggerManager.atInfo()
+                    .with("page", getClass().getSimpleName())
+                    .with("action", action)
+                    .with("locator", locator)
+                    .with("timeoutMs", timeout.toMillis())
+                    .with("durationMs", nanos / 1_000_000)
+                    .with("success", String.valueOf(success))
+                    .log("Wait finished");
+        }
+    }
+
+    /**
+     * Builds the native locator of a page field with the AppiumFieldDecorator's mapping of the locator annotations,
+     * without the chaining and content mapping that keep its locators from being sent to the server.
+     */
+    private static final class NativeByBuilder extends DefaultElementByBuilder {
+        private NativeByBuilder() {
+            super(null, null);
+        }
+
+        /**
+         * @param field   the page field
+         * @param android whether to read the Android or the iOS annotation
+         * @return the locator of the field, or null if it has no single locator for the platform
+         */
+        private static By build(Field field, boolean android) {
+            Annotation annotation = android ? field.getAnnotation(AndroidFindBy.class) : field.getAnnotation(iOSXCUITFindBy.class);
+            return annotation == null ? null : createBy(new Annotation[]{annotation}, HowToUseSelectors.USE_ONE);
         }
     }
 }
@@ -8,11 +8,11 @@ import com.saucedemo.app.utils.PropertyUtils;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
+import org.testng.ITestContext;
 import org.testng.annotations.*;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
-import java.time.Duration;
 
 /**
  * Base test class for initializing and cleaning up Appium driver and service.
@@ -30,12 +30,19 @@ public abstract class BaseTest {
         try {
             LoggerManager.info("Clearing reports from previous execution...");
             FileUtils.clearFolder("target/reports");
+            FileUtils.clearFolder("target/reports/logs");
 
             LoggerManager.info("Loading config properties file...");
             PropertyUtils.loadConfigProperties();
 
+            LoggerManager.info("Loading wait history for timeout budgets...");
+            TimeoutBudget.load();
+
             LoggerManager.info("Starting Appium service...");
             AppiumServiceManager.startAppiumService();
+
+            LoggerManager.info("Starting device pool...");
+            DeviceManager.startDevicePool();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -43,20 +50,28 @@ public abstract class BaseTest {
 
     /**
      * Loads device profile, initializes the driver, and launches the app (if pre-installed) before each test.
+     * The device profile is taken from the "device.profile" test parameter when set (e.g. by the device matrix),
+     * otherwise from the config file.
      *
-     * @param method the test method about to be executed
+     * @param method  the test method about to be executed
+     * @param context the TestNG context of the test
      */
     @BeforeMethod(alwaysRun = true)
-    public void testSetup(Method method){
+    public void testSetup(Method method, ITestContext context){
 
         try {
-            LoggerManager.info("Loading device profile JSON file...");
-            JsonUtils.loadDeviceProfile(Constants.DEVICE_PROFILE);
+            String deviceProfile = getDeviceProfile(context);
+            LoggerManager.startTest(method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                    + "-" + deviceProfile.replace(".json", ""));
+            LoggerManager.info("Loading device profile JSON file: " + deviceProfile);
+            JsonUtils.loadDeviceProfile(deviceProfile);
 
             LoggerManager.info("Launching device...");
             //DeviceManager.launchDevice(Constants.getDeviceName());
+            DeviceManager.leaseDevice(deviceProfile);
 
             LoggerManager.info("Setting up driver for test: " + method.getName());
+            SessionPrewarmer.beginTest(method.getName());
             initDriver();
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -77,26 +92,42 @@ public abstract class BaseTest {
         AppManager.closeAppThreadSafe();
         //AppManager.removeAppThreadSafe();
         DriverManager.killDriver();
+        DeviceManager.releaseDevice();
         //closeDevice();
+        LoggerManager.endTest();
     }
 
     /**
-     * Stops the Appium service after the test suite completes.
+     * Saves the wait history, shuts down pooled drivers and stops the Appium service after the test suite completes.
      */
     @AfterSuite(alwaysRun = true)
     public static void tearDown() {
+        TimeoutBudget.save();
+        DriverManager.shutdown();
+        DeviceManager.stopDevicePool();
         LoggerManager.info("Stopping Appium service after suite...");
         AppiumServiceManager.stopAppiumService();
     }
 
     /**
-     * Initializes the AppiumDriver and sets the implicit wait timeout.
+     * Returns the device profile the current test runs on.
+     *
+     * @param context the TestNG context of the test
+     * @return the device profile file name
+     */
+    private String getDeviceProfile(ITestContext context) {
+        String deviceProfile = context.getCurrentXmlTest().getParameter(DeviceMatrixListener.DEVICE_PROFILE_PARAMETER);
+        return deviceProfile != null ? deviceProfile : Constants.DEVICE_PROFILE;
+    }
+
+    /**
+     * Initializes the AppiumDriver and sets the implicit wait timeout through WaitStrategy.
      * Driver instance is retrieved from DriverManager.
      */
     private void initDriver() {
         AppiumDriver driver = DriverManager.getDriver();
         LoggerManager.info("Initializing Appium driver...");
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+        WaitStrategy.init(driver);
     }
 
     /**
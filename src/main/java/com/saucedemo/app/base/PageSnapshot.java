@@ -0,0 +1,159 @@
+package com.saucedemo.app.base;
+
+import com.saucedemo.app.utils.LocatorEvaluator;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Rectangle;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Read-only view of the screen built from a single getPageSource() round trip. Locators are evaluated locally
+ * through LocatorEvaluator, so any number of visibility and text checks cost no further device calls.
+ * Elements are indexed by accessibility id up front, and the results of other locators are memoized.
+ * Only what is in the page source is visible: elements scrolled off screen are not found, and callers fall back
+ * to live lookups for them.
+ */
+public class PageSnapshot {
+    private static final Pattern BOUNDS = Pattern.compile("\\[(-?\\d+),(-?\\d+)]\\[(-?\\d+),(-?\\d+)]");
+
+    private final Document document;
+    private final boolean android;
+    private final Map<String, List<Element>> accessibilityIndex = new HashMap<>();
+    private final Map<String, List<Element>> results = new HashMap<>();
+
+    /**
+     * Parses and indexes a page source.
+     *
+     * @param pageSource the page source XML
+     */
+    PageSnapshot(String pageSource) {
+        this.document = LocatorEvaluator.parse(pageSource);
+        this.android = LocatorEvaluator.isAndroid(document);
+        String accessibilityAttribute = android ? "content-desc" : "name";
+        for (Element element : LocatorEvaluator.getElements(document)) {
+            String accessibilityId = element.getAttribute(accessibilityAttribute);
+            if (!accessibilityId.isEmpty()) {
+                accessibilityIndex.computeIfAbsent(accessibilityId, key -> new ArrayList<>()).add(element);
+            }
+        }
+    }
+
+    /**
+     * Finds the elements matching a locator in the snapshot.
+     *
+     * @param locator the AppiumBy locator
+     * @return the matching elements in document order, empty if there are none
+     */
+    public List<Element> findElements(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            throw new IllegalArgumentException("Locator cannot be evaluated on a page snapshot: " + locator);
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        String strategy = parameters.using();
+        String value = String.valueOf(parameters.value());
+        if (strategy.equals(LocatorEvaluator.ACCESSIBILITY_ID)) {
+            return accessibilityIndex.getOrDefault(value, new ArrayList<>());
+        }
+        return results.computeIfAbsent(strategy + ":" + value, key -> LocatorEvaluator.evaluate(document, strategy, value));
+    }
+
+    /**
+     * Finds the elements matching a locator below a context element, e.g. the title of one list item.
+     *
+     * @param context the element to search below
+     * @param locator the AppiumBy locator
+     * @return the matching descendants in document order, empty if there are none
+     */
+    public List<Element> findElements(Element context, By locator) {
+        List<Element> matches = new ArrayList<>();
+        for (Element element : findElements(locator)) {
+            for (Node parent = element.getParentNode(); parent != null; parent = parent.getParentNode()) {
+                if (parent == context) {
+                    matches.add(element);
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Checks whether the first element matching a locator is in the snapshot and displayed.
+     *
+     * @param locator the AppiumBy locator
+     * @return true if displayed
+     */
+    public boolean isDisplayed(By locator) {
+        List<Element> elements = findElements(locator);
+        return !elements.isEmpty() && isDisplayed(elements.get(0));
+    }
+
+    /**
+     * Checks whether an element of the snapshot is displayed.
+     *
+     * @param element the element
+     * @return true if displayed
+     */
+    public boolean isDisplayed(Element element) {
+        return "true".equals(element.getAttribute(android ? "displayed" : "visible"));
+    }
+
+    /**
+     * Returns the text of the first element matching a locator, as getText() would: the text attribute on Android,
+     * the value or else the label on iOS.
+     *
+     * @param locator the AppiumBy locator
+     * @return the text, or null if no element matches
+     */
+    public String getText(By locator) {
+        List<Element> elements = findElements(locator);
+        return elements.isEmpty() ? null : getText(elements.get(0));
+    }
+
+    /**
+     * Returns the text of an element of the snapshot, as getText() would.
+     *
+     * @param element the element
+     * @return the text
+     */
+    public String getText(Element element) {
+        if (android) {
+            return element.getAttribute("text");
+        }
+        String value = element.getAttribute("value");
+        return value.isEmpty() ? element.getAttribute("label") : value;
+    }
+
+    /**
+     * Returns the location and size of an element of the snapshot: the bounds attribute on Android, the x, y, width
+     * and height attributes on iOS.
+     *
+     * @param element the element
+     * @return the element rect, or null if the page source has no bounds for it
+     */
+    public Rectangle getRect(Element element) {
+        if (android) {
+            Matcher bounds = BOUNDS.matcher(element.getAttribute("bounds"));
+            if (!bounds.matches()) {
+                return null;
+            }
+            int left = Integer.parseInt(bounds.group(1));
+            int top = Integer.parseInt(bounds.group(2));
+            return new Rectangle(left, top, Integer.parseInt(bounds.group(4)) - top, Integer.parseInt(bounds.group(3)) - left);
+        }
+        try {
+            return new Rectangle(Integer.parseInt(element.getAttribute("x")), Integer.parseInt(element.getAttribute("y")),
+                    Integer.parseInt(element.getAttribute("height")), Integer.parseInt(element.getAttribute("width")));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
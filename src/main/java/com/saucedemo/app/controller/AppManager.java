@@ -55,14 +55,16 @@ public class AppManager {
      */
     private void launchApp() {
         AppiumDriver driver = DriverManager.getDriver();
+        ElementCache.invalidateAll();
+        ElementStateCache.clear();
         if (driver instanceof AndroidDriver) {
             String activity = Constants.APP_PACKAGE + "/" + Constants.APP_ACTIVITY;
-            LoggerManager.debug("Launching Android app with activity: " + activity);
+            LoggerManager.debug("Launching Android app with activity: {}", activity);
             ((JavascriptExecutor) driver).executeScript(
                     "mobile: startActivity", ImmutableMap.of("intent", activity));
         } else if (driver instanceof IOSDriver) {
             String bundleId = Constants.BUNDLE_ID;
-            LoggerManager.debug("Launching iOS app with bundleId: " + bundleId);
+            LoggerManager.debug("Launching iOS app with bundleId: {}", bundleId);
             ((JavascriptExecutor) driver).executeScript(
                     "mobile: launchApp", ImmutableMap.of("bundleId", bundleId));
         } else {
@@ -78,11 +80,13 @@ public class AppManager {
      */
     private void closeApp() {
         AppiumDriver driver = DriverManager.getDriver();
+        ElementCache.invalidateAll();
+        ElementStateCache.clear();
         if (driver instanceof AndroidDriver) {
-            LoggerManager.debug("Terminating Android app: " + Constants.APP_PACKAGE);
+            LoggerManager.debug("Terminating Android app: {}", Constants.APP_PACKAGE);
             ((AndroidDriver) driver).terminateApp(Constants.APP_PACKAGE);
         } else if (driver instanceof IOSDriver) {
-            LoggerManager.debug("Terminating iOS app: " + Constants.BUNDLE_ID);
+            LoggerManager.debug("Terminating iOS app: {}", Constants.BUNDLE_ID);
             ((IOSDriver) driver).terminateApp(Constants.BUNDLE_ID);
         } else {
             LoggerManager.error("Unsupported driver type: " + driver.getClass().getName());
@@ -98,10 +102,10 @@ public class AppManager {
     public void removeApp() {
         AppiumDriver driver = DriverManager.getDriver();
         if (driver instanceof AndroidDriver) {
-            LoggerManager.debug("Removing Android app: " + Constants.APP_PACKAGE);
+            LoggerManager.debug("Removing Android app: {}", Constants.APP_PACKAGE);
             ((AndroidDriver) driver).removeApp(Constants.APP_PACKAGE);
         } else if (driver instanceof IOSDriver) {
-            LoggerManager.debug("Removing iOS app: " + Constants.BUNDLE_ID);
+            LoggerManager.debug("Removing iOS app: {}", Constants.BUNDLE_ID);
             ((IOSDriver) driver).removeApp(Constants.BUNDLE_ID);
         } else {
             LoggerManager.error("Unsupported driver type: " + driver.getClass().getName());
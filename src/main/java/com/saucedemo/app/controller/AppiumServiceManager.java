@@ -3,11 +3,26 @@ package com.saucedemo.app.controller;
 import com.saucedemo.app.utils.Constants;
 import io.appium.java_client.service.local.AppiumDriverLocalService;
 import io.appium.java_client.service.local.AppiumServiceBuilder;
+import io.appium.java_client.service.local.flags.GeneralServerFlag;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages the lifecycle of the Appium server service.
+ * In fleet mode, several Appium servers are started on consecutive ports and sessions are spread across them.
  */
 public class AppiumServiceManager {
     /**
@@ -15,6 +30,13 @@ public class AppiumServiceManager {
      */
     private static volatile AppiumDriverLocalService service = null;
     private static final String APPIUM_LOG_FILEPATH = System.getProperty("user.dir") + "/target/reports/appium_server.log";
+    private static final String APPIUM_FLEET_LOG_FILEPATH = System.getProperty("user.dir") + "/target/reports/appium_server_%d.log";
+
+    /**
+     * Servers of the fleet, when more than one Appium server is configured.
+     */
+    private static final List<AppiumServer> FLEET = new CopyOnWriteArrayList<>();
+    private static volatile long fleetStartedAt;
 
     /**
      * Private constructor to prevent instantiation.
@@ -25,20 +47,12 @@ public class AppiumServiceManager {
      * Initializes the Appium service with the configured parameters.
      */
     public static void initAppiumService() {
-        File logFile = new File(APPIUM_LOG_FILEPATH);
-        service = new AppiumServiceBuilder()
-                .withAppiumJS(new File(Constants.APPIUM_JS_FILEPATH))
-                .usingDriverExecutable(new File(Constants.APPIUM_NODE_EXECUTABLE))
-                .withIPAddress(Constants.APPIUM_IP_ADDRESS)
-                .usingPort(Constants.APPIUM_PORT)
-                .withArgument(() -> "--log-no-color")
-                .withLogFile(logFile)
-                .withLogOutput(null)
-                .build();
+        service = buildService(Constants.APPIUM_PORT, new File(APPIUM_LOG_FILEPATH));
     }
 
     /**
      * Starts the Appium service if it is not already running.
+     * When the fleet size is greater than one, starts the whole fleet instead.
      * Throws a RuntimeException if the service is already running or fails to start.
      */
     public static void startAppiumService() {
@@ -46,6 +60,10 @@ public class AppiumServiceManager {
             LoggerManager.info("Appium service is not required for Perfecto testing. Skipping service start.");
             return;
         }
+        if (isFleetEnabled()) {
+            startAppiumFleet();
+            return;
+        }
         initAppiumService();
         if (service != null && !service.isRunning()) {
             service.start();
@@ -68,6 +86,10 @@ public class AppiumServiceManager {
             LoggerManager.info("Appium service is not required for Perfecto testing. Skipping service stop.");
             return;
         }
+        if (isFleetEnabled()) {
+            stopAppiumFleet();
+            return;
+        }
         if (service != null && service.isRunning()) {
             service.stop();
         } else if (service != null) {
@@ -76,4 +98,238 @@ public class AppiumServiceManager {
             throw new RuntimeException("Appium service was not initialized.");
         }
     }
+
+    /**
+     * Returns the URL of the Appium server a new session should be created on.
+     * In fleet mode, the healthy server with the fewest active sessions is chosen and its load is increased in one
+     * atomic step, so that concurrent callers do not pile onto the same server;
+     * the caller must hand the URL back through {@link #releaseServerUrl(String)} once the session is gone.
+     *
+     * @return the Appium server URL
+     */
+    public static String acquireServerUrl() {
+        if (!isFleetEnabled()) {
+            return getServerUrl(Constants.APPIUM_PORT);
+        }
+        List<AppiumServer> candidates = new ArrayList<>(FLEET);
+        while (!candidates.isEmpty()) {
+            AppiumServer leastLoaded = null;
+            int load = Integer.MAX_VALUE;
+            for (AppiumServer server : candidates) {
+                int serverLoad = server.activeSessions.get();
+                if (serverLoad < load) {
+                    leastLoaded = server;
+                    load = serverLoad;
+                }
+            }
+            if (!leastLoaded.isHealthy()) {
+                LoggerManager.error("Appium server on port " + leastLoaded.port + " failed its health check. Skipping it.");
+                candidates.remove(leastLoaded);
+                continue;
+            }
+            // Only take the server if its load is still the one it was chosen for; otherwise another thread
+            // acquired it in the meantime and the least loaded server is chosen again.
+            if (leastLoaded.activeSessions.compareAndSet(load, load + 1)) {
+                leastLoaded.totalSessions.incrementAndGet();
+                return leastLoaded.url;
+            }
+        }
+        throw new RuntimeException("No healthy Appium server available in the fleet.");
+    }
+
+    /**
+     * Decreases the load of the fleet server with the given URL. Does nothing outside fleet mode.
+     *
+     * @param url the Appium server URL returned by {@link #acquireServerUrl()}
+     */
+    public static void releaseServerUrl(String url) {
+        for (AppiumServer server : FLEET) {
+            if (server.url.equals(url)) {
+                server.activeSessions.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns whether more than one Appium server is configured.
+     *
+     * @return true if fleet mode is enabled
+     */
+    public static boolean isFleetEnabled() {
+        return Constants.APPIUM_FLEET_SIZE > 1;
+    }
+
+    /**
+     * Starts all servers of the fleet in parallel, each on its own port and with its own log file.
+     * Servers which fail to start are left out of the fleet; an exception is thrown only if none started.
+     */
+    private static void startAppiumFleet() {
+        if (!FLEET.isEmpty()) {
+            throw new RuntimeException("Appium fleet is already running.");
+        }
+        int size = Constants.APPIUM_FLEET_SIZE;
+        LoggerManager.info("Starting Appium fleet of " + size + " servers from port " + Constants.APPIUM_PORT + "...");
+        ExecutorService executor = Executors.newFixedThreadPool(size);
+        List<Future<AppiumServer>> futures = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int port = Constants.APPIUM_PORT + i;
+            futures.add(executor.submit(() -> startFleetServer(port)));
+        }
+        for (Future<AppiumServer> future : futures) {
+            try {
+                FLEET.add(future.get());
+            } catch (ExecutionException e) {
+                LoggerManager.error("Failed to start Appium server: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while starting Appium fleet.", e);
+            }
+        }
+        executor.shutdown();
+        if (FLEET.isEmpty()) {
+            throw new RuntimeException("Failed to start any Appium server of the fleet.");
+        }
+        fleetStartedAt = System.nanoTime();
+        LoggerManager.info("Appium fleet started with " + FLEET.size() + " of " + size + " servers.");
+    }
+
+    /**
+     * Starts a single fleet server and waits until it answers on /status.
+     *
+     * @param port the port to start the server on
+     * @return the started server
+     */
+    private static AppiumServer startFleetServer(int port) {
+        AppiumDriverLocalService fleetService = buildService(port, new File(String.format(APPIUM_FLEET_LOG_FILEPATH, port)));
+        fleetService.start();
+        AppiumServer server = new AppiumServer(port, fleetService);
+        if (!server.isHealthy()) {
+            fleetService.stop();
+            throw new RuntimeException("Appium server on port " + port + " did not answer on /status.");
+        }
+        LoggerManager.info("Appium server started on port " + port);
+        return server;
+    }
+
+    /**
+     * Stops all servers of the fleet in parallel and logs how many sessions each server handled.
+     */
+    private static void stopAppiumFleet() {
+        if (FLEET.isEmpty()) {
+            throw new RuntimeException("Appium fleet was not started or has already been stopped.");
+        }
+        logFleetThroughput();
+        ExecutorService executor = Executors.newFixedThreadPool(FLEET.size());
+        for (AppiumServer server : FLEET) {
+            executor.submit(() -> {
+                if (server.service.isRunning()) {
+                    server.service.stop();
+                }
+                LoggerManager.info("Appium server stopped on port " + server.port);
+            });
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LoggerManager.error("Timed out waiting for the Appium fleet to stop.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        FLEET.clear();
+    }
+
+    /**
+     * Logs the number of sessions handled per server and the session throughput of the whole fleet,
+     * so that runs with different fleet sizes can be compared.
+     */
+    private static void logFleetThroughput() {
+        long totalSessions = 0L;
+        for (AppiumServer server : FLEET) {
+            totalSessions += server.totalSessions.get();
+            LoggerManager.info("Appium server on port " + server.port + " handled " + server.totalSessions.get() + " sessions.");
+        }
+        double minutes = Math.max(1L, System.nanoTime() - fleetStartedAt) / 60_000_000_000.0;
+        LoggerManager.info(String.format("Appium fleet throughput: servers=%d, sessions=%d, sessionsPerMinute=%.2f",
+                FLEET.size(), totalSessions, totalSessions / minutes));
+    }
+
+    /**
+     * Builds an Appium service with the configured parameters on the given port.
+     * With command.batch.appium.plugin, the server loads the execute-driver plugin used by CommandBatch.
+     *
+     * @param port    the port for the server
+     * @param logFile the file the server logs are written to
+     * @return the AppiumDriverLocalService
+     */
+    private static AppiumDriverLocalService buildService(int port, File logFile) {
+        AppiumServiceBuilder builder = new AppiumServiceBuilder()
+                .withAppiumJS(new File(Constants.APPIUM_JS_FILEPATH))
+                .usingDriverExecutable(new File(Constants.APPIUM_NODE_EXECUTABLE))
+                .withIPAddress(Constants.APPIUM_IP_ADDRESS)
+                .usingPort(port)
+                .withArgument(() -> "--log-no-color")
+                .withLogFile(logFile)
+                .withLogOutput(null);
+        if (CommandBatch.isEnabled()) {
+            // CommandBatch sends steps to the execute-driver endpoint, which needs the plugin and the insecure feature.
+            builder.withArgument(GeneralServerFlag.USE_PLUGINS, "execute-driver")
+                    .withArgument(GeneralServerFlag.ALLOW_INSECURE, "execute_driver_script");
+        }
+        return builder.build();
+    }
+
+    private static String getServerUrl(int port) {
+        return "http://" + Constants.APPIUM_IP_ADDRESS + ":" + port;
+    }
+
+    /**
+     * An Appium server of the fleet together with its load counters.
+     */
+    private static final class AppiumServer {
+        private static final long HEALTH_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+        private final int port;
+        private final String url;
+        private final AppiumDriverLocalService service;
+        private final AtomicInteger activeSessions = new AtomicInteger();
+        private final AtomicLong totalSessions = new AtomicLong();
+        private volatile long lastHealthyAt;
+
+        private AppiumServer(int port, AppiumDriverLocalService service) {
+            this.port = port;
+            this.url = getServerUrl(port);
+            this.service = service;
+        }
+
+        /**
+         * Probes the /status endpoint of the server. A successful probe is trusted for a few seconds
+         * so that busy servers are not probed before every session.
+         *
+         * @return true if the server answered with HTTP 200
+         */
+        private boolean isHealthy() {
+            if (lastHealthyAt != 0 && System.nanoTime() - lastHealthyAt < HEALTH_CHECK_INTERVAL_NANOS) {
+                return true;
+            }
+            HttpURLConnection connection = null;
+            try {
+                connection = (HttpURLConnection) new URL(url + "/status").openConnection();
+                connection.setConnectTimeout(2000);
+                connection.setReadTimeout(2000);
+                if (connection.getResponseCode() == HttpURLConnection.HTTP_OK) {
+                    lastHealthyAt = System.nanoTime();
+                    return true;
+                }
+            } catch (IOException e) {
+                LoggerManager.debug("Status probe failed for Appium server on port {}: {}", port, e.getMessage());
+            } finally {
+                if (connection != null) {
+                    connection.disconnect();
+                }
+            }
+            return false;
+        }
+    }
 }
@@ -0,0 +1,335 @@
+package com.saucedemo.app.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saucedemo.app.utils.Constants;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ExecutesDriverScript;
+import io.appium.java_client.driverscripts.ScriptOptions;
+import io.appium.java_client.driverscripts.ScriptType;
+import org.openqa.selenium.By;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Records the commands of a page-object step on the elements of a page and sends them to Appium's execute-driver
+ * endpoint in one round trip, where a WebdriverIO script runs them next to the device. The server runs the commands
+ * up to the first one that fails and returns their results in recording order. The page runs the rest of the step,
+ * from the size of the results on, through its own per-command path, so no command runs twice and a failure
+ * surfaces with the usual waits and exceptions. Nothing is sent, and the page runs the whole step, when the page
+ * does not batch its steps (by default unless command.batch.enabled is set and the Appium server is started with the
+ * execute-driver plugin, command.batch.appium.plugin), the driver cannot execute driver scripts, an element has no
+ * locator the server can use, or the server answered a batch of this session with an unknown command.
+ */
+public class CommandBatch {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SCRIPT =
+            "const commands = %s;\n" +
+            "const elementId = element => element && (element['element-6066-11e4-a52e-4f735466cecf'] || element.ELEMENT);\n" +
+            "const results = [];\n" +
+            "for (let i = 0; i < commands.length; i++) {\n" +
+            "    const command = commands[i];\n" +
+            "    try {\n" +
+            "        let id = null;\n" +
+            "        if (command.using) {\n" +
+            "            const element = await driver.findElement(command.using, command.value);\n" +
+            "            id = elementId(element);\n" +
+            "            if (!id) throw new Error((element && element.message) || 'no such element');\n" +
+            "        }\n" +
+            "        switch (command.name) {\n" +
+            "            case 'setValue':\n" +
+            "                await driver.elementClear(id);\n" +
+            "                await driver.elementSendKeys(id, command.text);\n" +
+            "                results.push(null);\n" +
+            "                break;\n" +
+            "            case 'click':\n" +
+            "                await driver.elementClick(id);\n" +
+            "                results.push(null);\n" +
+            "                break;\n" +
+            "            case 'getText':\n" +
+            "                results.push(await driver.getElementText(id));\n" +
+            "                break;\n" +
+            "            case 'isDisplayed':\n" +
+            "                results.push(await driver.isElementDisplayed(id));\n" +
+            "                break;\n" +
+            "            case 'execute':\n" +
+            "                results.push(await driver.executeScript(command.script, [id ? Object.assign({elementId: id}, command.args) : command.args]));\n" +
+            "                break;\n" +
+            "        }\n" +
+            "    } catch (e) {\n" +
+            "        return {results: results, failed: i, error: String(e)};\n" +
+            "    }\n" +
+            "}\n" +
+            "return {results: results, failed: -1};";
+
+    /**
+     * Sessions whose server does not know the execute-driver endpoint. Their steps are not batched.
+     */
+    private static final Set<SessionId> UNSUPPORTED_SESSIONS = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicLong BATCHES = new AtomicLong();
+    private static final AtomicLong BATCHED_COMMANDS = new AtomicLong();
+    private static final AtomicLong FALLBACK_COMMANDS = new AtomicLong();
+    private static final AtomicLong SAVED_ROUND_TRIPS = new AtomicLong();
+
+    private final AppiumDriver driver;
+    private final String step;
+    private final Function<WebElement, By> locators;
+    private final boolean enabled;
+    private final List<Command> commands = new ArrayList<>();
+
+    /**
+     * Creates an empty batch for a step of a page.
+     *
+     * @param driver   the AppiumDriver
+     * @param step     the name of the step, for the logs
+     * @param locators gives the locator of an element of the page, or null if it has none
+     * @param enabled  whether the step may be sent to the execute-driver endpoint, see {@link #isEnabled()}
+     */
+    public CommandBatch(AppiumDriver driver, String step, Function<WebElement, By> locators, boolean enabled) {
+        this.driver = driver;
+        this.step = step;
+        this.locators = locators;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns whether steps are batched by configuration: batching is enabled (command.batch.enabled) and the
+     * Appium server is started with the execute-driver plugin (command.batch.appium.plugin).
+     *
+     * @return true if steps are batched
+     */
+    public static boolean isEnabled() {
+        return Constants.ENABLE_COMMAND_BATCH && Constants.COMMAND_BATCH_APPIUM_PLUGIN;
+    }
+
+    /**
+     * Records clearing a text field and typing a value into it. The result is null.
+     *
+     * @param element the field
+     * @param text    the value
+     * @return this batch
+     */
+    public CommandBatch setValue(WebElement element, String text) {
+        Command command = new Command("setValue", element, 3);
+        command.text = text;
+        return add(command);
+    }
+
+    /**
+     * Records a click. The result is null.
+     *
+     * @param element the element
+     * @return this batch
+     */
+    public CommandBatch click(WebElement element) {
+        return add(new Command("click", element, 2));
+    }
+
+    /**
+     * Records reading the text of an element. The result is the text.
+     *
+     * @param element the element
+     * @return this batch
+     */
+    public CommandBatch getText(WebElement element) {
+        return add(new Command("getText", element, 2));
+    }
+
+    /**
+     * Records checking whether an element is displayed. The result is a Boolean.
+     *
+     * @param element the element
+     * @return this batch
+     */
+    public CommandBatch isDisplayed(WebElement element) {
+        return add(new Command("isDisplayed", element, 2));
+    }
+
+    /**
+     * Records a script, e.g. a "mobile: " gesture. If an element is given, its id is added to the parameters as
+     * elementId. The result is the result of the script.
+     *
+     * @param script  the script
+     * @param element the target element, may be null
+     * @param params  the parameters of the script
+     * @return this batch
+     */
+    public CommandBatch execute(String script, WebElement element, Map<String, Object> params) {
+        Command command = new Command("execute", element, element == null ? 1 : 2);
+        command.script = script;
+        command.params = params;
+        return add(command);
+    }
+
+    /**
+     * Sends the recorded commands to the server in one round trip if the step can be batched. The element caches
+     * are dropped afterwards if the server ran a command, as the step may have changed the screen.
+     *
+     * @return the results of the commands the server ran, in recording order; the page runs the commands from the
+     * size of the results on
+     */
+    public List<Object> run() {
+        if (!isBatchable()) {
+            FALLBACK_COMMANDS.addAndGet(commands.size());
+            return new ArrayList<>();
+        }
+        FlightRecorder.command("batch", step);
+        long start = System.nanoTime();
+        List<Object> results = runBatched();
+        if (!results.isEmpty()) {
+            ElementCache.invalidateAll();
+            ElementStateCache.clear();
+        }
+        FALLBACK_COMMANDS.addAndGet(commands.size() - results.size());
+        LoggerManager.atInfo()
+                .with("step", step)
+                .with("commands", commands.size())
+                .with("batched", results.size())
+                .with("durationMs", (System.nanoTime() - start) / 1_000_000)
+                .log("Step batched");
+        return results;
+    }
+
+    /**
+     * Returns a one-line summary of the batching metrics: batches, commands run in batches or left to the pages,
+     * and the round trips the batches saved over running their commands one by one.
+     *
+     * @return the metrics summary
+     */
+    public static String getMetricsSummary() {
+        return String.format("Command batches: batches=%d, batchedCommands=%d, fallbackCommands=%d, savedRoundTrips=%d",
+                BATCHES.get(), BATCHED_COMMANDS.get(), FALLBACK_COMMANDS.get(), SAVED_ROUND_TRIPS.get());
+    }
+
+    /**
+     * Records a command.
+     *
+     * @param command the command
+     * @return this batch
+     */
+    private CommandBatch add(Command command) {
+        commands.add(command);
+        return this;
+    }
+
+    /**
+     * Checks whether the step can be sent to the execute-driver endpoint.
+     *
+     * @return true if batching is enabled and supported, and every element has a locator the server can use
+     */
+    private boolean isBatchable() {
+        if (!enabled || commands.size() < 2
+                || !(driver instanceof ExecutesDriverScript) || UNSUPPORTED_SESSIONS.contains(driver.getSessionId())) {
+            return false;
+        }
+        for (Command command : commands) {
+            if (command.element != null && !(locators.apply(command.element) instanceof By.Remotable)) {
+                LoggerManager.debug("Step {} is not batched: an element of command {} has no locator the server can use",
+                        step, command.name);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sends the commands in one execute-driver script. If the server does not know the endpoint, the session is
+     * marked unsupported and no command has run. Any other failure of the request is thrown, as the server may have
+     * run part of the step and running it again could repeat a tap.
+     *
+     * @return the results of the commands the server ran
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object> runBatched() {
+        String script;
+        try {
+            script = String.format(SCRIPT, MAPPER.writeValueAsString(toJson()));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not build the script of step " + step, e);
+        }
+        WaitStrategy.implicitly(driver);
+        Map<String, Object> value;
+        try {
+            value = (Map<String, Object>) ((ExecutesDriverScript) driver).executeDriverScript(script, new ScriptOptions()
+                    .withScriptType(ScriptType.WEBDRIVERIO)
+                    .withTimeout(Constants.COMMAND_BATCH_TIMEOUT_MS)).getResult();
+        } catch (UnsupportedCommandException e) {
+            UNSUPPORTED_SESSIONS.add(driver.getSessionId());
+            LoggerManager.info("Execute-driver endpoint not available, steps of session {} are not batched: {}",
+                    driver.getSessionId(), e.getRawMessage());
+            return new ArrayList<>();
+        } catch (WebDriverException e) {
+            throw new RuntimeException("Batch of step " + step + " failed", e);
+        }
+        List<Object> results = new ArrayList<>((List<Object>) value.get("results"));
+        int failed = ((Number) value.get("failed")).intValue();
+        if (failed >= 0) {
+            LoggerManager.debug("Command {} of step {} failed in the batch, the page runs the rest: {}",
+                    failed, step, value.get("error"));
+        }
+        BATCHES.incrementAndGet();
+        BATCHED_COMMANDS.addAndGet(results.size());
+        long roundTrips = 0;
+        for (int i = 0; i < results.size(); i++) {
+            roundTrips += commands.get(i).roundTrips;
+        }
+        SAVED_ROUND_TRIPS.addAndGet(roundTrips - 1);
+        return results;
+    }
+
+    /**
+     * @return the commands as sent to the script
+     */
+    private List<Map<String, Object>> toJson() {
+        List<Map<String, Object>> json = new ArrayList<>();
+        for (Command command : commands) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", command.name);
+            if (command.element != null) {
+                By.Remotable.Parameters parameters = ((By.Remotable) locators.apply(command.element)).getRemoteParameters();
+                entry.put("using", parameters.using());
+                entry.put("value", parameters.value());
+            }
+            if (command.text != null) {
+                entry.put("text", command.text);
+            }
+            if (command.script != null) {
+                entry.put("script", command.script);
+                entry.put("args", command.params == null ? Collections.emptyMap() : command.params);
+            }
+            json.add(entry);
+        }
+        return json;
+    }
+
+    /**
+     * A recorded command and the number of round trips it costs when run on its own.
+     */
+    private static final class Command {
+        private final String name;
+        private final WebElement element;
+        private final int roundTrips;
+        private String text;
+        private String script;
+        private Map<String, Object> params;
+
+        private Command(String name, WebElement element, int roundTrips) {
+            this.name = name;
+            this.element = element;
+            this.roundTrips = roundTrips;
+        }
+    }
+}
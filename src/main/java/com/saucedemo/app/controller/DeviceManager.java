@@ -1,11 +1,65 @@
 package com.saucedemo.app.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saucedemo.app.objects.DeviceProfile;
 import com.saucedemo.app.utils.Constants;
+import com.saucedemo.app.utils.DeviceProfileRegistry;
+
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class DeviceManager {
+    private static final String REPORT_PATH = System.getProperty("user.dir") + "/target/reports";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Devices of the pool, booted once and kept warm across tests.
+     */
+    private static final List<PooledDevice> DEVICES = new CopyOnWriteArrayList<>();
+
+    /**
+     * Tests waiting for a device, in arrival order. Guarded by LOCK.
+     */
+    private static final Deque<LeaseRequest> WAITING_REQUESTS = new ArrayDeque<>();
+    private static final ReentrantLock LOCK = new ReentrantLock(true);
+
+    /**
+     * Device leased by the test running on the current thread.
+     */
+    private static final ThreadLocal<PooledDevice> LEASED_DEVICE = new ThreadLocal<>();
+
+    /**
+     * Boots and recycles devices in the background.
+     */
+    private static final ExecutorService BOOTER = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "device-booter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final AtomicLong LEASES = new AtomicLong();
+    private static final AtomicLong TOTAL_LEASE_WAIT_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_LEASE_WAIT_NANOS = new AtomicLong();
+
     /**
      * android: Launches the emulator by running the launch_emulator.sh script with the given device name.
      * ios: Launches the simulator by running the launch_simulator.sh script with the given device name.
@@ -35,6 +89,464 @@ public class DeviceManager {
         }
     }
 
+    /**
+     * Boots all devices of the pool concurrently, one per entry of device.pool.profiles,
+     * and waits until each reports that it has finished booting.
+     * Does nothing when the device pool is disabled or Perfecto is used.
+     *
+     * @throws IOException if a device profile cannot be read or no device could be booted
+     */
+    public static void startDevicePool() throws IOException {
+        if (!isDevicePoolEnabled()) {
+            return;
+        }
+        String[] profiles = Constants.DEVICE_POOL_PROFILES.split(",");
+        LoggerManager.info("Booting device pool of " + profiles.length + " devices...");
+        List<Future<?>> boots = new ArrayList<>();
+        int androidIndex = 0;
+        for (String profile : profiles) {
+            DeviceProfile profileData = DeviceProfileRegistry.get(profile.trim());
+            String platform = String.valueOf(profileData.getPlatformName()).toLowerCase();
+            String deviceName = profileData.getDeviceName();
+            String avdName = profileData.getString("avd_name");
+            PooledDevice device;
+            if (platform.equals("android")) {
+                int consolePort = 5554 + 2 * androidIndex++;
+                device = new PooledDevice(profile.trim(), getDeviceKind(profileData), platform, deviceName,
+                        avdName != null ? avdName : deviceName.replace(' ', '_'),
+                        "emulator-" + consolePort, consolePort);
+            } else if (platform.equals("ios")) {
+                String udid = profileData.getUdid() != null ? profileData.getUdid()
+                        : resolveSimulatorUdid(deviceName, profileData.getPlatformVersion());
+                device = new PooledDevice(profile.trim(), getDeviceKind(profileData), platform, deviceName, deviceName,
+                        udid, 0);
+            } else {
+                throw new UnsupportedOperationException("Device pool is only supported for Android and iOS platforms.");
+            }
+            DEVICES.add(device);
+            boots.add(BOOTER.submit(() -> bootDevice(device)));
+        }
+        List<PooledDevice> devices = new ArrayList<>(DEVICES);
+        int booted = 0;
+        for (int i = 0; i < boots.size(); i++) {
+            try {
+                boots.get(i).get();
+                booted++;
+            } catch (ExecutionException e) {
+                LoggerManager.error("Failed to boot pooled device: " + e.getCause().getMessage());
+                removeDevice(devices.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while booting device pool.", e);
+            }
+        }
+        if (booted == 0) {
+            throw new IOException("Failed to boot any device of the device pool.");
+        }
+        LoggerManager.info("Device pool ready with " + booted + " of " + profiles.length + " devices.");
+    }
+
+    /**
+     * Leases a ready device matching the given device profile for the test running on the current thread.
+     * A device matches when it was booted from a profile with the same platform, platform version, device name and
+     * automation name, whatever the profile file. Requests are served in arrival order; a request only waits behind
+     * earlier requests for the same kind of device. A request fails as soon as the pool has no device left for its
+     * profile. Does nothing when the device pool is disabled or Perfecto is used.
+     *
+     * @param profile the device profile the test requires (e.g. "android/local.pixel7.json")
+     * @throws IOException if the device profile cannot be read
+     */
+    public static void leaseDevice(String profile) throws IOException {
+        if (!isDevicePoolEnabled()) {
+            return;
+        }
+        if (LEASED_DEVICE.get() != null) {
+            throw new IllegalStateException("Current thread already holds device: " + LEASED_DEVICE.get().udid);
+        }
+        String kind = getDeviceKind(DeviceProfileRegistry.get(profile));
+        if (!hasDevice(kind)) {
+            throw new IllegalArgumentException("No device in the device pool was booted for profile: " + profile);
+        }
+        long start = System.nanoTime();
+        long remaining = TimeUnit.SECONDS.toNanos(Constants.DEVICE_POOL_LEASE_TIMEOUT_SECONDS);
+        LOCK.lock();
+        try {
+            LeaseRequest request = new LeaseRequest(kind, LOCK.newCondition());
+            WAITING_REQUESTS.addLast(request);
+            dispatch();
+            while (request.device == null) {
+                if (!hasDevice(kind)) {
+                    WAITING_REQUESTS.remove(request);
+                    throw new RuntimeException("No device left in the device pool for profile: " + profile);
+                }
+                if (remaining <= 0) {
+                    WAITING_REQUESTS.remove(request);
+                    throw new RuntimeException("Timed out waiting for a device for profile: " + profile);
+                }
+                remaining = request.granted.awaitNanos(remaining);
+            }
+            LEASED_DEVICE.set(request.device);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a device for profile: " + profile, e);
+        } finally {
+            LOCK.unlock();
+        }
+        long waited = System.nanoTime() - start;
+        LEASES.incrementAndGet();
+        TOTAL_LEASE_WAIT_NANOS.addAndGet(waited);
+        MAX_LEASE_WAIT_NANOS.accumulateAndGet(waited, Math::max);
+        LoggerManager.info("Leased device " + LEASED_DEVICE.get().udid + " after "
+                + TimeUnit.NANOSECONDS.toMillis(waited) + " ms.");
+    }
+
+    /**
+     * Returns the udid of the device leased by the current thread.
+     *
+     * @return the device udid, or null if no device is leased
+     */
+    public static String getLeasedDeviceId() {
+        PooledDevice device = LEASED_DEVICE.get();
+        return device != null ? device.udid : null;
+    }
+
+    /**
+     * Returns the device leased by the current thread to the pool. The device is kept running for the next test,
+     * unless it fails its health check, in which case it is rebooted in the background before being leased again.
+     * A device that does not come back up is removed from the pool.
+     */
+    public static void releaseDevice() {
+        PooledDevice device = LEASED_DEVICE.get();
+        if (device == null) {
+            return;
+        }
+        LEASED_DEVICE.remove();
+        device.totalLeasedNanos += System.nanoTime() - device.leasedAt;
+        if (isBootCompleted(device)) {
+            makeAvailable(device);
+            return;
+        }
+        LoggerManager.error("Device " + device.udid + " failed its health check. Recycling it.");
+        device.recycles++;
+        BOOTER.submit(() -> {
+            try {
+                shutdownDevice(device);
+                bootDevice(device);
+            } catch (RuntimeException e) {
+                LoggerManager.error("Failed to recycle device " + device.udid + ": " + e.getMessage());
+                removeDevice(device);
+            }
+        });
+    }
+
+    /**
+     * Shuts down all devices of the pool and exports the lease wait times and utilisation per device.
+     */
+    public static void stopDevicePool() {
+        if (!isDevicePoolEnabled() || DEVICES.isEmpty()) {
+            return;
+        }
+        writePoolReport();
+        for (PooledDevice device : DEVICES) {
+            shutdownDevice(device);
+        }
+        DEVICES.clear();
+        BOOTER.shutdownNow();
+    }
+
+    /**
+     * Boots the device without waiting for a launcher script and polls until the OS reports that booting completed.
+     *
+     * @param device the device to boot
+     */
+    private static void bootDevice(PooledDevice device) {
+        LoggerManager.info("Booting device " + device.udid + " (" + device.deviceName + ")...");
+        long start = System.nanoTime();
+        try {
+            if (device.platform.equals("android")) {
+                File logFile = new File(REPORT_PATH + "/" + device.udid + ".log");
+                logFile.getParentFile().mkdirs();
+                device.process = new ProcessBuilder(Constants.ANDROID_EMULATOR_PATH, "-avd", device.avdName,
+                        "-port", String.valueOf(device.consolePort), "-read-only", "-no-snapshot-save", "-no-boot-anim")
+                        .redirectErrorStream(true)
+                        .redirectOutput(logFile)
+                        .start();
+            } else {
+                runCommand("xcrun", "simctl", "boot", device.udid);
+            }
+            long deadline = start + TimeUnit.SECONDS.toNanos(Constants.DEVICE_POOL_BOOT_TIMEOUT_SECONDS);
+            while (!isBootCompleted(device)) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new RuntimeException("Device " + device.udid + " did not finish booting in time.");
+                }
+                if (device.process != null && !device.process.isAlive()) {
+                    throw new RuntimeException("Emulator process for " + device.udid + " exited during boot.");
+                }
+                Thread.sleep(1000);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to boot device " + device.udid + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while booting device " + device.udid, e);
+        }
+        device.bootedAt = System.nanoTime();
+        LoggerManager.info("Device " + device.udid + " ready after " + TimeUnit.NANOSECONDS.toSeconds(device.bootedAt - start) + " s.");
+        makeAvailable(device);
+    }
+
+    /**
+     * Checks whether the device finished booting: sys.boot_completed for emulators,
+     * a booted state in simctl for simulators.
+     *
+     * @param device the device to check
+     * @return true if the device is ready for a session
+     */
+    private static boolean isBootCompleted(PooledDevice device) {
+        try {
+            if (device.platform.equals("android")) {
+                return "1".equals(runCommand(Constants.ANDROID_ADB_PATH, "-s", device.udid,
+                        "shell", "getprop", "sys.boot_completed").trim());
+            }
+            for (JsonNode simulator : listSimulators()) {
+                if (simulator.path("udid").asText().equals(device.udid)) {
+                    return simulator.path("state").asText().equals("Booted");
+                }
+            }
+            return false;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Shuts down a single device, ignoring failures of devices that are already gone.
+     *
+     * @param device the device to shut down
+     */
+    private static void shutdownDevice(PooledDevice device) {
+        LOCK.lock();
+        try {
+            device.available = false;
+        } finally {
+            LOCK.unlock();
+        }
+        try {
+            if (device.platform.equals("android")) {
+                runCommand(Constants.ANDROID_ADB_PATH, "-s", device.udid, "emu", "kill");
+                if (device.process != null) {
+                    device.process.waitFor(30, TimeUnit.SECONDS);
+                    device.process.destroy();
+                }
+            } else {
+                runCommand("xcrun", "simctl", "shutdown", device.udid);
+            }
+        } catch (IOException | RuntimeException e) {
+            LoggerManager.error("Error shutting down device " + device.udid + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Marks the device as available and hands it to the earliest waiting request it matches.
+     *
+     * @param device the device that became available
+     */
+    private static void makeAvailable(PooledDevice device) {
+        LOCK.lock();
+        try {
+            device.available = true;
+            dispatch();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Removes a device that could not be booted from the pool, and wakes the waiting requests so that those left
+     * without a device for their profile fail instead of waiting out the lease timeout.
+     *
+     * @param device the device to remove
+     */
+    private static void removeDevice(PooledDevice device) {
+        LOCK.lock();
+        try {
+            device.available = false;
+            DEVICES.remove(device);
+            for (LeaseRequest request : WAITING_REQUESTS) {
+                request.granted.signal();
+            }
+        } finally {
+            LOCK.unlock();
+        }
+        LoggerManager.error("Removed device " + device.udid + " from the device pool.");
+    }
+
+    /**
+     * Checks whether the pool has a device of the given kind, leased or not.
+     *
+     * @param kind the kind of device, see {@link #getDeviceKind(DeviceProfile)}
+     * @return true if a device of the pool is of that kind
+     */
+    private static boolean hasDevice(String kind) {
+        for (PooledDevice device : DEVICES) {
+            if (device.kind.equals(kind)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the kind of device a profile describes: its platform, platform version, device name and automation
+     * name. Profiles which only differ in session settings such as the language or the locale describe the same kind
+     * of device, so a device booted from one of them can serve tests of the others.
+     *
+     * @param profile the device profile
+     * @return the kind of device
+     */
+    private static String getDeviceKind(DeviceProfile profile) {
+        return String.join("|", String.valueOf(profile.getPlatformName()), String.valueOf(profile.getPlatformVersion()),
+                String.valueOf(profile.getDeviceName()), String.valueOf(profile.getAutomationName())).toLowerCase();
+    }
+
+    /**
+     * Assigns available devices to waiting requests in arrival order. Must be called while holding LOCK.
+     */
+    private static void dispatch() {
+        Iterator<LeaseRequest> requests = WAITING_REQUESTS.iterator();
+        while (requests.hasNext()) {
+            LeaseRequest request = requests.next();
+            for (PooledDevice device : DEVICES) {
+                if (device.available && device.kind.equals(request.kind)) {
+                    device.available = false;
+                    device.leasedAt = System.nanoTime();
+                    device.leases++;
+                    request.device = device;
+                    requests.remove();
+                    request.granted.signal();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes lease counts, leased time and utilisation per device to device_pool.csv and logs the lease wait times.
+     */
+    private static void writePoolReport() {
+        long leases = LEASES.get();
+        LoggerManager.info(String.format("Device pool: leases=%d, averageLeaseWaitMs=%d, maxLeaseWaitMs=%d",
+                leases, leases == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(TOTAL_LEASE_WAIT_NANOS.get() / leases),
+                TimeUnit.NANOSECONDS.toMillis(MAX_LEASE_WAIT_NANOS.get())));
+        File reportFile = new File(REPORT_PATH + "/device_pool.csv");
+        reportFile.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(reportFile, StandardCharsets.UTF_8.name())) {
+            writer.println("udid,profile,leases,recycles,leasedSeconds,upSeconds,utilisation");
+            for (PooledDevice device : DEVICES) {
+                long upNanos = device.bootedAt == 0 ? 0 : System.nanoTime() - device.bootedAt;
+                double utilisation = upNanos == 0 ? 0.0 : (double) device.totalLeasedNanos / upNanos;
+                writer.printf("%s,%s,%d,%d,%d,%d,%.2f%n", device.udid, device.profile, device.leases, device.recycles,
+                        TimeUnit.NANOSECONDS.toSeconds(device.totalLeasedNanos), TimeUnit.NANOSECONDS.toSeconds(upNanos),
+                        utilisation);
+            }
+        } catch (IOException e) {
+            LoggerManager.error("Error while writing device pool report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves the udid of an available simulator from simctl, matching the device name and, if given, the iOS
+     * version of its runtime. Simulators already in the pool are skipped, so that profiles of the same device type
+     * get different simulators.
+     *
+     * @param deviceName      the simulator name, e.g. "iPhone 15"
+     * @param platformVersion the iOS version, e.g. "17.5", may be null
+     * @return the udid of the simulator
+     * @throws IOException if simctl cannot be run or no matching simulator is available
+     */
+    private static String resolveSimulatorUdid(String deviceName, String platformVersion) throws IOException {
+        String runtime = platformVersion == null ? null : ".iOS-" + platformVersion.replace('.', '-');
+        try {
+            JsonNode runtimes = MAPPER.readTree(runCommand("xcrun", "simctl", "list", "-j", "devices", "available")).path("devices");
+            Iterator<String> runtimeKeys = runtimes.fieldNames();
+            while (runtimeKeys.hasNext()) {
+                String key = runtimeKeys.next();
+                if (runtime != null && !key.endsWith(runtime)) {
+                    continue;
+                }
+                for (JsonNode simulator : runtimes.path(key)) {
+                    String udid = simulator.path("udid").asText();
+                    if (simulator.path("name").asText().equals(deviceName) && !isPooled(udid)) {
+                        return udid;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while listing simulators.", e);
+        }
+        throw new IOException("No available simulator named " + deviceName
+                + (platformVersion != null ? " with iOS " + platformVersion : "") + ".");
+    }
+
+    /**
+     * Lists the simulators of all runtimes known to simctl.
+     *
+     * @return the simulators, with their udid, name and state
+     * @throws IOException if simctl cannot be run or its output cannot be parsed
+     * @throws InterruptedException if the process is interrupted
+     */
+    private static List<JsonNode> listSimulators() throws IOException, InterruptedException {
+        List<JsonNode> simulators = new ArrayList<>();
+        for (JsonNode runtime : MAPPER.readTree(runCommand("xcrun", "simctl", "list", "-j", "devices")).path("devices")) {
+            runtime.forEach(simulators::add);
+        }
+        return simulators;
+    }
+
+    /**
+     * @param udid the device udid
+     * @return true if a device of the pool has the udid
+     */
+    private static boolean isPooled(String udid) {
+        for (PooledDevice device : DEVICES) {
+            if (device.udid.equals(udid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs a command and returns its combined output.
+     *
+     * @param command the command and its arguments
+     * @return the command output
+     * @throws IOException if the command cannot be started
+     * @throws InterruptedException if the process is interrupted
+     */
+    private static String runCommand(String... command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append('\n');
+            }
+        }
+        process.waitFor();
+        return output.toString();
+    }
+
+    private static boolean isDevicePoolEnabled() {
+        return Constants.ENABLE_DEVICE_POOL && !Constants.ENABLE_PERFECTO;
+    }
+
     /**
      * Returns the script path based on the platform.
      * Throws UnsupportedOperationException if the platform is not supported.
@@ -52,4 +564,49 @@ public class DeviceManager {
                 throw new UnsupportedOperationException("Device launching is only supported for Android and iOS platforms.");
         }
     }
+
+    /**
+     * A device of the pool. Availability is guarded by LOCK; the counters are only written by the leasing thread.
+     */
+    private static final class PooledDevice {
+        private final String profile;
+        private final String kind;
+        private final String platform;
+        private final String deviceName;
+        private final String avdName;
+        private final String udid;
+        private final int consolePort;
+        private volatile Process process;
+        private boolean available;
+        private volatile long bootedAt;
+        private volatile long leasedAt;
+        private volatile long totalLeasedNanos;
+        private volatile int leases;
+        private volatile int recycles;
+
+        private PooledDevice(String profile, String kind, String platform, String deviceName, String avdName, String udid,
+                             int consolePort) {
+            this.profile = profile;
+            this.kind = kind;
+            this.platform = platform;
+            this.deviceName = deviceName;
+            this.avdName = avdName;
+            this.udid = udid;
+            this.consolePort = consolePort;
+        }
+    }
+
+    /**
+     * A test waiting for a device of the kind its profile describes.
+     */
+    private static final class LeaseRequest {
+        private final String kind;
+        private final Condition granted;
+        private PooledDevice device;
+
+        private LeaseRequest(String kind, Condition granted) {
+            this.kind = kind;
+            this.granted = granted;
+        }
+    }
 }
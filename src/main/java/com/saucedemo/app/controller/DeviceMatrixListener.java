@@ -0,0 +1,276 @@
+package com.saucedemo.app.controller;
+
+import com.saucedemo.app.objects.DeviceProfile;
+import com.saucedemo.app.utils.Constants;
+import com.saucedemo.app.utils.DeviceProfileRegistry;
+import com.saucedemo.app.utils.PropertyUtils;
+import org.testng.IAlterSuiteListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * TestNG listener running a suite across a matrix of device profiles.
+ * Every test of a suite declaring the "device.matrix" parameter (a comma separated list of device profiles)
+ * is expanded into one lane per profile. Lanes run in parallel, each with the profile passed as the
+ * "device.profile" test parameter, so a matrix takes the wall time of its slowest lane.
+ * Each lane needs a device of its own: the suite fails before any lane starts if the device pool has fewer devices
+ * of a profile than the lanes running on it or, without the device pool, if lanes would not get distinct devices.
+ * A merged per-profile summary is written when the suite finishes.
+ */
+public class DeviceMatrixListener implements IAlterSuiteListener, ISuiteListener, ITestListener {
+    public static final String DEVICE_MATRIX_PARAMETER = "device.matrix";
+    public static final String DEVICE_PROFILE_PARAMETER = "device.profile";
+    private static final String REPORT_PATH = System.getProperty("user.dir") + "/target/reports/device_matrix_summary.csv";
+
+    /**
+     * Results per device profile, in the order the lanes were declared.
+     */
+    private final Map<String, LaneResult> laneResults = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        for (XmlSuite suite : suites) {
+            List<String> profiles = getProfiles(suite);
+            if (profiles.isEmpty()) {
+                continue;
+            }
+            checkDevices(profiles, suite.getTests().size());
+            List<XmlTest> lanes = new ArrayList<>();
+            for (XmlTest test : new ArrayList<>(suite.getTests())) {
+                for (String profile : profiles) {
+                    XmlTest lane = (XmlTest) test.clone();
+                    lane.setName(test.getName() + " [" + profile + "]");
+                    lane.addParameter(DEVICE_PROFILE_PARAMETER, profile);
+                    lanes.add(lane);
+                }
+            }
+            // Cloning may register the lane with the suite already, so rebuild the list from scratch.
+            suite.getTests().clear();
+            suite.getTests().addAll(lanes);
+            suite.setParallel(XmlSuite.ParallelMode.TESTS);
+            suite.setThreadCount(Math.max(suite.getThreadCount(), lanes.size()));
+            for (String profile : profiles) {
+                laneResults.put(profile, new LaneResult());
+            }
+            LoggerManager.info("Device matrix enabled for suite " + suite.getName() + ": " + profiles
+                    + " (" + lanes.size() + " lanes running in parallel)");
+        }
+    }
+
+    @Override
+    public void onStart(ITestContext context) {
+        LaneResult lane = getLaneResult(context);
+        if (lane != null) {
+            lane.start(context.getStartDate().getTime());
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result, lane -> lane.passed);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result, lane -> lane.failed);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        record(result, lane -> lane.skipped);
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        LaneResult lane = getLaneResult(context);
+        if (lane != null) {
+            lane.finish(System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (laneResults.isEmpty()) {
+            return;
+        }
+        writeSummary(suite.getName());
+    }
+
+    /**
+     * Writes the merged per-profile results to a CSV file in the reports folder and logs them.
+     *
+     * @param suiteName the name of the finished suite
+     */
+    private void writeSummary(String suiteName) {
+        long matrixStart = Long.MAX_VALUE;
+        long matrixEnd = 0L;
+        long sequentialMillis = 0L;
+        File reportFile = new File(REPORT_PATH);
+        reportFile.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(reportFile, StandardCharsets.UTF_8.name())) {
+            writer.println("profile,passed,failed,skipped,testMs,laneWallMs");
+            synchronized (laneResults) {
+                for (Map.Entry<String, LaneResult> entry : laneResults.entrySet()) {
+                    LaneResult lane = entry.getValue();
+                    writer.printf("%s,%d,%d,%d,%d,%d%n", entry.getKey(), lane.passed.get(), lane.failed.get(),
+                            lane.skipped.get(), lane.testMillis.get(), lane.getWallMillis());
+                    LoggerManager.info(String.format("Device matrix lane %s: passed=%d, failed=%d, skipped=%d, wallMs=%d",
+                            entry.getKey(), lane.passed.get(), lane.failed.get(), lane.skipped.get(), lane.getWallMillis()));
+                    if (lane.start > 0) {
+                        matrixStart = Math.min(matrixStart, lane.start);
+                        matrixEnd = Math.max(matrixEnd, lane.end);
+                        sequentialMillis += lane.getWallMillis();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LoggerManager.error("Error while writing device matrix summary: " + e.getMessage());
+        }
+        long matrixMillis = matrixEnd > matrixStart ? matrixEnd - matrixStart : 0L;
+        LoggerManager.info(String.format("Device matrix %s: lanes=%d, wallMs=%d, sumOfLanesMs=%d. Report: %s",
+                suiteName, laneResults.size(), matrixMillis, sequentialMillis, REPORT_PATH));
+    }
+
+    /**
+     * Adds a finished test to the result of its lane.
+     *
+     * @param result  the TestNG result
+     * @param counter selects the counter to increment
+     */
+    private void record(ITestResult result, Function<LaneResult, AtomicInteger> counter) {
+        LaneResult lane = getLaneResult(result.getTestContext());
+        if (lane != null) {
+            counter.apply(lane).incrementAndGet();
+            lane.testMillis.addAndGet(Math.max(0L, result.getEndMillis() - result.getStartMillis()));
+        }
+    }
+
+    /**
+     * Returns the result of the lane the given context belongs to.
+     *
+     * @param context the TestNG context
+     * @return the LaneResult, or null if the test is not part of a device matrix
+     */
+    private LaneResult getLaneResult(ITestContext context) {
+        String profile = context.getCurrentXmlTest().getLocalParameters().get(DEVICE_PROFILE_PARAMETER);
+        return profile == null ? null : laneResults.get(profile);
+    }
+
+    /**
+     * Checks that every lane of the matrix gets a device of its own, as lanes sharing a device interfere with each
+     * other. With the device pool, every profile needs at least as many pooled devices as the suite has tests, one
+     * lane per test running at the same time. Without it, the driver connects to the udid of the profile, so every
+     * profile must name a distinct device. Cloud devices (Perfecto) are not checked.
+     *
+     * @param profiles  the device profiles of the matrix
+     * @param testCount the number of tests of the suite, i.e. the lanes per profile
+     */
+    private static void checkDevices(List<String> profiles, int testCount) {
+        try {
+            if (PropertyUtils.Config.isEmpty()) {
+                PropertyUtils.loadConfigProperties();
+            }
+            if (Constants.ENABLE_PERFECTO) {
+                return;
+            }
+            if (Constants.ENABLE_DEVICE_POOL) {
+                Map<String, Integer> devices = new HashMap<>();
+                for (String profile : Constants.DEVICE_POOL_PROFILES.split(",")) {
+                    devices.merge(profile.trim(), 1, Integer::sum);
+                }
+                for (String profile : profiles) {
+                    int available = devices.getOrDefault(profile, 0);
+                    if (available < testCount) {
+                        throw new IllegalStateException("Device matrix runs " + testCount + " lanes on " + profile
+                                + " but the device pool has " + available + " devices for it (device.pool.profiles).");
+                    }
+                }
+                return;
+            }
+            Map<String, String> lanesByUdid = new HashMap<>();
+            for (String profile : profiles) {
+                DeviceProfile device = DeviceProfileRegistry.get(profile);
+                String udid = device.getUdid();
+                if (udid == null || udid.equalsIgnoreCase("auto")) {
+                    throw new IllegalStateException("Device matrix profile " + profile + " names no device (udid), "
+                            + "so its lane would share one with the others. Enable the device pool (device.pool.enabled).");
+                }
+                if (testCount > 1) {
+                    throw new IllegalStateException("Device matrix runs " + testCount + " lanes on " + profile
+                            + " but has only its device " + udid + ". Enable the device pool (device.pool.enabled).");
+                }
+                String other = lanesByUdid.put(udid, profile);
+                if (other != null) {
+                    throw new IllegalStateException("Device matrix profiles " + other + " and " + profile
+                            + " both target device " + udid + ".");
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not check the devices of the device matrix", e);
+        }
+    }
+
+    /**
+     * Reads the device profiles of the matrix from the "device.matrix" system property or suite parameter.
+     *
+     * @param suite the suite to expand
+     * @return the device profiles, empty if no matrix is declared
+     */
+    private static List<String> getProfiles(XmlSuite suite) {
+        String matrix = System.getProperty(DEVICE_MATRIX_PARAMETER, suite.getParameter(DEVICE_MATRIX_PARAMETER));
+        if (matrix == null || matrix.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(matrix.split(","))
+                .map(String::trim)
+                .filter(profile -> !profile.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Pass/fail counts and timing of one device profile. A profile may span several lanes
+     * when the suite has several tests, so the wall time covers the earliest start to the latest end.
+     */
+    private static final class LaneResult {
+        private final AtomicInteger passed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicLong testMillis = new AtomicLong();
+        private volatile long start;
+        private volatile long end;
+
+        private synchronized void start(long millis) {
+            start = start == 0L ? millis : Math.min(start, millis);
+        }
+
+        private synchronized void finish(long millis) {
+            end = Math.max(end, millis);
+        }
+
+        private synchronized long getWallMillis() {
+            return end > start && start > 0L ? end - start : 0L;
+        }
+    }
+}
@@ -1,18 +1,22 @@
 package com.saucedemo.app.controller;
 
 import com.saucedemo.app.utils.Constants;
+import com.saucedemo.app.utils.JsonUtils;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.options.UiAutomator2Options;
 import io.appium.java_client.ios.IOSDriver;
 import io.appium.java_client.ios.options.XCUITestOptions;
+import io.appium.java_client.AppiumClientConfig;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.remote.HttpCommandExecutor;
 
 import java.io.File;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages thread-safe AppiumDriver instances for parallel execution.
@@ -23,6 +27,17 @@ public class DriverManager {
      */
     private static final ThreadLocal<AppiumDriver> DRIVER = new ThreadLocal<>();
 
+    /**
+     * Appium server and ports each live driver holds, so that they can be released on quit.
+     */
+    private static final Map<AppiumDriver, SessionResources> SESSION_RESOURCES = new ConcurrentHashMap<>();
+
+    /**
+     * Capabilities derived from each device profile and the config file. Both are fixed for the JVM,
+     * so the options are built once per profile and platform. The app artifact is verified per session.
+     */
+    private static final Map<String, Capabilities> BASE_CAPABILITIES = new ConcurrentHashMap<>();
+
     /**
      * Private constructor to prevent instantiation.
      */
@@ -32,64 +47,209 @@ public class DriverManager {
      * Returns the current AppiumDriver instance for the thread, initializing it if necessary.
      *
      * @return AppiumDriver instance
-     * @throws MalformedURLException if the Appium server URL is malformed
      */
     public static AppiumDriver getDriver() {
         if (DRIVER.get() == null) {
-            LoggerManager.debug("No driver found for current thread. Initializing new driver for platform: " + Constants.getPlatformName());
-            DRIVER.set(getDriver(Constants.getPlatformName()));
+            String platformName = Constants.getPlatformName();
+            if (Constants.ENABLE_SESSION_POOL) {
+                LoggerManager.debug("No driver found for current thread. Checking out pooled driver for platform: {}", platformName);
+                AppiumDriver driver = SessionPool.checkout(getSessionKey(), () -> getDriver(platformName));
+                DRIVER.set(driver);
+                if (SessionPool.isReused(driver) && !Constants.IS_APP_PRE_INSTALLED) {
+                    LoggerManager.info("Relaunching app on reused pooled driver.");
+                    AppManager.launchAppThreadSafe();
+                }
+            } else {
+                LoggerManager.debug("No driver found for current thread. Initializing new driver for platform: {}", platformName);
+                DRIVER.set(getDriver(platformName));
+            }
         }
         return DRIVER.get();
     }
 
+    /**
+     * Returns the AppiumDriver of the current thread without creating one.
+     *
+     * @return the AppiumDriver, or null if the thread has no driver
+     */
+    public static AppiumDriver getActiveDriver() {
+        return DRIVER.get();
+    }
+
     /**
      * Returns a AppiumDriver instance for the specified platform type.
+     * When pre-warming is enabled, the capabilities and client configuration are taken from the
+     * session prepared in the background while the previous test was running.
      *
      * @param platformType the platform type ("android" or "ios")
      * @return AppiumDriver instance
-     * @throws MalformedURLException if the Appium server URL is malformed
      * @throws IllegalArgumentException if the platform type is unsupported
      */
     public static AppiumDriver getDriver(String platformType) {
-        String url = getURL();
-        LoggerManager.info("Creating driver for platform: " + platformType + " at URL: " + url);
+        PreparedSession session = Constants.ENABLE_SESSION_PREWARM
+                ? SessionPrewarmer.takePreparedSession(platformType)
+                : prepareSession(platformType);
+        SessionPrewarmer.awaitPendingQuits();
+        SessionResources resources = new SessionResources(getURL());
+        LoggerManager.info("Creating driver for platform: {} at URL: {}", platformType, resources.serverUrl);
+        AppiumDriver driver;
         try {
+            Capabilities capabilities = session.getCapabilities();
+            if (!Constants.ENABLE_PERFECTO) {
+                resources.ports = PortAllocator.allocate();
+                capabilities = capabilities.merge(getPortOptions(platformType, resources.ports));
+            }
+            String udid = DeviceManager.getLeasedDeviceId();
+            if (udid != null) {
+                LoggerManager.debug("Using leased device: {}", udid);
+                capabilities = capabilities.merge(new ImmutableCapabilities("appium:udid", udid));
+            }
+            HttpCommandExecutor executor = session.takeExecutor(resources.serverUrl);
             if (platformType.equalsIgnoreCase("android")) {
-                return getAndroidDriver(url);
-            } else if (platformType.equalsIgnoreCase("ios")) {
-                return getIOSDriver(url);
+                driver = new AndroidDriver(executor, capabilities);
             } else {
-                LoggerManager.error("Unsupported platform type: " + platformType);
-                throw new IllegalArgumentException("Unsupported platform type: " + platformType);
+                driver = new IOSDriver(executor, capabilities);
+            }
+        } catch (RuntimeException e) {
+            session.close();
+            resources.release();
+            throw e;
+        }
+        if (resources.ports != null) {
+            PortAllocator.bind(resources.ports, resources.serverUrl, driver.getSessionId());
+        }
+        SESSION_RESOURCES.put(driver, resources);
+        LoggerManager.info("Driver initialized successfully.");
+        DRIVER.set(driver);
+        return driver;
+    }
+
+    /**
+     * Prepares everything a new session needs that does not touch the device: the capabilities resolved from
+     * the device profile, the app artifact, verified again for every session as it may be rebuilt during a run,
+     * and the command executor with its HTTP client. The executor is only built in advance when the Appium server
+     * is known before the session is created, i.e. outside fleet mode.
+     *
+     * @param platformType the platform type ("android" or "ios")
+     * @return the prepared session
+     * @throws IllegalArgumentException if the platform type is unsupported
+     */
+    static PreparedSession prepareSession(String platformType) {
+        long start = System.nanoTime();
+        Capabilities capabilities = getCapabilities(platformType);
+        if (!Constants.ENABLE_PERFECTO && !Constants.IS_APP_PRE_INSTALLED) {
+            verifyAppFile(platformType.equalsIgnoreCase("android") ? Constants.APK_FILE_PATH : Constants.APP_FILE_PATH);
+        }
+        AppiumClientConfig clientConfig = AppiumClientConfig.defaultConfig();
+        String serverUrl = getFixedURL();
+        HttpCommandExecutor executor = serverUrl != null ? PreparedSession.newExecutor(clientConfig, serverUrl) : null;
+        return new PreparedSession(platformType, clientConfig, capabilities, serverUrl, executor,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the capabilities every new session of the current device profile starts from. They are built once
+     * per profile and platform; the ports and the leased device are added per session.
+     *
+     * @param platformType the platform type ("android" or "ios")
+     * @return the base capabilities
+     * @throws IllegalArgumentException if the platform type is unsupported
+     */
+    public static Capabilities getBaseCapabilities(String platformType) {
+        return getCapabilities(platformType);
+    }
+
+    /**
+     * Quits the given driver and releases the Appium server and ports it was bound to.
+     *
+     * @param driver the AppiumDriver to quit
+     */
+    static void quitDriver(AppiumDriver driver) {
+        try {
+            driver.quit();
+        } finally {
+            SessionResources resources = SESSION_RESOURCES.remove(driver);
+            if (resources != null) {
+                resources.release();
             }
-        } catch (MalformedURLException e) {
-            LoggerManager.error("Malformed Appium server URL: " + url + " - " + e.getMessage());
-            throw new RuntimeException("Malformed Appium server URL: " + url, e);
         }
     }
 
     /**
      * Quits and removes the AppiumDriver instance for the current thread.
+     * When the session pool is enabled, the driver is returned to the pool instead of being quit.
+     * The app is expected to have been terminated through AppManager before the driver is returned.
      */
     public static void killDriver() {
-        if (DRIVER.get() != null) {
-            LoggerManager.info("Quitting and removing driver for current thread.");
-            DRIVER.get().quit();
+        AppiumDriver driver = DRIVER.get();
+        if (driver != null) {
             DRIVER.remove();
+            if (Constants.ENABLE_SESSION_POOL) {
+                LoggerManager.info("Returning driver to session pool for current thread.");
+                SessionPool.release(driver);
+            } else {
+                LoggerManager.info("Quitting and removing driver for current thread.");
+                if (Constants.ENABLE_SESSION_PREWARM) {
+                    SessionPrewarmer.quitAsync(driver);
+                } else {
+                    quitDriver(driver);
+                }
+            }
         } else {
             LoggerManager.error("No driver to quit for current thread.");
         }
     }
 
     /**
-     * Initializes and returns an AndroidDriver instance.
+     * Quits all idle pooled drivers, waits for drivers being quit in the background
+     * and logs the session pool and pre-warming metrics.
+     */
+    public static void shutdown() {
+        if (Constants.ENABLE_SESSION_POOL) {
+            LoggerManager.info("Shutting down session pool...");
+            SessionPool.shutdown();
+        }
+        if (Constants.ENABLE_SESSION_PREWARM) {
+            LoggerManager.info("Shutting down session pre-warmer...");
+            SessionPrewarmer.shutdown();
+        }
+    }
+
+    /**
+     * Returns the base capabilities of the current device profile, building them on first use.
      *
-     * @param url the Appium server URL
-     * @return AndroidDriver instance
-     * @throws MalformedURLException if the URL is malformed
+     * @param platformType the platform type ("android" or "ios")
+     * @return the base capabilities
      */
-    private static AppiumDriver getAndroidDriver(String url) throws MalformedURLException {
-        LoggerManager.debug("Initializing AndroidDriver with URL: " + url);
+    private static Capabilities getCapabilities(String platformType) {
+        String key = JsonUtils.getDeviceProfileName() + ":" + platformType.toLowerCase();
+        return BASE_CAPABILITIES.computeIfAbsent(key, k -> buildCapabilities(platformType));
+    }
+
+    /**
+     * Builds the immutable base capabilities for the current device profile.
+     *
+     * @param platformType the platform type ("android" or "ios")
+     * @return the base capabilities
+     * @throws IllegalArgumentException if the platform type is unsupported
+     */
+    private static Capabilities buildCapabilities(String platformType) {
+        if (platformType.equalsIgnoreCase("android")) {
+            return ImmutableCapabilities.copyOf(getAndroidOptions());
+        } else if (platformType.equalsIgnoreCase("ios")) {
+            return ImmutableCapabilities.copyOf(getIOSOptions());
+        }
+        LoggerManager.error("Unsupported platform type: " + platformType);
+        throw new IllegalArgumentException("Unsupported platform type: " + platformType);
+    }
+
+    /**
+     * Builds the UiAutomator2 options for a new AndroidDriver session.
+     *
+     * @return UiAutomator2Options for the current device profile
+     */
+    private static UiAutomator2Options getAndroidOptions() {
+        LoggerManager.debug("Building UiAutomator2 options for device: {}", Constants.getDeviceName());
         UiAutomator2Options options = new UiAutomator2Options();
         if (!Constants.ENABLE_PERFECTO) {
             options.setDeviceName(Constants.getDeviceName());
@@ -106,7 +266,7 @@ public class DriverManager {
             options.setUiautomator2ServerInstallTimeout(Duration.ofSeconds(120));
             if (!Constants.IS_APP_PRE_INSTALLED) {
                 File apkFile = new File(Constants.APK_FILE_PATH);
-                LoggerManager.debug("Setting APK file for AndroidDriver: " + apkFile.getAbsolutePath());
+                LoggerManager.debug("Setting APK file for AndroidDriver: {}", apkFile);
                 options.setApp(apkFile.getAbsolutePath());
                 options.setAppPackage(Constants.APP_PACKAGE);
                 options.setAppActivity(Constants.APP_ACTIVITY);
@@ -128,21 +288,16 @@ public class DriverManager {
             options.setCapability("perfecto:options", perfectoOptions);
         }
         System.out.println("Configuration token: " + Constants.Perfecto.PERFECTO_TOKEN);
-        AppiumDriver driver = new AndroidDriver(new URL(url), options);
-        LoggerManager.info("Driver initialized successfully.");
-        DRIVER.set(driver);
-        return driver;
+        return options;
     }
 
     /**
-     * Initializes and returns an IOSDriver instance.
+     * Builds the XCUITest options for a new IOSDriver session.
      *
-     * @param url the Appium server URL
-     * @return IOSDriver instance
-     * @throws MalformedURLException if the URL is malformed
+     * @return XCUITestOptions for the current device profile
      */
-    private static AppiumDriver getIOSDriver(String url) throws MalformedURLException {
-        LoggerManager.debug("Initializing IOSDriver with URL: " + url);
+    private static XCUITestOptions getIOSOptions() {
+        LoggerManager.debug("Building XCUITest options for device: {}", Constants.getDeviceName());
         XCUITestOptions options = new XCUITestOptions();
         options.setDeviceName(Constants.getDeviceName());
         options.setPlatformName(Constants.getPlatformName());
@@ -155,19 +310,91 @@ public class DriverManager {
         options.setWdaConnectionTimeout(Duration.ofSeconds(120));
         if (!Constants.IS_APP_PRE_INSTALLED) {
             File appFile = new File(Constants.APP_FILE_PATH);
-            LoggerManager.debug("Setting app file for IOSDriver: " + appFile.getAbsolutePath());
+            LoggerManager.debug("Setting app file for IOSDriver: {}", appFile);
             options.setApp(appFile.getAbsolutePath());
             options.setBundleId(Constants.BUNDLE_ID);
         }
+        return options;
+    }
 
-        AppiumDriver driver = new IOSDriver(new URL(url), options);
-        LoggerManager.info("Driver initialized successfully.");
-        DRIVER.set(driver);
-        return driver;
+    /**
+     * Verifies that the app artifact exists so that a missing build fails before a session is requested.
+     *
+     * @param path the configured path of the app artifact
+     */
+    private static void verifyAppFile(String path) {
+        File appFile = new File(path);
+        if (!appFile.exists() || !appFile.canRead()) {
+            LoggerManager.error("App file not found or not readable: " + appFile.getAbsolutePath());
+            throw new RuntimeException("App file not found or not readable: " + appFile.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Builds the capabilities assigning the allocated device-side ports to a session,
+     * so that parallel sessions on one Appium server do not use the same default ports.
+     *
+     * @param platformType the platform type ("android" or "ios")
+     * @param ports        the allocated port block
+     * @return the port capabilities for the platform
+     */
+    private static Capabilities getPortOptions(String platformType, PortAllocator.PortBlock ports) {
+        if (platformType.equalsIgnoreCase("android")) {
+            return new UiAutomator2Options()
+                    .setSystemPort(ports.getSystemPort())
+                    .setMjpegServerPort(ports.getMjpegServerPort())
+                    .setChromedriverPort(ports.getChromedriverPort());
+        }
+        return new XCUITestOptions()
+                .setWdaLocalPort(ports.getWdaLocalPort())
+                .setMjpegServerPort(ports.getMjpegServerPort());
+    }
+
+    /**
+     * Returns the key sessions are grouped by: the device profile and, if a device is leased, its udid.
+     * Sessions with the same key run on the same device.
+     *
+     * @return the session key
+     */
+    static String getSessionKey() {
+        String profile = JsonUtils.getDeviceProfileName();
+        String udid = DeviceManager.getLeasedDeviceId();
+        return udid == null ? profile : profile + "@" + udid;
+    }
+
+    /**
+     * Returns the Appium server URL if it is known before a session is created.
+     *
+     * @return the server URL, or null in fleet mode, where the server is chosen per session
+     */
+    private static String getFixedURL() {
+        if (Constants.ENABLE_PERFECTO) {
+            return Constants.Perfecto.PERFECTO_URL;
+        }
+        return AppiumServiceManager.isFleetEnabled() ? null : AppiumServiceManager.acquireServerUrl();
     }
 
     private static String getURL() {
         return Constants.ENABLE_PERFECTO ? Constants.Perfecto.PERFECTO_URL :
-                "http://" + Constants.APPIUM_IP_ADDRESS + ":" + Constants.APPIUM_PORT;
+                AppiumServiceManager.acquireServerUrl();
+    }
+
+    /**
+     * The Appium server and ports held by a live driver.
+     */
+    private static final class SessionResources {
+        private final String serverUrl;
+        private PortAllocator.PortBlock ports;
+
+        private SessionResources(String serverUrl) {
+            this.serverUrl = serverUrl;
+        }
+
+        private void release() {
+            AppiumServiceManager.releaseServerUrl(serverUrl);
+            if (ports != null) {
+                PortAllocator.release(ports);
+            }
+        }
     }
 }
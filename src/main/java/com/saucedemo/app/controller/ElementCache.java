@@ -0,0 +1,145 @@
+package com.saucedemo.app.controller;
+
+import com.saucedemo.app.utils.Constants;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches resolved elements per page and locator for the driver session of the current thread, so that
+ * repeated lookups of the same locator within a step cost a single findElement round trip.
+ * All entries of the thread are dropped when a mutating action (tap, click, text entry, scroll, app
+ * launch or close) may have changed the screen, and when the session changes. Lookups that scroll
+ * (UiScrollable) do not go through the cache: BasePage.scrollIntoView makes them on the driver, as their
+ * lookup is the action.
+ */
+public class ElementCache {
+    /**
+     * Cached elements of the current thread, per page class and locator.
+     */
+    private static final ThreadLocal<SessionCache> CACHE = ThreadLocal.withInitial(SessionCache::new);
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong STALE_HITS = new AtomicLong();
+    private static final AtomicLong INVALIDATIONS = new AtomicLong();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ElementCache() {}
+
+    /**
+     * Returns the cached element for the locator, or looks it up and caches it.
+     *
+     * @param driver  the AppiumDriver of the page
+     * @param page    the page class the lookup belongs to
+     * @param locator the By locator
+     * @return the resolved WebElement
+     */
+    public static WebElement find(AppiumDriver driver, Class<?> page, By locator) {
+        if (!Constants.ENABLE_ELEMENT_CACHE) {
+            return lookup(driver, locator);
+        }
+        Map<By, WebElement> elements = CACHE.get().forPage(driver.getSessionId(), page);
+        WebElement element = elements.get(locator);
+        if (element != null) {
+            HITS.incrementAndGet();
+            return element;
+        }
+        MISSES.incrementAndGet();
+        element = lookup(driver, locator);
+        elements.put(locator, element);
+        return element;
+    }
+
+    /**
+     * Drops a cached element that turned out to be stale. The next lookup goes to the driver.
+     *
+     * @param page    the page class the lookup belongs to
+     * @param locator the By locator
+     */
+    public static void evict(Class<?> page, By locator) {
+        Map<By, WebElement> elements = CACHE.get().pages.get(page);
+        if (elements != null && elements.remove(locator) != null) {
+            STALE_HITS.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops all cached elements of the current thread, after an action that may have changed the screen.
+     */
+    public static void invalidateAll() {
+        SessionCache cache = CACHE.get();
+        if (!cache.pages.isEmpty()) {
+            cache.pages.clear();
+            INVALIDATIONS.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of lookups served from the cache, i.e. the findElement round trips saved
+     */
+    public static long getHits() {
+        return HITS.get();
+    }
+
+    /**
+     * @return the number of lookups that went to the driver
+     */
+    public static long getMisses() {
+        return MISSES.get();
+    }
+
+    /**
+     * @return the number of cached elements that turned out to be stale
+     */
+    public static long getStaleHits() {
+        return STALE_HITS.get();
+    }
+
+    /**
+     * Returns a one-line summary of the cache metrics.
+     *
+     * @return the metrics summary
+     */
+    public static String getMetricsSummary() {
+        long hits = HITS.get();
+        long lookups = hits + MISSES.get();
+        return String.format("Element cache: hits=%d, misses=%d, staleHits=%d, invalidations=%d, hitRate=%.1f%%",
+                hits, MISSES.get(), STALE_HITS.get(), INVALIDATIONS.get(), lookups == 0 ? 0.0 : hits * 100.0 / lookups);
+    }
+
+    /**
+     * Looks an element up on the driver. Outside explicit waits, the lookup uses the configured implicit wait.
+     *
+     * @param driver  the AppiumDriver
+     * @param locator the By locator
+     * @return the found WebElement
+     */
+    private static WebElement lookup(AppiumDriver driver, By locator) {
+        WaitStrategy.implicitly(driver);
+        return driver.findElement(locator);
+    }
+
+    /**
+     * Cached elements of one thread, valid for one driver session.
+     */
+    private static final class SessionCache {
+        private final Map<Class<?>, Map<By, WebElement>> pages = new HashMap<>();
+        private SessionId sessionId;
+
+        private Map<By, WebElement> forPage(SessionId currentSessionId, Class<?> page) {
+            if (currentSessionId == null || !currentSessionId.equals(sessionId)) {
+                pages.clear();
+                sessionId = currentSessionId;
+            }
+            return pages.computeIfAbsent(page, key -> new HashMap<>());
+        }
+    }
+}
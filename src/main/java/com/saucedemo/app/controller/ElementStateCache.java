@@ -0,0 +1,155 @@
+package com.saucedemo.app.controller;
+
+import com.saucedemo.app.utils.Constants;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Step-scoped read-through cache of element state (displayed, enabled, rect and text), keyed by element
+ * identity, for the current thread. Repeated reads of the same element within a step cost one round trip.
+ * The cache is cleared after every mutating command (tap, click, text entry, gesture, app launch or close)
+ * and at step boundaries. Displayed and enabled are only cached once true, so waits polling for an element
+ * to appear keep asking the driver.
+ */
+public class ElementStateCache {
+    /**
+     * Cached state of the current thread, per element.
+     */
+    private static final ThreadLocal<Map<WebElement, State>> STATES = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong CLEARS = new AtomicLong();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ElementStateCache() {}
+
+    /**
+     * Returns whether the element is displayed.
+     *
+     * @param element the WebElement to check
+     * @return true if displayed
+     */
+    public static boolean isDisplayed(WebElement element) {
+        if (!Constants.ENABLE_ELEMENT_STATE_CACHE) {
+            return element.isDisplayed();
+        }
+        State state = getState(element);
+        if (state.displayed) {
+            HITS.incrementAndGet();
+            return true;
+        }
+        MISSES.incrementAndGet();
+        state.displayed = element.isDisplayed();
+        return state.displayed;
+    }
+
+    /**
+     * Returns whether the element is enabled.
+     *
+     * @param element the WebElement to check
+     * @return true if enabled
+     */
+    public static boolean isEnabled(WebElement element) {
+        if (!Constants.ENABLE_ELEMENT_STATE_CACHE) {
+            return element.isEnabled();
+        }
+        State state = getState(element);
+        if (state.enabled) {
+            HITS.incrementAndGet();
+            return true;
+        }
+        MISSES.incrementAndGet();
+        state.enabled = element.isEnabled();
+        return state.enabled;
+    }
+
+    /**
+     * Returns the location and size of the element in a single round trip.
+     *
+     * @param element the WebElement to measure
+     * @return the element rect
+     */
+    public static Rectangle getRect(WebElement element) {
+        if (!Constants.ENABLE_ELEMENT_STATE_CACHE) {
+            return element.getRect();
+        }
+        State state = getState(element);
+        if (state.rect != null) {
+            HITS.incrementAndGet();
+            return state.rect;
+        }
+        MISSES.incrementAndGet();
+        state.rect = element.getRect();
+        return state.rect;
+    }
+
+    /**
+     * Returns the inner text of the element.
+     *
+     * @param element the WebElement to read
+     * @return the inner text
+     */
+    public static String getText(WebElement element) {
+        if (!Constants.ENABLE_ELEMENT_STATE_CACHE) {
+            return element.getText();
+        }
+        State state = getState(element);
+        if (state.text != null) {
+            HITS.incrementAndGet();
+            return state.text;
+        }
+        MISSES.incrementAndGet();
+        state.text = element.getText();
+        return state.text;
+    }
+
+    /**
+     * Drops all cached state of the current thread, after a mutating command or at a step boundary.
+     */
+    public static void clear() {
+        Map<WebElement, State> states = STATES.get();
+        if (!states.isEmpty()) {
+            states.clear();
+            CLEARS.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns a one-line summary of the cache metrics.
+     *
+     * @return the metrics summary
+     */
+    public static String getMetricsSummary() {
+        long hits = HITS.get();
+        long reads = hits + MISSES.get();
+        return String.format("Element state cache: hits=%d, misses=%d, clears=%d, hitRate=%.1f%%",
+                hits, MISSES.get(), CLEARS.get(), reads == 0 ? 0.0 : hits * 100.0 / reads);
+    }
+
+    /**
+     * Returns the cached state of the element, creating an empty one on first access.
+     *
+     * @param element the WebElement
+     * @return the cached state
+     */
+    private static State getState(WebElement element) {
+        return STATES.get().computeIfAbsent(element, key -> new State());
+    }
+
+    /**
+     * Cached state of one element.
+     */
+    private static final class State {
+        private boolean displayed;
+        private boolean enabled;
+        private Rectangle rect;
+        private String text;
+    }
+}
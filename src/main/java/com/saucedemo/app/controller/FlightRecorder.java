@@ -0,0 +1,261 @@
+package com.saucedemo.app.controller;
+
+import com.saucedemo.app.utils.Constants;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.OutputType;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the last flight.recorder.steps steps of the running test in a fixed-size in-memory ring:
+ * report log lines and driver commands issued through the page objects, optionally with a gzip-compressed
+ * page source and a low-resolution frame per step. The ring is only written to disk when a test fails,
+ * together with the page source and frame at the time of the failure, so passing tests pay almost nothing.
+ */
+public class FlightRecorder {
+    private static final String DUMP_PATH = System.getProperty("user.dir") + "/target/reports/flight_recorder";
+
+    /**
+     * Ring of the current thread. Slots are allocated once and reused, so recording a step does not allocate.
+     */
+    private static final ThreadLocal<Ring> RING = ThreadLocal.withInitial(() -> new Ring(Math.max(1, Constants.FLIGHT_RECORDER_STEPS)));
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FlightRecorder() {}
+
+    /**
+     * Clears the ring for the test about to run on the current thread.
+     */
+    public static void startTest() {
+        if (Constants.ENABLE_FLIGHT_RECORDER) {
+            RING.get().clear();
+        }
+    }
+
+    /**
+     * Records a report log line.
+     *
+     * @param status  the step status (e.g. "PASS", "FAIL" or "INFO")
+     * @param message the step message
+     */
+    public static void log(String status, String message) {
+        record(status, message, null, false);
+    }
+
+    /**
+     * Records a driver command issued by a page object, with the configured per-step snapshots.
+     *
+     * @param command the command (e.g. "tap")
+     * @param target  the locator or element the command was issued on
+     */
+    public static void command(String command, Object target) {
+        record("COMMAND", command, target, true);
+    }
+
+    /**
+     * Writes the ring and the current page source and frame of the failed test to
+     * target/reports/flight_recorder/{testName}_{timestamp}/ and clears the ring.
+     *
+     * @param testName the name of the failed test
+     * @return the dump folder, or null if the recorder is disabled or the dump failed
+     */
+    public static File dump(String testName) {
+        if (!Constants.ENABLE_FLIGHT_RECORDER) {
+            return null;
+        }
+        Ring ring = RING.get();
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss_SSS").format(new Date());
+        File folder = new File(DUMP_PATH, testName.replaceAll("[^A-Za-z0-9._-]", "_") + "_" + timestamp);
+        folder.mkdirs();
+        try (PrintWriter steps = new PrintWriter(new File(folder, "steps.log"), StandardCharsets.UTF_8.name())) {
+            SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+            for (int i = 0; i < ring.size; i++) {
+                Step step = ring.get(i);
+                String prefix = String.format("step_%03d", i + 1);
+                steps.printf("%s %s %-7s %s", prefix, timeFormat.format(new Date(step.time)), step.type, step.text);
+                if (step.target != null) {
+                    steps.print(" " + step.target);
+                }
+                if (step.pageSource != null) {
+                    Files.write(new File(folder, prefix + "_source.xml.gz").toPath(), step.pageSource);
+                    steps.print(" [source]");
+                }
+                if (step.frame != null) {
+                    Files.write(new File(folder, prefix + "_frame.png").toPath(), step.frame);
+                    steps.print(" [frame]");
+                }
+                steps.println();
+            }
+            AppiumDriver driver = DriverManager.getActiveDriver();
+            if (driver != null) {
+                Files.write(new File(folder, "failure_source.xml.gz").toPath(), capturePageSource(driver));
+                Files.write(new File(folder, "failure_frame.png").toPath(), captureFrame(driver));
+            }
+        } catch (IOException | RuntimeException e) {
+            LoggerManager.error("Error while writing flight recorder dump: " + e.getMessage());
+            return null;
+        } finally {
+            ring.clear();
+        }
+        LoggerManager.info("Flight recorder dump written to: {}", folder.getPath());
+        return folder;
+    }
+
+    /**
+     * Records a step into the ring of the current thread, overwriting the oldest step once the ring is full.
+     * The target is only converted to text when the ring is dumped.
+     *
+     * @param type      the step type
+     * @param text      the step text
+     * @param target    the locator or element of a driver command, or null
+     * @param snapshots whether the configured page source and frame snapshots should be taken
+     */
+    private static void record(String type, String text, Object target, boolean snapshots) {
+        if (!Constants.ENABLE_FLIGHT_RECORDER) {
+            return;
+        }
+        Step step = RING.get().next();
+        step.time = System.currentTimeMillis();
+        step.type = type;
+        step.text = text;
+        step.target = target;
+        step.pageSource = null;
+        step.frame = null;
+        if (!snapshots || !(Constants.FLIGHT_RECORDER_PAGE_SOURCE || Constants.FLIGHT_RECORDER_FRAMES)) {
+            return;
+        }
+        AppiumDriver driver = DriverManager.getActiveDriver();
+        if (driver == null) {
+            return;
+        }
+        try {
+            if (Constants.FLIGHT_RECORDER_PAGE_SOURCE) {
+                step.pageSource = capturePageSource(driver);
+            }
+            if (Constants.FLIGHT_RECORDER_FRAMES) {
+                step.frame = captureFrame(driver);
+            }
+        } catch (IOException | RuntimeException e) {
+            LoggerManager.debug("Flight recorder snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Captures the page source, gzip-compressed.
+     *
+     * @param driver the AppiumDriver
+     * @return the compressed page source
+     * @throws IOException if compression fails
+     */
+    private static byte[] capturePageSource(AppiumDriver driver) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(driver.getPageSource().getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Captures a screenshot and shrinks it to about flight.recorder.frame.width pixels wide.
+     * The PNG is decoded with subsampling, so the full-resolution image is never materialised.
+     *
+     * @param driver the AppiumDriver
+     * @return the low-resolution frame as PNG
+     * @throws IOException if the screenshot cannot be decoded or encoded
+     */
+    private static byte[] captureFrame(AppiumDriver driver) throws IOException {
+        byte[] png = driver.getScreenshotAs(OutputType.BYTES);
+        BufferedImage frame;
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(png))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return png;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int step = Math.max(1, reader.getWidth(0) / Math.max(1, Constants.FLIGHT_RECORDER_FRAME_WIDTH));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                frame = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(frame, "png", bytes);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * One recorded step.
+     */
+    private static final class Step {
+        private long time;
+        private String type;
+        private String text;
+        private Object target;
+        private byte[] pageSource;
+        private byte[] frame;
+    }
+
+    /**
+     * Fixed-size ring of steps, oldest first.
+     */
+    private static final class Ring {
+        private final Step[] steps;
+        private int start;
+        private int size;
+
+        private Ring(int capacity) {
+            steps = new Step[capacity];
+            for (int i = 0; i < capacity; i++) {
+                steps[i] = new Step();
+            }
+        }
+
+        private Step next() {
+            Step step;
+            if (size < steps.length) {
+                step = steps[(start + size) % steps.length];
+                size++;
+            } else {
+                step = steps[start];
+                start = (start + 1) % steps.length;
+            }
+            return step;
+        }
+
+        private Step get(int index) {
+            return steps[(start + index) % steps.length];
+        }
+
+        private void clear() {
+            for (Step step : steps) {
+                step.text = null;
+                step.target = null;
+                step.pageSource = null;
+                step.frame = null;
+            }
+            start = 0;
+            size = 0;
+        }
+    }
+}
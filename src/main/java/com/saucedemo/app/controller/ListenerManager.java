@@ -5,6 +5,8 @@ import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 
+import java.io.File;
+
 /**
  * TestNG Listener for reporting test execution events using ReportsManager.
  */
@@ -19,9 +21,19 @@ public class ListenerManager implements ITestListener {
     @Override
     public void onTestStart(ITestResult result) {
         String testName = result.getMethod().getDescription();
+        String deviceProfile = result.getTestContext().getCurrentXmlTest().getLocalParameters()
+                .get(DeviceMatrixListener.DEVICE_PROFILE_PARAMETER);
+        if (deviceProfile != null) {
+            testName = testName + " [" + deviceProfile + "]";
+        }
         LoggerManager.info("Test started: " + testName);
         ExtentTest test = ReportsManager.getExtentReports().createTest(testName);
         ReportsManager.setTest(test);
+        ScreenshotPolicy.startTest();
+        ReportJournal.startTest(testName);
+        FlightRecorder.startTest();
+        ElementCache.invalidateAll();
+        ElementStateCache.clear();
         ReportsManager.logInfo("Test started: " + testName);
     }
 
@@ -29,24 +41,31 @@ public class ListenerManager implements ITestListener {
     public void onTestSuccess(ITestResult result) {
         LoggerManager.info("Test passed: " + result.getMethod().getDescription());
         ReportsManager.passTest("Test passed");
+        ReportsManager.endTest("PASS");
     }
 
     @Override
     public void onTestFailure(ITestResult result) {
         String message = result.getThrowable() != null ? result.getThrowable().getMessage() : "Test failed";
         LoggerManager.error("Test failed: " + result.getMethod().getDescription() + " - " + message);
+        File dump = FlightRecorder.dump(result.getMethod().getMethodName());
+        if (dump != null) {
+            ReportsManager.logInfo("Flight recorder dump: " + dump.getPath());
+        }
         ReportsManager.failTest(message);
+        ReportsManager.endTest("FAIL");
     }
 
     @Override
     public void onTestSkipped(ITestResult result) {
         LoggerManager.info("Test skipped: " + result.getMethod().getDescription());
         ReportsManager.logInfo("Test skipped: " + result.getMethod().getDescription());
+        ReportsManager.endTest("SKIP");
     }
 
     @Override
     public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
-        LoggerManager.debug("Test failed but within success percentage: " + result.getMethod().getDescription());
+        LoggerManager.debug("Test failed but within success percentage: {}", result.getMethod().getDescription());
         // Not used
     }
 
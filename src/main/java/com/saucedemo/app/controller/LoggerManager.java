@@ -1,12 +1,45 @@
 package com.saucedemo.app.controller;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.message.StringMapMessage;
+
+import java.time.Instant;
+import java.util.function.Supplier;
 
 public class LoggerManager {
+    /**
+     * Thread context key the log4j2 routing appender uses to write one log file per test.
+     */
+    public static final String TEST_ID_KEY = "testId";
+
     private static final ThreadLocal<Logger> loggerThreadLocal = ThreadLocal.withInitial(() ->
             LogManager.getLogger(Thread.currentThread().getName()));
 
+    /**
+     * Logger for structured events, written as JSON lines to target/reports/structured.jsonl.
+     */
+    private static final Logger structuredLogger = LogManager.getLogger("structured");
+
+    /**
+     * Routes the log events of the current thread to the log file of the given test
+     * (target/reports/logs/{testId}.log) until {@link #endTest()} is called.
+     *
+     * @param testId identifies the test; characters not allowed in file names are replaced
+     */
+    public static void startTest(String testId) {
+        ThreadContext.put(TEST_ID_KEY, testId.replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    /**
+     * Stops routing the log events of the current thread to the log file of a test.
+     */
+    public static void endTest() {
+        ThreadContext.remove(TEST_ID_KEY);
+    }
+
     /**
      * Gets the logger instance for the current thread.
      *
@@ -42,4 +75,269 @@ public class LoggerManager {
     public static void debug(String message) {
         getLogger().debug(message);
     }
+
+    /**
+     * Logs an info-level message built from a template with {} placeholders.
+     * The message is only formatted if info logging is enabled.
+     *
+     * @param template the message template
+     * @param arg      the placeholder argument
+     */
+    public static void info(String template, Object arg) {
+        getLogger().info(template, arg);
+    }
+
+    /**
+     * Logs an info-level message built from a template with {} placeholders.
+     *
+     * @param template the message template
+     * @param arg1     the first placeholder argument
+     * @param arg2     the second placeholder argument
+     */
+    public static void info(String template, Object arg1, Object arg2) {
+        getLogger().info(template, arg1, arg2);
+    }
+
+    /**
+     * Logs an info-level message built from a template with {} placeholders.
+     *
+     * @param template the message template
+     * @param arg1     the first placeholder argument
+     * @param arg2     the second placeholder argument
+     * @param arg3     the third placeholder argument
+     */
+    public static void info(String template, Object arg1, Object arg2, Object arg3) {
+        getLogger().info(template, arg1, arg2, arg3);
+    }
+
+    /**
+     * Logs an info-level message built from a template with {} placeholders.
+     *
+     * @param template the message template
+     * @param arg1     the first placeholder argument
+     * @param arg2     the second placeholder argument
+     * @param arg3     the third placeholder argument
+     * @param arg4     the fourth placeholder argument
+     */
+    public static void info(String template, Object arg1, Object arg2, Object arg3, Object arg4) {
+        getLogger().info(template, arg1, arg2, arg3, arg4);
+    }
+
+    /**
+     * Logs an info-level message which is only built if info logging is enabled. A lambda that captures variables
+     * may still be allocated on every call (16 bytes), even if the level is disabled; when the values are at hand,
+     * a {} template does not allocate.
+     *
+     * @param message supplies the message
+     */
+    public static void info(Supplier<String> message) {
+        Logger logger = getLogger();
+        if (logger.isInfoEnabled()) {
+            logger.info(message.get());
+        }
+    }
+
+    /**
+     * Logs an error-level message built from a template with {} placeholders.
+     *
+     * @param template the message template
+     * @param arg      the placeholder argument
+     */
+    public static void error(String template, Object arg) {
+        getLogger().error(template, arg);
+    }
+
+    /**
+     * Logs an error-level message built from a template with {} placeholders.
+     *
+     * @param template the message template
+     * @param arg1     the first placeholder argument
+     * @param arg2     the second placeholder argument
+     */
+    public static void error(String template, Object arg1, Object arg2) {
+        getLogger().error(template, arg1, arg2);
+    }
+
+    /**
+     * Logs an error-level message built from a template with {} placeholders.
+     *
+     * @param template the message template
+     * @param arg1     the first placeholder argument
+     * @param arg2     the second placeholder argument
+     * @param arg3     the third placeholder argument
+     */
+    public static void error(String template, Object arg1, Object arg2, Object arg3) {
+        getLogger().error(template, arg1, arg2, arg3);
+    }
+
+    /**
+     * Logs an error-level message built from a template with {} placeholders.
+     *
+     * @param template the message template
+     * @param arg1     the first placeholder argument
+     * @param arg2     the second placeholder argument
+     * @param arg3     the third placeholder argument
+     * @param arg4     the fourth placeholder argument
+     */
+    public static void error(String template, Object arg1, Object arg2, Object arg3, Object arg4) {
+        getLogger().error(template, arg1, arg2, arg3, arg4);
+    }
+
+    /**
+     * Logs a debug-level message built from a template with {} placeholders.
+     * The message is only formatted if debug logging is enabled.
+     *
+     * @param template the message template
+     * @param arg      the placeholder argument
+     */
+    public static void debug(String template, Object arg) {
+        getLogger().debug(template, arg);
+    }
+
+    /**
+     * Logs a debug-level message built from a template with {} placeholders.
+     *
+     * @param template the message template
+     * @param arg1     the first placeholder argument
+     * @param arg2     the second placeholder argument
+     */
+    public static void debug(String template, Object arg1, Object arg2) {
+        getLogger().debug(template, arg1, arg2);
+    }
+
+    /**
+     * Logs a debug-level message built from a template with {} placeholders.
+     *
+     * @param template the message template
+     * @param arg1     the first placeholder argument
+     * @param arg2     the second placeholder argument
+     * @param arg3     the third placeholder argument
+     */
+    public static void debug(String template, Object arg1, Object arg2, Object arg3) {
+        getLogger().debug(template, arg1, arg2, arg3);
+    }
+
+    /**
+     * Logs a debug-level message built from a template with {} placeholders.
+     *
+     * @param template the message template
+     * @param arg1     the first placeholder argument
+     * @param arg2     the second placeholder argument
+     * @param arg3     the third placeholder argument
+     * @param arg4     the fourth placeholder argument
+     */
+    public static void debug(String template, Object arg1, Object arg2, Object arg3, Object arg4) {
+        getLogger().debug(template, arg1, arg2, arg3, arg4);
+    }
+
+    /**
+     * Logs a debug-level message which is only built if debug logging is enabled. A lambda that captures variables
+     * may still be allocated on every call (16 bytes), even if the level is disabled; when the values are at hand,
+     * a {} template does not allocate.
+     *
+     * @param message supplies the message
+     */
+    public static void debug(Supplier<String> message) {
+        Logger logger = getLogger();
+        if (logger.isDebugEnabled()) {
+            logger.debug(message.get());
+        }
+    }
+
+    /**
+     * Starts a structured info-level event. Returns a no-op event if the level is disabled,
+     * so that adding fields to it costs nothing.
+     *
+     * @return the StructuredEvent to add fields to
+     */
+    public static StructuredEvent atInfo() {
+        return structuredLogger.isInfoEnabled() ? new StructuredEvent(Level.INFO) : StructuredEvent.DISABLED;
+    }
+
+    /**
+     * Starts a structured debug-level event. Returns a no-op event if the level is disabled.
+     *
+     * @return the StructuredEvent to add fields to
+     */
+    public static StructuredEvent atDebug() {
+        return structuredLogger.isDebugEnabled() ? new StructuredEvent(Level.DEBUG) : StructuredEvent.DISABLED;
+    }
+
+    /**
+     * A structured log event: key/value fields such as test, page, locator and duration, written as one JSON line.
+     * The current test id, thread, level and timestamp are added automatically.
+     */
+    public static final class StructuredEvent {
+        private static final StructuredEvent DISABLED = new StructuredEvent(null);
+
+        private final Level level;
+        private final StringMapMessage fields;
+
+        private StructuredEvent(Level level) {
+            this.level = level;
+            this.fields = level == null ? null : new StringMapMessage();
+        }
+
+        /**
+         * Adds a field to the event.
+         *
+         * @param key   the field name
+         * @param value the field value
+         * @return this event
+         */
+        public StructuredEvent with(String key, String value) {
+            if (fields != null) {
+                fields.with(key, value);
+            }
+            return this;
+        }
+
+        /**
+         * Adds a field to the event, using the value's string representation.
+         *
+         * @param key   the field name
+         * @param value the field value
+         * @return this event
+         */
+        public StructuredEvent with(String key, Object value) {
+            if (fields != null) {
+                fields.with(key, String.valueOf(value));
+            }
+            return this;
+        }
+
+        /**
+         * Adds a numeric field to the event without boxing when the event is disabled.
+         *
+         * @param key   the field name
+         * @param value the field value
+         * @return this event
+         */
+        public StructuredEvent with(String key, long value) {
+            if (fields != null) {
+                fields.with(key, value);
+            }
+            return this;
+        }
+
+        /**
+         * Writes the event with the given message.
+         *
+         * @param message the event message
+         */
+        public void log(String message) {
+            if (fields == null) {
+                return;
+            }
+            fields.with("time", Instant.now().toString());
+            fields.with("level", level.name());
+            fields.with("thread", Thread.currentThread().getName());
+            String testId = ThreadContext.get(TEST_ID_KEY);
+            if (testId != null) {
+                fields.with("test", testId);
+            }
+            fields.with("message", message);
+            structuredLogger.log(level, fields);
+        }
+    }
 }
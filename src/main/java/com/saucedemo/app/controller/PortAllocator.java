@@ -0,0 +1,270 @@
+package com.saucedemo.app.controller;
+
+import com.saucedemo.app.utils.Constants;
+import org.openqa.selenium.remote.SessionId;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hands out non-overlapping blocks of device-side ports (systemPort, mjpegServerPort, chromedriverPort
+ * and wdaLocalPort) so that parallel sessions on one Appium server do not fight over the defaults.
+ * The port ranges of the kinds must not overlap for the configured number of slots, and a slot whose ports are
+ * already bound on this host is skipped. Slots are claimed with compare-and-set, so allocation and release never
+ * take a lock. Blocks held by sessions that died without teardown are reclaimed by leak detection, which asks the
+ * Appium server whether the session still exists.
+ */
+public class PortAllocator {
+    /**
+     * One lease per slot; a null entry means the slot is free.
+     */
+    private static final AtomicReferenceArray<PortLease> LEASES = new AtomicReferenceArray<>(Constants.SESSION_PORT_SLOTS);
+
+    /**
+     * Slot the next allocation starts searching from, so that recently released ports are not reused immediately.
+     */
+    private static final AtomicInteger NEXT_SLOT = new AtomicInteger();
+
+    private static final AtomicBoolean REAPER_STARTED = new AtomicBoolean();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private PortAllocator() {}
+
+    /**
+     * Allocates a free port block for a new session. If all slots are taken, leaked blocks are
+     * reclaimed first before giving up.
+     *
+     * @return the allocated PortBlock
+     * @throws IllegalStateException if the configured port ranges overlap
+     */
+    public static PortBlock allocate() {
+        checkPortRanges();
+        startReaper();
+        PortBlock block = tryAllocate();
+        if (block == null && reclaimLeakedBlocks() > 0) {
+            block = tryAllocate();
+        }
+        if (block == null) {
+            throw new RuntimeException("No free port block available. All " + LEASES.length() + " slots are in use.");
+        }
+        LoggerManager.debug("Allocated port block: {}", block);
+        return block;
+    }
+
+    /**
+     * Binds an allocated block to the session it was allocated for, so that the block can be reclaimed
+     * if that session ends without going through {@link #release(PortBlock)}, e.g. it died on the server
+     * or the teardown of its test was skipped.
+     *
+     * @param block     the allocated PortBlock
+     * @param serverUrl the URL of the Appium server running the session
+     * @param sessionId the id of the session created with the block
+     */
+    public static void bind(PortBlock block, String serverUrl, SessionId sessionId) {
+        PortLease lease = LEASES.get(block.getSlot());
+        if (lease != null && lease.block == block) {
+            lease.sessionUrl = serverUrl + "/session/" + sessionId;
+        }
+    }
+
+    /**
+     * Returns the block to the allocator. Releasing a block twice is harmless.
+     *
+     * @param block the PortBlock to release
+     */
+    public static void release(PortBlock block) {
+        PortLease lease = LEASES.get(block.getSlot());
+        if (lease != null && lease.block == block && LEASES.compareAndSet(block.getSlot(), lease, null)) {
+            LoggerManager.debug("Released port block: {}", block);
+        }
+    }
+
+    /**
+     * Reclaims blocks whose session is gone: the Appium server no longer knows the session or is not running,
+     * or the allocating thread died before binding a session. Blocks of live sessions are kept however long they
+     * run, and so are blocks whose server does not answer in time.
+     *
+     * @return the number of reclaimed blocks
+     */
+    public static int reclaimLeakedBlocks() {
+        int reclaimed = 0;
+        for (int slot = 0; slot < LEASES.length(); slot++) {
+            PortLease lease = LEASES.get(slot);
+            if (lease != null && lease.isLeaked() && LEASES.compareAndSet(slot, lease, null)) {
+                LoggerManager.info("Reclaimed leaked port block: " + lease.block);
+                reclaimed++;
+            }
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Claims the first free slot, starting from the rotating cursor. Slots with a port bound by another process
+     * are skipped.
+     *
+     * @return the allocated PortBlock, or null if all slots are taken
+     */
+    private static PortBlock tryAllocate() {
+        int slots = LEASES.length();
+        int start = Math.floorMod(NEXT_SLOT.getAndIncrement(), slots);
+        for (int i = 0; i < slots; i++) {
+            int slot = (start + i) % slots;
+            if (LEASES.get(slot) == null) {
+                PortBlock block = new PortBlock(slot);
+                if (LEASES.compareAndSet(slot, null, new PortLease(block))) {
+                    if (block.isFree()) {
+                        return block;
+                    }
+                    LoggerManager.debug("Skipping port block in use by another process: {}", block);
+                    LEASES.set(slot, null);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks that the port ranges of the slots do not overlap, e.g. wdaLocalPort reaching into systemPort.
+     *
+     * @throws IllegalStateException if two port ranges overlap
+     */
+    private static void checkPortRanges() {
+        String[] names = {"session.system.port.base", "session.mjpeg.port.base", "session.chromedriver.port.base", "session.wda.port.base"};
+        int[] bases = {Constants.SESSION_SYSTEM_PORT_BASE, Constants.SESSION_MJPEG_PORT_BASE,
+                Constants.SESSION_CHROMEDRIVER_PORT_BASE, Constants.SESSION_WDA_PORT_BASE};
+        int slots = Constants.SESSION_PORT_SLOTS;
+        for (int i = 0; i < bases.length; i++) {
+            for (int j = i + 1; j < bases.length; j++) {
+                if (bases[i] < bases[j] + slots && bases[j] < bases[i] + slots) {
+                    throw new IllegalStateException(String.format("Port ranges of %s (%d) and %s (%d) overlap for %d slots.",
+                            names[i], bases[i], names[j], bases[j], slots));
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts the background leak detection once.
+     */
+    private static void startReaper() {
+        if (REAPER_STARTED.compareAndSet(false, true)) {
+            ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "port-leak-reaper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reaper.scheduleWithFixedDelay(PortAllocator::reclaimLeakedBlocks, 30, 30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Bookkeeping for an allocated block.
+     */
+    private static final class PortLease {
+        private final PortBlock block;
+        private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+        private volatile String sessionUrl;
+
+        private PortLease(PortBlock block) {
+            this.block = block;
+        }
+
+        /**
+         * Checks whether the session holding the block is gone. Before a session is bound, the block is leaked
+         * if the allocating thread died. Afterwards, the session's timeouts are read from the Appium server: an
+         * unknown session (HTTP 404) or a server refusing the connection means the session is gone.
+         *
+         * @return true if the block can be reclaimed
+         */
+        private boolean isLeaked() {
+            String url = sessionUrl;
+            if (url == null) {
+                Thread thread = owner.get();
+                return thread == null || !thread.isAlive();
+            }
+            HttpURLConnection connection = null;
+            try {
+                connection = (HttpURLConnection) new URL(url + "/timeouts").openConnection();
+                connection.setConnectTimeout(2000);
+                connection.setReadTimeout(5000);
+                return connection.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND;
+            } catch (SocketTimeoutException e) {
+                LoggerManager.debug("Session probe timed out for port block {}: {}", block, e.getMessage());
+                return false;
+            } catch (IOException e) {
+                LoggerManager.debug("Session probe failed for port block {}: {}", block, e.getMessage());
+                return true;
+            } finally {
+                if (connection != null) {
+                    connection.disconnect();
+                }
+            }
+        }
+    }
+
+    /**
+     * A block of ports reserved for one session.
+     */
+    public static final class PortBlock {
+        private final int slot;
+
+        private PortBlock(int slot) {
+            this.slot = slot;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
+
+        public int getSystemPort() {
+            return Constants.SESSION_SYSTEM_PORT_BASE + slot;
+        }
+
+        public int getMjpegServerPort() {
+            return Constants.SESSION_MJPEG_PORT_BASE + slot;
+        }
+
+        public int getChromedriverPort() {
+            return Constants.SESSION_CHROMEDRIVER_PORT_BASE + slot;
+        }
+
+        public int getWdaLocalPort() {
+            return Constants.SESSION_WDA_PORT_BASE + slot;
+        }
+
+        /**
+         * Checks whether any port of the block is bound on this host, e.g. by a session of another test run.
+         *
+         * @return true if all ports of the block can be bound
+         */
+        private boolean isFree() {
+            for (int port : new int[]{getSystemPort(), getMjpegServerPort(), getChromedriverPort(), getWdaLocalPort()}) {
+                try {
+                    new ServerSocket(port, 1, InetAddress.getLoopbackAddress()).close();
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("slot=%d, systemPort=%d, mjpegServerPort=%d, chromedriverPort=%d, wdaLocalPort=%d",
+                    slot, getSystemPort(), getMjpegServerPort(), getChromedriverPort(), getWdaLocalPort());
+        }
+    }
+}
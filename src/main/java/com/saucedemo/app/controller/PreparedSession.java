@@ -0,0 +1,112 @@
+package com.saucedemo.app.controller;
+
+import io.appium.java_client.AppiumClientConfig;
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Everything needed to open a driver session that can be prepared without touching the device:
+ * the capabilities, the client configuration and, when the Appium server is known in advance,
+ * the command executor with its HTTP client.
+ */
+final class PreparedSession {
+    private final String platformType;
+    private final AppiumClientConfig clientConfig;
+    private final Capabilities capabilities;
+    private final long preparationNanos;
+    private final String serverUrl;
+    private HttpCommandExecutor executor;
+
+    PreparedSession(String platformType, AppiumClientConfig clientConfig, Capabilities capabilities,
+                    String serverUrl, HttpCommandExecutor executor, long preparationNanos) {
+        this.platformType = platformType;
+        this.clientConfig = clientConfig;
+        this.capabilities = capabilities;
+        this.serverUrl = serverUrl;
+        this.executor = executor;
+        this.preparationNanos = preparationNanos;
+    }
+
+    String getPlatformType() {
+        return platformType;
+    }
+
+    AppiumClientConfig getClientConfig() {
+        return clientConfig;
+    }
+
+    Capabilities getCapabilities() {
+        return capabilities;
+    }
+
+    /**
+     * Returns how long it took to prepare this session.
+     *
+     * @return the preparation time in nanoseconds
+     */
+    long getPreparationNanos() {
+        return preparationNanos;
+    }
+
+    /**
+     * Hands out the command executor for the given Appium server. The prepared executor is used if it was built
+     * for that server, otherwise it is closed and a new one is built.
+     *
+     * @param url the URL of the Appium server the session is created on
+     * @return the command executor
+     */
+    HttpCommandExecutor takeExecutor(String url) {
+        HttpCommandExecutor prepared = executor;
+        executor = null;
+        if (prepared != null && url.equals(serverUrl)) {
+            return prepared;
+        }
+        close(prepared);
+        return newExecutor(clientConfig, url);
+    }
+
+    /**
+     * Closes the HTTP client of the prepared executor if it was not handed out.
+     */
+    void close() {
+        close(executor);
+        executor = null;
+    }
+
+    /**
+     * Builds a command executor, and with it the HTTP client, for the given Appium server.
+     *
+     * @param clientConfig the client configuration
+     * @param url          the URL of the Appium server
+     * @return the command executor
+     */
+    static HttpCommandExecutor newExecutor(AppiumClientConfig clientConfig, String url) {
+        try {
+            return new AppiumCommandExecutor(MobileCommand.commandRepository, clientConfig.baseUrl(new URL(url)));
+        } catch (MalformedURLException e) {
+            LoggerManager.error("Malformed Appium server URL: " + url + " - " + e.getMessage());
+            throw new RuntimeException("Malformed Appium server URL: " + url, e);
+        }
+    }
+
+    /**
+     * Closes the HTTP client of an executor.
+     *
+     * @param executor the executor, may be null
+     */
+    private static void close(HttpCommandExecutor executor) {
+        if (executor == null) {
+            return;
+        }
+        try {
+            executor.client.close();
+        } catch (RuntimeException e) {
+            LoggerManager.debug("Error while closing unused HTTP client: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.saucedemo.app.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.saucedemo.app.utils.Constants;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streaming report for large suites. Each finished test is appended as one JSON line to
+ * target/reports/report_journal.jsonl and dropped from memory, so heap usage does not grow with the suite
+ * and the results of finished tests survive a crash. A paginated HTML view is rendered from the journal
+ * every report.stream.render.interval tests and when the report is built.
+ */
+public class ReportJournal {
+    private static final String REPORT_PATH = System.getProperty("user.dir") + "/target/reports";
+    private static final File JOURNAL_FILE = new File(REPORT_PATH, "report_journal.jsonl");
+    private static final File PAGES_FOLDER = new File(REPORT_PATH, "stream");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectWriter WRITER = MAPPER.writer();
+    private static final ObjectReader READER = MAPPER.readerFor(new TypeReference<Map<String, Object>>() {});
+
+    /**
+     * Renders the HTML pages in the background, so that test threads only pay for appending their record.
+     */
+    private static final ExecutorService RENDERER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "report-renderer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicBoolean RENDER_PENDING = new AtomicBoolean();
+
+    /**
+     * Record of the test running on the current thread.
+     */
+    private static final ThreadLocal<Map<String, Object>> CURRENT_RECORD = new ThreadLocal<>();
+
+    private static final Object LOCK = new Object();
+    private static OutputStream journal;
+    private static long journalBytes;
+    private static int records;
+    private static int passed;
+    private static int failed;
+    private static int skipped;
+
+    /**
+     * Journal offset at which each page starts. Only the last page can still change, so earlier pages
+     * are rendered once and never read again.
+     */
+    private static final List<Long> PAGE_OFFSETS = new ArrayList<>();
+    private static int renderedPages;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ReportJournal() {}
+
+    /**
+     * Starts the record of the test about to run on the current thread. Does nothing when streaming is disabled.
+     *
+     * @param testName the name of the test
+     */
+    public static void startTest(String testName) {
+        if (!Constants.ENABLE_REPORT_STREAMING) {
+            return;
+        }
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("name", testName);
+        record.put("thread", Thread.currentThread().getName());
+        record.put("start", System.currentTimeMillis());
+        record.put("logs", new ArrayList<Map<String, Object>>());
+        CURRENT_RECORD.set(record);
+    }
+
+    /**
+     * Adds a log entry to the record of the current test.
+     *
+     * @param status  the step status (e.g. "PASS", "FAIL" or "INFO")
+     * @param message the step message
+     */
+    public static void log(String status, String message) {
+        List<Map<String, Object>> logs = getLogs();
+        if (logs != null) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("time", System.currentTimeMillis());
+            entry.put("status", status);
+            entry.put("message", message);
+            logs.add(entry);
+        }
+    }
+
+    /**
+     * Attaches a screenshot to the latest log entry of the current test.
+     *
+     * @param fileName the screenshot file name, relative to the reports folder
+     */
+    public static void attachScreenshot(String fileName) {
+        List<Map<String, Object>> logs = getLogs();
+        if (logs != null && !logs.isEmpty()) {
+            logs.get(logs.size() - 1).put("screenshot", fileName);
+        }
+    }
+
+    /**
+     * Appends the record of the current test to the journal and releases it.
+     *
+     * @param status the final test status ("PASS", "FAIL" or "SKIP")
+     * @return true if the test was journaled, false if streaming is disabled or no test was started
+     */
+    public static boolean endTest(String status) {
+        Map<String, Object> record = CURRENT_RECORD.get();
+        if (record == null) {
+            return false;
+        }
+        CURRENT_RECORD.remove();
+        long end = System.currentTimeMillis();
+        record.put("status", status);
+        record.put("end", end);
+        record.put("durationMs", end - (Long) record.get("start"));
+        boolean render;
+        try {
+            byte[] line = (WRITER.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+            synchronized (LOCK) {
+                if (journal == null) {
+                    JOURNAL_FILE.getParentFile().mkdirs();
+                    journal = new FileOutputStream(JOURNAL_FILE, true);
+                    journalBytes = JOURNAL_FILE.length();
+                }
+                if (records % Constants.REPORT_STREAM_PAGE_SIZE == 0) {
+                    PAGE_OFFSETS.add(journalBytes);
+                }
+                journal.write(line);
+                journal.flush();
+                journalBytes += line.length;
+                records++;
+                if (status.equals("PASS")) {
+                    passed++;
+                } else if (status.equals("FAIL")) {
+                    failed++;
+                } else {
+                    skipped++;
+                }
+                render = records % Constants.REPORT_STREAM_RENDER_INTERVAL == 0;
+            }
+        } catch (IOException e) {
+            LoggerManager.error("Error while appending to report journal: " + e.getMessage());
+            return false;
+        }
+        if (render && RENDER_PENDING.compareAndSet(false, true)) {
+            RENDERER.submit(() -> {
+                RENDER_PENDING.set(false);
+                render();
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Renders the HTML pages of all journaled tests. Called when the report is built.
+     */
+    public static void renderNow() {
+        if (!Constants.ENABLE_REPORT_STREAMING) {
+            return;
+        }
+        render();
+        LoggerManager.info("Generated streaming report: " + new File(PAGES_FOLDER, "index.html").getPath());
+    }
+
+    /**
+     * Renders the pages which may have changed since the last render and the index page.
+     */
+    private static synchronized void render() {
+        List<Long> offsets;
+        long length;
+        int total;
+        int[] counts;
+        synchronized (LOCK) {
+            offsets = new ArrayList<>(PAGE_OFFSETS);
+            length = journalBytes;
+            total = records;
+            counts = new int[] {passed, failed, skipped};
+        }
+        if (offsets.isEmpty()) {
+            return;
+        }
+        PAGES_FOLDER.mkdirs();
+        try {
+            for (int page = Math.max(0, renderedPages - 1); page < offsets.size(); page++) {
+                long pageEnd = page + 1 < offsets.size() ? offsets.get(page + 1) : length;
+                renderPage(page, offsets.size(), offsets.get(page), pageEnd);
+            }
+            renderedPages = offsets.size();
+            renderIndex(offsets.size(), total, counts);
+        } catch (IOException e) {
+            LoggerManager.error("Error while rendering streaming report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Renders one page from the journal bytes between the given offsets.
+     *
+     * @param page      the zero-based page index
+     * @param pageCount the number of pages
+     * @param start     the journal offset of the first record of the page
+     * @param end       the journal offset after the last record of the page
+     * @throws IOException if the journal cannot be read or the page cannot be written
+     */
+    private static void renderPage(int page, int pageCount, long start, long end) throws IOException {
+        try (FileChannel channel = FileChannel.open(JOURNAL_FILE.toPath(), StandardOpenOption.READ);
+             PrintWriter html = new PrintWriter(new File(PAGES_FOLDER, pageFileName(page)), StandardCharsets.UTF_8.name())) {
+            channel.position(start);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            html.println("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Test report - page " + (page + 1) + "</title>");
+            html.println("<style>body{font-family:sans-serif}.PASS{color:#2e7d32}.FAIL{color:#c62828}.SKIP,.INFO{color:#555}"
+                    + "details{margin:4px 0}img{max-width:240px}</style></head><body>");
+            html.println("<h1>Page " + (page + 1) + " of " + pageCount + "</h1>" + navigation(page, pageCount));
+            long read = 0L;
+            String line;
+            while (start + read < end && (line = reader.readLine()) != null) {
+                read += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                Map<String, Object> record = READER.readValue(line);
+                html.printf("<details><summary class=\"%s\">%s &mdash; %s (%s ms, %s)</summary><ul>%n",
+                        escape(record.get("status")), escape(record.get("status")), escape(record.get("name")),
+                        escape(record.get("durationMs")), escape(record.get("thread")));
+                Object logs = record.get("logs");
+                if (logs instanceof List) {
+                    for (Object log : (List<?>) logs) {
+                        Map<?, ?> entry = (Map<?, ?>) log;
+                        html.printf("<li class=\"%s\">%s %s", escape(entry.get("status")), escape(entry.get("status")),
+                                escape(entry.get("message")));
+                        if (entry.get("screenshot") != null) {
+                            html.printf(" <a href=\"../%1$s\"><img src=\"../%1$s\" loading=\"lazy\"></a>", escape(entry.get("screenshot")));
+                        }
+                        html.println("</li>");
+                    }
+                }
+                html.println("</ul></details>");
+            }
+            html.println(navigation(page, pageCount) + "</body></html>");
+        }
+    }
+
+    /**
+     * Renders the index page with the totals and links to all pages.
+     *
+     * @param pageCount the number of pages
+     * @param total     the number of journaled tests
+     * @param counts    the passed, failed and skipped counts
+     * @throws IOException if the page cannot be written
+     */
+    private static void renderIndex(int pageCount, int total, int[] counts) throws IOException {
+        try (PrintWriter html = new PrintWriter(new File(PAGES_FOLDER, "index.html"), StandardCharsets.UTF_8.name())) {
+            html.println("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Test report</title></head><body>");
+            html.printf("<h1>Test report</h1><p>Tests: %d, passed: %d, failed: %d, skipped: %d</p><ol>%n",
+                    total, counts[0], counts[1], counts[2]);
+            for (int page = 0; page < pageCount; page++) {
+                html.printf("<li><a href=\"%s\">Page %d</a></li>%n", pageFileName(page), page + 1);
+            }
+            html.println("</ol></body></html>");
+        }
+    }
+
+    private static String navigation(int page, int pageCount) {
+        StringBuilder navigation = new StringBuilder("<p><a href=\"index.html\">Index</a>");
+        if (page > 0) {
+            navigation.append(" | <a href=\"").append(pageFileName(page - 1)).append("\">Previous</a>");
+        }
+        if (page + 1 < pageCount) {
+            navigation.append(" | <a href=\"").append(pageFileName(page + 1)).append("\">Next</a>");
+        }
+        return navigation.append("</p>").toString();
+    }
+
+    private static String pageFileName(int page) {
+        return String.format("page_%04d.html", page + 1);
+    }
+
+    private static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder();
+        for (char c : value.toString().toCharArray()) {
+            switch (c) {
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '&': escaped.append("&amp;"); break;
+                case '"': escaped.append("&quot;"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> getLogs() {
+        Map<String, Object> record = CURRENT_RECORD.get();
+        return record == null ? null : (List<Map<String, Object>>) record.get("logs");
+    }
+}
@@ -8,10 +8,10 @@ import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages ExtentReports lifecycle, logging, and screenshot attachment for test reporting.
@@ -20,17 +20,26 @@ public class ReportsManager {
     private static final ExtentReports extentReports = new ExtentReports();
     private static final ThreadLocal<ExtentTest> extentTest = new ThreadLocal<>();
     private static final String REPORT_PATH = System.getProperty("user.dir") + "/target/reports";
+    private static final long SCREENSHOT_FLUSH_TIMEOUT_SECONDS = 60;
+    private static final AtomicLong SCREENSHOT_SEQUENCE = new AtomicLong();
+    private static final AtomicBoolean REPORTER_ATTACHED = new AtomicBoolean();
 
     // Private constructor to prevent instantiation
     private ReportsManager() {}
 
     /**
      * Initializes the ExtentReports reporter with document title and report name.
+     * Only the first call attaches the reporter, so that the lanes of a device matrix, which each start the
+     * listener, write to one report instead of resetting it.
      *
      * @param documentTitle the title of the report document
      * @param reportName    the name of the report
      */
     public static void initiateReporter(String documentTitle, String reportName) {
+        if (!REPORTER_ATTACHED.compareAndSet(false, true)) {
+            return;
+        }
+        new File(REPORT_PATH).mkdirs();
         ExtentSparkReporter sparkReporter = new ExtentSparkReporter(REPORT_PATH + "/ExtentReport.html");
         sparkReporter.config().setDocumentTitle(documentTitle);
         sparkReporter.config().setReportName(reportName);
@@ -79,7 +88,11 @@ public class ReportsManager {
     public static void passStep(String message) {
         LoggerManager.info(message);
         getTest().log(Status.PASS, message);
-        addScreenshotToReport();
+        ReportJournal.log("PASS", message);
+        FlightRecorder.log("PASS", message);
+        ElementCache.invalidateAll();
+        ElementStateCache.clear();
+        addScreenshotToReport(false);
     }
 
     /**
@@ -90,7 +103,11 @@ public class ReportsManager {
     public static void failStep(String message) {
         LoggerManager.error(message);
         getTest().log(Status.FAIL, message);
-        addScreenshotToReport();
+        ReportJournal.log("FAIL", message);
+        FlightRecorder.log("FAIL", message);
+        ElementCache.invalidateAll();
+        ElementStateCache.clear();
+        addScreenshotToReport(true);
     }
 
     /**
@@ -101,6 +118,8 @@ public class ReportsManager {
     public static void logInfo(String message) {
         LoggerManager.info(message);
         getTest().info(message);
+        ReportJournal.log("INFO", message);
+        FlightRecorder.log("INFO", message);
     }
 
     /**
@@ -110,7 +129,11 @@ public class ReportsManager {
      */
     public static void passTest(String message) {
         getTest().pass(message);
-        addScreenshotToReport();
+        ReportJournal.log("PASS", message);
+        FlightRecorder.log("PASS", message);
+        ElementCache.invalidateAll();
+        ElementStateCache.clear();
+        addScreenshotToReport(false);
     }
 
     /**
@@ -120,52 +143,79 @@ public class ReportsManager {
      */
     public static void failTest(String message) {
         getTest().fail(message);
-        addScreenshotToReport();
+        ReportJournal.log("FAIL", message);
+        FlightRecorder.log("FAIL", message);
+        ElementCache.invalidateAll();
+        ElementStateCache.clear();
+        addScreenshotToReport(true);
     }
 
     /**
-     * Flushes the ExtentReports and writes the report to disk.
+     * Ends the current test. With streaming enabled, the test is appended to the report journal and removed
+     * from the ExtentReports instance, so that finished tests do not stay in memory until the end of the suite.
+     *
+     * @param status the final test status ("PASS", "FAIL" or "SKIP")
      */
-    public static void buildReport() {
-        getExtentReports().flush();
-        LoggerManager.info("Generated report: " + REPORT_PATH + "/ExtentReport.html");
+    public static void endTest(String status) {
+        ExtentTest test = getTest();
+        if (ReportJournal.endTest(status) && test != null) {
+            extentReports.removeTest(test);
+        }
+        removeTest();
     }
 
     /**
-     * Captures a screenshot and attaches it to the current test report.
+     * Flushes the ExtentReports and writes the report to disk.
      */
-    private static void addScreenshotToReport() {
-        String filePath = takeScreenshot();
-        getTest().addScreenCaptureFromPath(filePath);
+    public static void buildReport() {
+        ScreenshotWriter.flush(SCREENSHOT_FLUSH_TIMEOUT_SECONDS);
+        LoggerManager.info(ScreenshotPolicy.getMetricsSummary());
+        LoggerManager.info(ElementCache.getMetricsSummary());
+        LoggerManager.info(ElementStateCache.getMetricsSummary());
+        LoggerManager.info(WaitEngine.getMetricsSummary());
+        LoggerManager.info(ScrollEngine.getMetricsSummary());
+        LoggerManager.info(TimeoutBudget.getMetricsSummary());
+        LoggerManager.info(CommandBatch.getMetricsSummary());
+        getExtentReports().flush();
+        ReportJournal.renderNow();
+        LoggerManager.info("Generated report: " + REPORT_PATH + "/ExtentReport.html");
     }
 
     /**
-     * Captures a screenshot and saves it to the report directory.
+     * Captures a screenshot and attaches it to the current test report, as far as the screenshot policy asks for one.
+     * The screenshot is written in the background; it is not attached if the writer dropped it.
      *
-     * @return the absolute path of the screenshot file
+     * @param failure whether the step or test failed
      */
-    private static String takeScreenshot() {
-        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss_SSS").format(new Date());
-        String screenshotPath = REPORT_PATH + "/screenshot_" + timestamp + ".png";
-        return takeScreenshot(screenshotPath);
+    private static void addScreenshotToReport(boolean failure) {
+        if (!ScreenshotPolicy.shouldCapture(failure)) {
+            return;
+        }
+        long start = System.nanoTime();
+        String base64 = ((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.BASE64);
+        ScreenshotPolicy.recordCapture(System.nanoTime() - start);
+        if (!ScreenshotPolicy.shouldKeep(base64, failure)) {
+            LoggerManager.debug("Screen unchanged since previous screenshot. Skipping screenshot.");
+            return;
+        }
+        String filePath = saveScreenshot(base64);
+        if (filePath != null) {
+            getTest().addScreenCaptureFromPath(filePath);
+            ReportJournal.attachScreenshot(filePath);
+        }
     }
 
     /**
-     * Captures a screenshot and saves it to the specified path.
+     * Hands a captured screenshot to the background writer to be saved in the report directory.
+     * The screenshot is taken from the driver as Base64 and decoded by the writer, so neither a temporary file
+     * is created nor the test thread spends time decoding it.
      *
-     * @param screenshotPath the path to save the screenshot
-     * @return the absolute path of the screenshot file
+     * @param base64 the screenshot as Base64-encoded PNG
+     * @return the file name of the screenshot, or null if it was dropped
      */
-    private static String takeScreenshot(String screenshotPath) {
-        File src = ((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.FILE);
-        File destn = new File(screenshotPath);
-        try {
-            Files.copy(src.toPath(), destn.toPath());
-            LoggerManager.info("Screenshot saved at: " + screenshotPath);
-        } catch (IOException e) {
-            LoggerManager.error("Error while capturing screenshot: " + e.getMessage());
-            throw new RuntimeException("Error while capturing screenshot.", e);
-        }
-        return destn.getName();
+    private static String saveScreenshot(String base64) {
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss_SSS").format(new Date());
+        File destn = new File(REPORT_PATH + "/screenshot_" + timestamp + "_" + SCREENSHOT_SEQUENCE.incrementAndGet() + ".png");
+        return ScreenshotWriter.submit(destn, base64) ? destn.getName() : null;
     }
 }
@@ -0,0 +1,229 @@
+package com.saucedemo.app.controller;
+
+import com.saucedemo.app.utils.Constants;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which report steps get a screenshot. Failures are always captured; passed steps are captured
+ * according to screenshot.policy:
+ * "always" captures every step, "on_failure" captures failures only, "every_n" captures the first
+ * and then every screenshot.every.n-th step of a test, and "on_change" captures every step but keeps
+ * the screenshot only if it differs from the previous one of the test. Screens are compared through a
+ * difference hash (dHash) of a subsampled frame; frames within screenshot.change.threshold differing
+ * bits are treated as duplicates.
+ */
+public class ScreenshotPolicy {
+    public static final String ALWAYS = "always";
+    public static final String ON_FAILURE = "on_failure";
+    public static final String ON_CHANGE = "on_change";
+    public static final String EVERY_N = "every_n";
+
+    private static final int GRID_SIZE = 9;
+
+    /**
+     * Per-test capture state of the current thread.
+     */
+    private static final ThreadLocal<TestState> STATE = ThreadLocal.withInitial(TestState::new);
+
+    private static final AtomicLong CAPTURED = new AtomicLong();
+    private static final AtomicLong CAPTURE_NANOS = new AtomicLong();
+    private static final AtomicLong SKIPPED_BEFORE_CAPTURE = new AtomicLong();
+    private static final AtomicLong SKIPPED_DUPLICATES = new AtomicLong();
+    private static final AtomicLong SAVED_BYTES = new AtomicLong();
+    private static final AtomicLong HASH_NANOS = new AtomicLong();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ScreenshotPolicy() {}
+
+    /**
+     * Resets the capture state for the test about to run on the current thread.
+     */
+    public static void startTest() {
+        startTest(Constants.SCREENSHOT_POLICY);
+    }
+
+    /**
+     * Resets the capture state for the test about to run on the current thread, with a policy of its own
+     * instead of screenshot.policy.
+     *
+     * @param policy the screenshot policy of the test, e.g. {@link #ON_FAILURE}
+     */
+    public static void startTest(String policy) {
+        STATE.set(new TestState(policy));
+    }
+
+    /**
+     * Decides, before any driver round trip, whether the current step needs a screenshot.
+     *
+     * @param failure whether the step or test failed
+     * @return true if a screenshot should be captured
+     */
+    public static boolean shouldCapture(boolean failure) {
+        TestState state = STATE.get();
+        state.steps++;
+        if (failure) {
+            return true;
+        }
+        String policy = state.policy;
+        boolean capture = true;
+        if (policy.equalsIgnoreCase(ON_FAILURE)) {
+            capture = false;
+        } else if (policy.equalsIgnoreCase(EVERY_N)) {
+            capture = (state.steps - 1) % Math.max(1, Constants.SCREENSHOT_EVERY_N) == 0;
+        }
+        if (!capture) {
+            SKIPPED_BEFORE_CAPTURE.incrementAndGet();
+        }
+        return capture;
+    }
+
+    /**
+     * Records the duration of a screenshot round trip, used to estimate the time saved by skipped captures.
+     *
+     * @param nanos the capture duration
+     */
+    public static void recordCapture(long nanos) {
+        CAPTURED.incrementAndGet();
+        CAPTURE_NANOS.addAndGet(nanos);
+    }
+
+    /**
+     * Decides, after capturing, whether the screenshot is kept. With the "on_change" policy, screenshots of
+     * passed steps are dropped when they are near-identical to the previous screenshot of the test. The screenshot
+     * is only decoded for this policy.
+     *
+     * @param base64  the captured screenshot as Base64-encoded PNG
+     * @param failure whether the step or test failed
+     * @return true if the screenshot should be saved and attached
+     */
+    public static boolean shouldKeep(String base64, boolean failure) {
+        TestState state = STATE.get();
+        if (!state.policy.equalsIgnoreCase(ON_CHANGE)) {
+            return true;
+        }
+        long start = System.nanoTime();
+        byte[] png = null;
+        long[] hash;
+        try {
+            png = Base64.getMimeDecoder().decode(base64);
+            hash = differenceHash(png);
+        } catch (IOException | RuntimeException e) {
+            LoggerManager.debug("Could not hash screenshot, keeping it: {}", e.getMessage());
+            hash = null;
+        } finally {
+            HASH_NANOS.addAndGet(System.nanoTime() - start);
+        }
+        long[] previous = state.lastHash;
+        state.lastHash = hash;
+        if (failure || hash == null || previous == null
+                || Long.bitCount(hash[0] ^ previous[0]) + Long.bitCount(hash[1] ^ previous[1])
+                > Constants.SCREENSHOT_CHANGE_THRESHOLD) {
+            return true;
+        }
+        SKIPPED_DUPLICATES.incrementAndGet();
+        SAVED_BYTES.addAndGet(png.length);
+        return false;
+    }
+
+    /**
+     * Builds a summary of captured and skipped screenshots and the estimated time and disk space saved.
+     *
+     * @return the metrics summary
+     */
+    public static String getMetricsSummary() {
+        long captured = CAPTURED.get();
+        long averageCaptureNanos = captured == 0 ? 0L : CAPTURE_NANOS.get() / captured;
+        long savedNanos = SKIPPED_BEFORE_CAPTURE.get() * averageCaptureNanos;
+        return String.format("Screenshot policy %s: captured=%d, skippedBeforeCapture=%d, skippedDuplicates=%d, "
+                        + "averageCaptureMs=%d, estimatedTimeSavedMs=%d, hashingMs=%d, diskSavedKb=%d",
+                Constants.SCREENSHOT_POLICY, captured, SKIPPED_BEFORE_CAPTURE.get(), SKIPPED_DUPLICATES.get(),
+                TimeUnit.NANOSECONDS.toMillis(averageCaptureNanos), TimeUnit.NANOSECONDS.toMillis(savedNanos),
+                TimeUnit.NANOSECONDS.toMillis(HASH_NANOS.get()), SAVED_BYTES.get() / 1024);
+    }
+
+    /**
+     * Computes a difference hash of the image: the frame is shrunk to a 9x9 luminance grid, the first
+     * 64 bits record whether a cell is brighter than its right neighbour and the second 64 bits whether
+     * it is brighter than the cell below. The PNG is decoded with subsampling, so only a fraction of the
+     * pixels is materialised.
+     *
+     * @param png the PNG bytes
+     * @return the horizontal and vertical difference hashes
+     * @throws IOException if the image cannot be decoded
+     */
+    static long[] differenceHash(byte[] png) throws IOException {
+        BufferedImage image;
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(png))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported screenshot format.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(Math.max(1, reader.getWidth(0) / (GRID_SIZE * 8)),
+                        Math.max(1, reader.getHeight(0) / (GRID_SIZE * 8)), 0, 0);
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        long[] luminance = new long[GRID_SIZE * GRID_SIZE];
+        int[] counts = new int[GRID_SIZE * GRID_SIZE];
+        for (int y = 0; y < height; y++) {
+            int row = y * GRID_SIZE / height;
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                int cell = row * GRID_SIZE + x * GRID_SIZE / width;
+                luminance[cell] += (((rgb >> 16) & 0xFF) * 299 + ((rgb >> 8) & 0xFF) * 587 + (rgb & 0xFF) * 114) / 1000;
+                counts[cell]++;
+            }
+        }
+        for (int cell = 0; cell < luminance.length; cell++) {
+            luminance[cell] /= Math.max(1, counts[cell]);
+        }
+        long horizontal = 0L;
+        long vertical = 0L;
+        for (int row = 0; row < GRID_SIZE - 1; row++) {
+            for (int column = 0; column < GRID_SIZE - 1; column++) {
+                int cell = row * GRID_SIZE + column;
+                horizontal = (horizontal << 1) | (luminance[cell] > luminance[cell + 1] ? 1L : 0L);
+                vertical = (vertical << 1) | (luminance[cell] > luminance[cell + GRID_SIZE] ? 1L : 0L);
+            }
+        }
+        return new long[] {horizontal, vertical};
+    }
+
+    /**
+     * Screenshot state of the test running on a thread.
+     */
+    private static final class TestState {
+        private final String policy;
+        private int steps;
+        private long[] lastHash;
+
+        private TestState() {
+            this(Constants.SCREENSHOT_POLICY);
+        }
+
+        private TestState(String policy) {
+            this.policy = policy;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.saucedemo.app.controller;
+
+import com.saucedemo.app.utils.Constants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes report screenshots to disk on a background thread, so that test steps do not wait for disk I/O.
+ * Screenshots are handed over as Base64-encoded PNG through a bounded queue and decoded by the writer, which
+ * keeps the decoding off the test thread as well. When the queue is full, the configured
+ * policy applies: "block" waits for space, "drop" discards the screenshot and "caller_runs" writes it on
+ * the test thread.
+ */
+public class ScreenshotWriter {
+    private static final BlockingQueue<Screenshot> QUEUE = new ArrayBlockingQueue<>(Math.max(1, Constants.SCREENSHOT_QUEUE_CAPACITY));
+    private static final AtomicBoolean WRITER_STARTED = new AtomicBoolean();
+
+    /**
+     * Screenshots submitted but not yet written, including the one the writer is working on.
+     */
+    private static final AtomicInteger PENDING = new AtomicInteger();
+    private static final Object FLUSH_LOCK = new Object();
+
+    private static final AtomicLong WRITTEN = new AtomicLong();
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static final AtomicLong CALLER_RUNS = new AtomicLong();
+    private static final AtomicLong BLOCKED_NANOS = new AtomicLong();
+    private static final AtomicLong WRITE_NANOS = new AtomicLong();
+    private static final AtomicInteger MAX_QUEUE_DEPTH = new AtomicInteger();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ScreenshotWriter() {}
+
+    /**
+     * Hands a screenshot over to the background writer.
+     *
+     * @param file   the file to write
+     * @param base64 the screenshot as Base64-encoded PNG
+     * @return true if the screenshot will be written, false if it was dropped because the queue was full
+     */
+    public static boolean submit(File file, String base64) {
+        startWriter();
+        Screenshot screenshot = new Screenshot(file, base64);
+        PENDING.incrementAndGet();
+        if (QUEUE.offer(screenshot)) {
+            MAX_QUEUE_DEPTH.accumulateAndGet(QUEUE.size(), Math::max);
+            return true;
+        }
+        String policy = Constants.SCREENSHOT_QUEUE_FULL_POLICY;
+        if (policy.equalsIgnoreCase("drop")) {
+            DROPPED.incrementAndGet();
+            completed();
+            LoggerManager.info("Screenshot queue full. Dropped screenshot: " + file.getName());
+            return false;
+        }
+        if (policy.equalsIgnoreCase("caller_runs")) {
+            CALLER_RUNS.incrementAndGet();
+            write(screenshot);
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            QUEUE.put(screenshot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completed();
+            throw new RuntimeException("Interrupted while queueing screenshot: " + file.getName(), e);
+        } finally {
+            BLOCKED_NANOS.addAndGet(System.nanoTime() - start);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until all submitted screenshots have been written and logs the writer metrics.
+     *
+     * @param timeoutSeconds the maximum time to wait
+     */
+    public static void flush(long timeoutSeconds) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        synchronized (FLUSH_LOCK) {
+            while (PENDING.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    LoggerManager.error("Timed out flushing screenshots. Still pending: " + PENDING.get());
+                    break;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(FLUSH_LOCK, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        LoggerManager.info(String.format("Screenshot writer: written=%d, dropped=%d, callerRuns=%d, maxQueueDepth=%d, "
+                        + "blockedMs=%d, writeMs=%d", WRITTEN.get(), DROPPED.get(), CALLER_RUNS.get(), MAX_QUEUE_DEPTH.get(),
+                TimeUnit.NANOSECONDS.toMillis(BLOCKED_NANOS.get()), TimeUnit.NANOSECONDS.toMillis(WRITE_NANOS.get())));
+    }
+
+    /**
+     * Starts the background writer once.
+     */
+    private static void startWriter() {
+        if (WRITER_STARTED.compareAndSet(false, true)) {
+            Thread writer = new Thread(ScreenshotWriter::drain, "screenshot-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Writes queued screenshots until the JVM exits.
+     */
+    private static void drain() {
+        while (true) {
+            try {
+                write(QUEUE.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Decodes one screenshot and writes it to disk. Failures are logged, as the test has already moved on.
+     *
+     * @param screenshot the screenshot to write
+     */
+    private static void write(Screenshot screenshot) {
+        long start = System.nanoTime();
+        try {
+            Files.write(screenshot.file.toPath(), Base64.getMimeDecoder().decode(screenshot.base64));
+            WRITTEN.incrementAndGet();
+            LoggerManager.debug("Screenshot saved at: {}", screenshot.file);
+        } catch (IOException | IllegalArgumentException e) {
+            LoggerManager.error("Error while writing screenshot " + screenshot.file.getName() + ": " + e.getMessage());
+        } finally {
+            WRITE_NANOS.addAndGet(System.nanoTime() - start);
+            completed();
+        }
+    }
+
+    /**
+     * Marks one submitted screenshot as done and wakes up flushing threads once none are left.
+     */
+    private static void completed() {
+        if (PENDING.decrementAndGet() == 0) {
+            synchronized (FLUSH_LOCK) {
+                FLUSH_LOCK.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * A screenshot waiting to be written.
+     */
+    private static final class Screenshot {
+        private final File file;
+        private final String base64;
+
+        private Screenshot(File file, String base64) {
+            this.file = file;
+            this.base64 = base64;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.saucedemo.app.controller;
+
+import com.google.common.collect.ImmutableMap;
+import com.saucedemo.app.utils.Constants;
+import com.saucedemo.app.utils.MobileGestures;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scrolls relative to the screen instead of fixed coordinates. The window size is read once per session, and the
+ * scroll region (the middle 80% of the width and 60% of the height) and the gesture parameters are derived from it
+ * and reused. scrollUntilVisible scrolls with big steps of scroll.step.far while the target is not on screen,
+ * then with a step sized to the part of the target still outside the window. The end of a list is detected from
+ * the result of the Android scrollGesture, or on iOS when the page source no longer changes between two scrolls
+ * that did not bring the target on screen; the page source is not fetched while the target is visible. The element
+ * caches are dropped after each scroll, whatever gestures performed it.
+ */
+public class ScrollEngine {
+    private static final double REGION_LEFT = 0.1;
+    private static final double REGION_TOP = 0.2;
+    private static final double REGION_WIDTH = 0.8;
+    private static final double REGION_HEIGHT = 0.6;
+    private static final double IOS_DRAG_SECONDS = 0.5;
+
+    /**
+     * Window size and scroll parameters of the session used by the current thread.
+     */
+    private static final ThreadLocal<Session> SESSION = ThreadLocal.withInitial(Session::new);
+
+    private static final AtomicLong SEARCHES = new AtomicLong();
+    private static final AtomicLong FOUND = new AtomicLong();
+    private static final AtomicLong END_OF_LIST = new AtomicLong();
+    private static final AtomicLong SCROLLS = new AtomicLong();
+    private static final AtomicLong FOUND_SCROLLS = new AtomicLong();
+    private static final AtomicLong FOUND_NANOS = new AtomicLong();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ScrollEngine() {}
+
+    /**
+     * Returns the window size of the session, read once per session.
+     *
+     * @param driver the AppiumDriver
+     * @return the window size
+     */
+    public static Dimension getWindowSize(AppiumDriver driver) {
+        Session session = getSession(driver);
+        if (session.windowSize == null) {
+            session.windowSize = driver.manage().window().getSize();
+            LoggerManager.debug("Window size of session {}: {}", session.sessionId, session.windowSize);
+        }
+        return session.windowSize;
+    }
+
+    /**
+     * Returns the region scrolls are performed in, derived from the window size.
+     *
+     * @param driver the AppiumDriver
+     * @return the scroll region
+     */
+    public static Rectangle getScrollRegion(AppiumDriver driver) {
+        Dimension window = getWindowSize(driver);
+        return new Rectangle((int) (window.getWidth() * REGION_LEFT), (int) (window.getHeight() * REGION_TOP),
+                (int) (window.getHeight() * REGION_HEIGHT), (int) (window.getWidth() * REGION_WIDTH));
+    }
+
+    /**
+     * Returns the gesture that scrolls the screen: scrollGesture on Android, a coordinate drag on iOS.
+     *
+     * @param driver the AppiumDriver
+     * @return the mobile gesture command
+     */
+    public static String getScrollGesture(AppiumDriver driver) {
+        return driver instanceof AndroidDriver ? "mobile: scrollGesture" : "mobile: dragFromToForDuration";
+    }
+
+    /**
+     * Returns the parameters of a scroll within the scroll region, built once per session, direction and step.
+     *
+     * @param driver    the AppiumDriver
+     * @param direction "up" or "down"
+     * @param percent   the step as a fraction of the region height, rounded to tenths
+     * @return the gesture parameters
+     */
+    public static Map<String, Object> getScrollParams(AppiumDriver driver, String direction, double percent) {
+        long tenths = Math.max(1, Math.min(10, Math.round(percent * 10)));
+        String key = direction.toLowerCase() + tenths;
+        Session session = getSession(driver);
+        Map<String, Object> params = session.params.get(key);
+        if (params == null) {
+            params = buildScrollParams(driver, getScrollRegion(driver), direction.toLowerCase(), tenths / 10.0);
+            session.params.put(key, params);
+        }
+        return params;
+    }
+
+    /**
+     * Scrolls until the first element matching the locator is fully inside the window. Each check is a single
+     * findElements round trip without implicit wait.
+     *
+     * @param driver     the AppiumDriver
+     * @param gestures   the gestures to scroll with
+     * @param locator    the locator of the target
+     * @param direction  "up" or "down"
+     * @param maxScrolls the maximum number of scrolls
+     * @return the target, or null if it was not found before the end of the list or maxScrolls
+     */
+    public static WebElement scrollUntilVisible(AppiumDriver driver, MobileGestures gestures, By locator,
+                                                String direction, int maxScrolls) {
+        long start = System.nanoTime();
+        SEARCHES.incrementAndGet();
+        boolean down = !direction.equalsIgnoreCase("up");
+        Dimension window = getWindowSize(driver);
+        Rectangle region = getScrollRegion(driver);
+        Integer pageSourceHash = null;
+        boolean endOfList = false;
+        int scrolls = 0;
+        while (true) {
+            double step = Constants.SCROLL_STEP_FAR;
+            List<WebElement> elements = WaitStrategy.findElementsNow(driver, locator);
+            // On iOS the page source is the end-of-list signal; it is only worth its cost while the target is missing.
+            if (elements.isEmpty() && scrolls > 0 && !(driver instanceof AndroidDriver)) {
+                int hash = driver.getPageSource().hashCode();
+                endOfList = Integer.valueOf(hash).equals(pageSourceHash);
+                pageSourceHash = hash;
+            }
+            if (!elements.isEmpty()) {
+                Rectangle rect = elements.get(0).getRect();
+                int outside = down ? rect.getY() + rect.getHeight() - window.getHeight() : -rect.getY();
+                if (outside <= 0) {
+                    FOUND.incrementAndGet();
+                    FOUND_SCROLLS.addAndGet(scrolls);
+                    FOUND_NANOS.addAndGet(System.nanoTime() - start);
+                    LoggerManager.debug("Scrolled {} times to {}", scrolls, locator);
+                    return elements.get(0);
+                }
+                step = Math.max(Constants.SCROLL_STEP_MIN,
+                        Math.min(Constants.SCROLL_STEP_FAR, (double) outside / region.getHeight() + Constants.SCROLL_STEP_MIN));
+            }
+            if (endOfList || scrolls >= maxScrolls) {
+                if (endOfList) {
+                    END_OF_LIST.incrementAndGet();
+                }
+                LoggerManager.debug("{} not found after {} scrolls{}", locator, scrolls, endOfList ? ", end of list" : "");
+                return null;
+            }
+            Object canScrollMore;
+            try {
+                canScrollMore = gestures.scroll(driver, direction, step);
+            } finally {
+                ElementCache.invalidateAll();
+                ElementStateCache.clear();
+            }
+            scrolls++;
+            SCROLLS.incrementAndGet();
+            if (canScrollMore instanceof Boolean) {
+                endOfList = !((Boolean) canScrollMore);
+            }
+        }
+    }
+
+    /**
+     * Returns a one-line summary of the scroll metrics: searches, scrolls, and scrolls and time per found element.
+     *
+     * @return the metrics summary
+     */
+    public static String getMetricsSummary() {
+        long found = FOUND.get();
+        return String.format("Scrolls: searches=%d, found=%d, endOfList=%d, scrolls=%d, scrollsPerFound=%.1f, msPerFound=%.1f",
+                SEARCHES.get(), found, END_OF_LIST.get(), SCROLLS.get(),
+                found == 0 ? 0.0 : (double) FOUND_SCROLLS.get() / found,
+                found == 0 ? 0.0 : FOUND_NANOS.get() / 1_000_000.0 / found);
+    }
+
+    /**
+     * Builds the parameters of a scroll: a scrollGesture over the region on Android, a vertical drag through the
+     * middle of the region on iOS.
+     *
+     * @param driver    the AppiumDriver
+     * @param region    the scroll region
+     * @param direction "up" or "down"
+     * @param percent   the step as a fraction of the region height
+     * @return the gesture parameters
+     */
+    private static Map<String, Object> buildScrollParams(AppiumDriver driver, Rectangle region, String direction, double percent) {
+        if (driver instanceof AndroidDriver) {
+            return ImmutableMap.<String, Object>builder()
+                    .put("left", region.getX())
+                    .put("top", region.getY())
+                    .put("width", region.getWidth())
+                    .put("height", region.getHeight())
+                    .put("direction", direction)
+                    .put("percent", percent)
+                    .build();
+        }
+        int x = region.getX() + region.getWidth() / 2;
+        int middle = region.getY() + region.getHeight() / 2;
+        int distance = (int) (region.getHeight() * percent / 2);
+        int sign = direction.equals("up") ? -1 : 1;
+        return ImmutableMap.<String, Object>builder()
+                .put("fromX", x)
+                .put("fromY", middle + sign * distance)
+                .put("toX", x)
+                .put("toY", middle - sign * distance)
+                .put("duration", IOS_DRAG_SECONDS)
+                .build();
+    }
+
+    /**
+     * Returns the session state of the current thread, reset when the thread has moved on to another session.
+     *
+     * @param driver the AppiumDriver
+     * @return the session state
+     */
+    private static Session getSession(AppiumDriver driver) {
+        Session session = SESSION.get();
+        SessionId sessionId = driver.getSessionId();
+        if (sessionId == null || !sessionId.equals(session.sessionId)) {
+            session.sessionId = sessionId;
+            session.windowSize = null;
+            session.params.clear();
+        }
+        return session;
+    }
+
+    /**
+     * Window size and scroll parameters of one session.
+     */
+    private static final class Session {
+        private final Map<String, Map<String, Object>> params = new HashMap<>();
+        private SessionId sessionId;
+        private Dimension windowSize;
+    }
+}
@@ -0,0 +1,315 @@
+package com.saucedemo.app.controller;
+
+import com.saucedemo.app.utils.Constants;
+import io.appium.java_client.AppiumDriver;
+
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps AppiumDriver sessions alive across tests so that each test does not pay for session creation.
+ * Sessions are checked out per test, returned on teardown and retired once they are unhealthy,
+ * older than the configured maximum age or have been used the configured maximum number of times.
+ */
+public class SessionPool {
+    /**
+     * Idle sessions, grouped by the key they were created for (e.g. the device profile).
+     */
+    private static final Map<String, BlockingDeque<PooledSession>> IDLE_SESSIONS = new ConcurrentHashMap<>();
+
+    /**
+     * Sessions currently checked out by a test thread.
+     */
+    private static final Map<AppiumDriver, PooledSession> ACTIVE_SESSIONS = new ConcurrentHashMap<>();
+
+    /**
+     * Number of sessions alive in the pool, both idle and checked out.
+     */
+    private static final AtomicInteger LIVE_SESSIONS = new AtomicInteger();
+
+    private static final AtomicLong CHECKOUTS = new AtomicLong();
+    private static final AtomicLong CREATED_SESSIONS = new AtomicLong();
+    private static final AtomicLong REUSED_SESSIONS = new AtomicLong();
+    private static final AtomicLong RETIRED_SESSIONS = new AtomicLong();
+    private static final AtomicLong TOTAL_WAIT_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_WAIT_NANOS = new AtomicLong();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SessionPool() {}
+
+    /**
+     * Checks out a session for the given key. An idle healthy session is reused if available,
+     * otherwise a new session is created through the factory as long as the pool is below its maximum size.
+     * When the pool is full, the caller waits until a session is returned or the checkout timeout expires.
+     *
+     * @param key     the key identifying compatible sessions (e.g. the device profile)
+     * @param factory creates a new driver session when none can be reused
+     * @return the checked out AppiumDriver
+     */
+    public static AppiumDriver checkout(String key, Supplier<AppiumDriver> factory) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(Constants.SESSION_POOL_CHECKOUT_TIMEOUT_SECONDS);
+        BlockingDeque<PooledSession> idle = IDLE_SESSIONS.computeIfAbsent(key, k -> new LinkedBlockingDeque<>());
+        PooledSession session = null;
+        boolean created = false;
+        while (session == null) {
+            PooledSession candidate = idle.pollFirst();
+            if (candidate == null && reserveSession()) {
+                recordWait(start);
+                try {
+                    session = new PooledSession(key, factory.get());
+                } catch (RuntimeException e) {
+                    LIVE_SESSIONS.decrementAndGet();
+                    throw e;
+                }
+                created = true;
+                break;
+            } else if (candidate == null) {
+                if (retireIdleSessionFromOtherKey(key)) {
+                    continue;
+                }
+                candidate = waitForIdleSession(idle, deadline, key);
+            }
+            if (isReusable(candidate)) {
+                recordWait(start);
+                session = candidate;
+            }
+        }
+        session.uses++;
+        ACTIVE_SESSIONS.put(session.driver, session);
+        CHECKOUTS.incrementAndGet();
+        if (created) {
+            CREATED_SESSIONS.incrementAndGet();
+            LoggerManager.info("Created new pooled session for key: " + key);
+        } else {
+            REUSED_SESSIONS.incrementAndGet();
+            LoggerManager.info("Reusing pooled session for key: " + key + " (use " + session.uses + ")");
+        }
+        return session.driver;
+    }
+
+    /**
+     * Returns whether the given checked out driver was reused from an earlier test.
+     *
+     * @param driver the checked out AppiumDriver
+     * @return true if the session had already been used, false if it was newly created
+     */
+    public static boolean isReused(AppiumDriver driver) {
+        PooledSession session = ACTIVE_SESSIONS.get(driver);
+        return session != null && session.uses > 1;
+    }
+
+    /**
+     * Returns a checked out driver to the pool. The session is retired instead if it has reached
+     * its maximum age or number of uses, or if it fails the health check.
+     *
+     * @param driver the AppiumDriver to return
+     */
+    public static void release(AppiumDriver driver) {
+        PooledSession session = ACTIVE_SESSIONS.remove(driver);
+        if (session == null) {
+            LoggerManager.error("Driver was not checked out from the session pool. Quitting it.");
+            quitQuietly(driver);
+            return;
+        }
+        if (isReusable(session)) {
+            IDLE_SESSIONS.computeIfAbsent(session.key, k -> new LinkedBlockingDeque<>()).offerFirst(session);
+            LoggerManager.debug("Returned session to pool for key: {}", session.key);
+        }
+    }
+
+    /**
+     * Quits all idle sessions and logs the pool metrics. Checked out sessions are left untouched.
+     */
+    public static void shutdown() {
+        for (BlockingDeque<PooledSession> idle : IDLE_SESSIONS.values()) {
+            PooledSession session;
+            while ((session = idle.pollFirst()) != null) {
+                retire(session, "pool shutdown");
+            }
+        }
+        LoggerManager.info(getMetricsSummary());
+    }
+
+    /**
+     * Builds a summary of the pool metrics: checkouts, created and reused sessions,
+     * reuse ratio and checkout wait times.
+     *
+     * @return the metrics summary
+     */
+    public static String getMetricsSummary() {
+        long checkouts = CHECKOUTS.get();
+        double reuseRatio = checkouts == 0 ? 0.0 : (double) REUSED_SESSIONS.get() / checkouts;
+        double averageWaitMs = checkouts == 0 ? 0.0 : TOTAL_WAIT_NANOS.get() / 1_000_000.0 / checkouts;
+        return String.format("Session pool metrics: checkouts=%d, created=%d, reused=%d, retired=%d, "
+                        + "reuseRatio=%.2f, averageCheckoutWaitMs=%.1f, maxCheckoutWaitMs=%.1f",
+                checkouts, CREATED_SESSIONS.get(), REUSED_SESSIONS.get(), RETIRED_SESSIONS.get(),
+                reuseRatio, averageWaitMs, MAX_WAIT_NANOS.get() / 1_000_000.0);
+    }
+
+    /**
+     * Reserves room for a new session if the pool is below its maximum size. The size is checked and increased
+     * in one compare-and-set, so that concurrent checkouts neither exceed the maximum nor see a pool which is
+     * only full for the moment another checkout tried to reserve the last room.
+     *
+     * @return true if room for a new session was reserved
+     */
+    private static boolean reserveSession() {
+        int live;
+        do {
+            live = LIVE_SESSIONS.get();
+            if (live >= Constants.SESSION_POOL_MAX_SIZE) {
+                return false;
+            }
+        } while (!LIVE_SESSIONS.compareAndSet(live, live + 1));
+        return true;
+    }
+
+    /**
+     * Waits for a session of the given key to be returned to the pool.
+     *
+     * @param idle     the idle queue for the key
+     * @param deadline the System.nanoTime() deadline for the checkout
+     * @param key      the session key, used in error messages
+     * @return the returned session
+     */
+    private static PooledSession waitForIdleSession(BlockingDeque<PooledSession> idle, long deadline, String key) {
+        long remaining = deadline - System.nanoTime();
+        PooledSession candidate = null;
+        try {
+            if (remaining > 0) {
+                // Wake up periodically so that capacity freed by retired sessions is noticed.
+                candidate = idle.pollFirst(Math.min(remaining, TimeUnit.SECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a pooled session for key: " + key, e);
+        }
+        if (candidate == null && System.nanoTime() - deadline >= 0) {
+            throw new RuntimeException("Timed out waiting for a pooled session for key: " + key);
+        }
+        return candidate;
+    }
+
+    /**
+     * Retires the oldest idle session of a different key to make room for a new session.
+     *
+     * @param key the key that needs a session
+     * @return true if a session was retired
+     */
+    private static boolean retireIdleSessionFromOtherKey(String key) {
+        for (Map.Entry<String, BlockingDeque<PooledSession>> entry : IDLE_SESSIONS.entrySet()) {
+            if (entry.getKey().equals(key)) {
+                continue;
+            }
+            PooledSession session = entry.getValue().pollLast();
+            if (session != null) {
+                retire(session, "capacity needed for key " + key);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a session can be handed out again. Sessions which are too old, have been used
+     * too often or fail the health check are retired.
+     *
+     * @param session the session to check, may be null
+     * @return true if the session can be reused
+     */
+    private static boolean isReusable(PooledSession session) {
+        if (session == null) {
+            return false;
+        }
+        long ageMinutes = TimeUnit.NANOSECONDS.toMinutes(System.nanoTime() - session.createdAt);
+        if (ageMinutes >= Constants.SESSION_POOL_MAX_AGE_MINUTES) {
+            retire(session, "maximum age reached");
+            return false;
+        }
+        if (session.uses >= Constants.SESSION_POOL_MAX_USES) {
+            retire(session, "maximum uses reached");
+            return false;
+        }
+        if (!isHealthy(session.driver)) {
+            retire(session, "health check failed");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Performs a cheap round trip to the Appium server to verify that the session is still alive.
+     *
+     * @param driver the AppiumDriver to check
+     * @return true if the session responded
+     */
+    private static boolean isHealthy(AppiumDriver driver) {
+        try {
+            return driver.getSessionId() != null && driver.manage().window().getSize() != null;
+        } catch (RuntimeException e) {
+            LoggerManager.debug("Pooled session health check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Quits the session and removes it from the pool.
+     *
+     * @param session the session to retire
+     * @param reason  the reason for retiring, used for logging
+     */
+    private static void retire(PooledSession session, String reason) {
+        LoggerManager.info("Retiring pooled session for key: " + session.key + ". Reason: " + reason);
+        LIVE_SESSIONS.decrementAndGet();
+        RETIRED_SESSIONS.incrementAndGet();
+        quitQuietly(session.driver);
+    }
+
+    /**
+     * Quits the driver, logging instead of throwing if the session is already gone.
+     *
+     * @param driver the AppiumDriver to quit
+     */
+    private static void quitQuietly(AppiumDriver driver) {
+        try {
+            DriverManager.quitDriver(driver);
+        } catch (RuntimeException e) {
+            LoggerManager.error("Error while quitting pooled session: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records the time a thread spent waiting for a session.
+     *
+     * @param start the System.nanoTime() at which the checkout started
+     */
+    private static void recordWait(long start) {
+        long waited = System.nanoTime() - start;
+        TOTAL_WAIT_NANOS.addAndGet(waited);
+        MAX_WAIT_NANOS.accumulateAndGet(waited, Math::max);
+    }
+
+    /**
+     * A driver session held by the pool together with its bookkeeping.
+     */
+    private static final class PooledSession {
+        private final String key;
+        private final AppiumDriver driver;
+        private final long createdAt = System.nanoTime();
+        private int uses;
+
+        private PooledSession(String key, AppiumDriver driver) {
+            this.key = key;
+            this.driver = driver;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.saucedemo.app.controller;
+
+import com.saucedemo.app.objects.DeviceProfile;
+import com.saucedemo.app.utils.Constants;
+import com.saucedemo.app.utils.JsonUtils;
+import io.appium.java_client.AppiumDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipelines the driver lifecycle: while a test runs, the next session is prepared in the background
+ * and the previous session is quit off the critical path. Records how much setup time was hidden per test.
+ */
+public class SessionPrewarmer {
+    private static final String REPORT_PATH = System.getProperty("user.dir") + "/target/reports/session_prewarm.csv";
+
+    /**
+     * Prepares the next session while the current test is running.
+     */
+    private static final ExecutorService PREPARER = Executors.newSingleThreadExecutor(daemonThreadFactory("session-prewarmer"));
+
+    /**
+     * Quits finished sessions in the background.
+     */
+    private static final ExecutorService QUITTER = Executors.newCachedThreadPool(daemonThreadFactory("session-quitter"));
+
+    /**
+     * Sessions prepared in the background, keyed by device profile and platform.
+     */
+    private static final Map<String, Future<PreparedSession>> PREPARED_SESSIONS = new ConcurrentHashMap<>();
+
+    /**
+     * Sessions still being quit in the background, keyed by the session key of the device they ran on.
+     */
+    private static final Map<String, Queue<PendingQuit>> PENDING_QUITS = new ConcurrentHashMap<>();
+
+    /**
+     * Setup timing of the test running on the current thread.
+     */
+    private static final ThreadLocal<SetupTiming> CURRENT_TIMING = new ThreadLocal<>();
+
+    /**
+     * Setup timings of all tests, in the order they started.
+     */
+    private static final Queue<SetupTiming> TIMINGS = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SessionPrewarmer() {}
+
+    /**
+     * Starts recording setup timings for the test about to run on the current thread.
+     * Does nothing when pre-warming is disabled.
+     *
+     * @param testName the name of the test
+     */
+    public static void beginTest(String testName) {
+        if (!Constants.ENABLE_SESSION_PREWARM) {
+            return;
+        }
+        SetupTiming timing = new SetupTiming(testName);
+        CURRENT_TIMING.set(timing);
+        TIMINGS.add(timing);
+    }
+
+    /**
+     * Returns the session prepared in the background for the given platform, preparing it synchronously
+     * if none is available. Preparation of the session for the following test is started right away.
+     *
+     * @param platformType the platform type ("android" or "ios")
+     * @return the prepared session
+     */
+    static PreparedSession takePreparedSession(String platformType) {
+        DeviceProfile profile = JsonUtils.getDeviceProfile();
+        String key = profile.getName() + ":" + platformType.toLowerCase();
+        SetupTiming timing = getTiming();
+        long start = System.nanoTime();
+        PreparedSession session = null;
+        Future<PreparedSession> future = PREPARED_SESSIONS.remove(key);
+        if (future != null) {
+            try {
+                session = future.get();
+                long blocked = System.nanoTime() - start;
+                timing.prepareBlockedNanos += blocked;
+                timing.prepareHiddenNanos += Math.max(0L, session.getPreparationNanos() - blocked);
+            } catch (ExecutionException e) {
+                LoggerManager.error("Background session preparation failed, preparing synchronously: " + e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for prepared session.", e);
+            }
+        }
+        if (session == null) {
+            session = DriverManager.prepareSession(platformType);
+            timing.prepareBlockedNanos += session.getPreparationNanos();
+        }
+        PREPARED_SESSIONS.put(key, PREPARER.submit(() -> {
+            // The preparer thread has no profile of its own; use the snapshot of the worker it prepares for.
+            JsonUtils.useDeviceProfile(profile);
+            return DriverManager.prepareSession(platformType);
+        }));
+        return session;
+    }
+
+    /**
+     * Quits the driver in the background so that teardown does not wait for the session to be deleted.
+     * Must be called before the device of the session is released.
+     *
+     * @param driver the AppiumDriver to quit
+     */
+    static void quitAsync(AppiumDriver driver) {
+        SetupTiming timing = getTiming();
+        String key = DriverManager.getSessionKey();
+        Future<?> future = QUITTER.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                DriverManager.quitDriver(driver);
+            } catch (RuntimeException e) {
+                LoggerManager.error("Error while quitting driver in background: " + e.getMessage());
+            } finally {
+                timing.quitNanos = System.nanoTime() - start;
+            }
+        });
+        PENDING_QUITS.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).add(new PendingQuit(future, timing));
+    }
+
+    /**
+     * Waits for the sessions being quit in the background on the device of the current thread, so that a new
+     * session is not requested while the previous one still holds the device. Quits on other devices are not
+     * waited for. The time spent waiting is not counted as hidden.
+     */
+    static void awaitPendingQuits() {
+        Queue<PendingQuit> quits = PENDING_QUITS.get(DriverManager.getSessionKey());
+        if (quits != null) {
+            awaitPendingQuits(quits);
+        }
+    }
+
+    /**
+     * Waits for the given sessions being quit in the background.
+     *
+     * @param quits the pending quits, emptied while waiting
+     */
+    private static void awaitPendingQuits(Queue<PendingQuit> quits) {
+        PendingQuit pending;
+        while ((pending = quits.poll()) != null) {
+            long start = System.nanoTime();
+            try {
+                pending.future.get();
+            } catch (ExecutionException e) {
+                LoggerManager.error("Background driver quit failed: " + e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for driver quit.", e);
+            }
+            pending.timing.quitBlockedNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Waits for the pending quits of all devices, closes the HTTP clients of sessions prepared but not used,
+     * stops the background workers and writes the hidden setup time report.
+     */
+    public static void shutdown() {
+        PENDING_QUITS.values().forEach(SessionPrewarmer::awaitPendingQuits);
+        PREPARER.shutdownNow();
+        for (Future<PreparedSession> future : PREPARED_SESSIONS.values()) {
+            if (future.isDone() && !future.isCancelled()) {
+                try {
+                    future.get().close();
+                } catch (ExecutionException e) {
+                    LoggerManager.debug("Unused session preparation had failed: {}", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        QUITTER.shutdown();
+        try {
+            QUITTER.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PREPARED_SESSIONS.clear();
+        writeReport();
+    }
+
+    /**
+     * Writes the per-test hidden setup time to a CSV file in the reports folder and logs the totals.
+     */
+    private static void writeReport() {
+        long totalHidden = 0L;
+        long totalBlocked = 0L;
+        File reportFile = new File(REPORT_PATH);
+        reportFile.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(reportFile, StandardCharsets.UTF_8.name())) {
+            writer.println("test,prepareHiddenMs,prepareBlockedMs,quitHiddenMs,quitBlockedMs,totalHiddenMs");
+            for (SetupTiming timing : TIMINGS) {
+                long quitHidden = Math.max(0L, timing.quitNanos - timing.quitBlockedNanos);
+                long hidden = timing.prepareHiddenNanos + quitHidden;
+                totalHidden += hidden;
+                totalBlocked += timing.prepareBlockedNanos + timing.quitBlockedNanos;
+                writer.printf("%s,%d,%d,%d,%d,%d%n", timing.testName,
+                        toMillis(timing.prepareHiddenNanos), toMillis(timing.prepareBlockedNanos),
+                        toMillis(quitHidden), toMillis(timing.quitBlockedNanos), toMillis(hidden));
+            }
+        } catch (IOException e) {
+            LoggerManager.error("Error while writing session pre-warm report: " + e.getMessage());
+        }
+        LoggerManager.info(String.format("Session pre-warm: tests=%d, hiddenSetupMs=%d, blockedSetupMs=%d. Report: %s",
+                TIMINGS.size(), toMillis(totalHidden), toMillis(totalBlocked), REPORT_PATH));
+    }
+
+    /**
+     * Returns the timing of the current test, creating one if the test was not registered through beginTest.
+     *
+     * @return the SetupTiming for the current thread
+     */
+    private static SetupTiming getTiming() {
+        SetupTiming timing = CURRENT_TIMING.get();
+        if (timing == null) {
+            timing = new SetupTiming(Thread.currentThread().getName());
+            CURRENT_TIMING.set(timing);
+            TIMINGS.add(timing);
+        }
+        return timing;
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Creates a thread factory producing named daemon threads, so that background work never blocks JVM exit.
+     *
+     * @param name the thread name prefix
+     * @return the ThreadFactory
+     */
+    private static ThreadFactory daemonThreadFactory(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Setup time measurements of a single test.
+     */
+    private static final class SetupTiming {
+        private final String testName;
+        private long prepareHiddenNanos;
+        private long prepareBlockedNanos;
+        private volatile long quitNanos;
+        private volatile long quitBlockedNanos;
+
+        private SetupTiming(String testName) {
+            this.testName = testName;
+        }
+    }
+
+    /**
+     * A driver quit running in the background together with the test whose teardown started it.
+     */
+    private static final class PendingQuit {
+        private final Future<?> future;
+        private final SetupTiming timing;
+
+        private PendingQuit(Future<?> future, SetupTiming timing) {
+            this.future = future;
+            this.timing = timing;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.saucedemo.app.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.saucedemo.app.utils.Constants;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timeouts learned from how long waits actually took. The durations of the last timeout.budget.history waits
+ * are kept per key (page and locator) and persisted in timeout.budget.file across runs. A key with at least
+ * timeout.budget.min.samples durations gets a timeout of the timeout.budget.percentile duration times
+ * timeout.budget.margin, kept within timeout.budget.min.seconds and timeout.budget.max.seconds.
+ * Keys without enough history fall back to the default timeout of the caller.
+ */
+public class TimeoutBudget {
+    private static final File HISTORY_FILE = new File(System.getProperty("user.dir"), Constants.TIMEOUT_BUDGET_FILE);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader READER = MAPPER.readerFor(new TypeReference<Map<String, List<Long>>>() {});
+
+    private static final Map<String, History> HISTORY = new ConcurrentHashMap<>();
+    private static final AtomicLong LEARNED = new AtomicLong();
+    private static final AtomicLong DEFAULTED = new AtomicLong();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TimeoutBudget() {}
+
+    /**
+     * Loads the wait history of previous runs. A missing or unreadable file starts an empty history.
+     */
+    public static synchronized void load() {
+        if (!Constants.ENABLE_TIMEOUT_BUDGET || !HISTORY_FILE.isFile()) {
+            return;
+        }
+        try {
+            Map<String, List<Long>> history = READER.readValue(HISTORY_FILE);
+            history.forEach((key, millis) -> {
+                History samples = HISTORY.computeIfAbsent(key, k -> new History());
+                millis.forEach(samples::add);
+            });
+            LoggerManager.info("Loaded wait history of {} keys from {}", history.size(), HISTORY_FILE.getPath());
+        } catch (IOException e) {
+            LoggerManager.error("Could not read wait history {}: {}", HISTORY_FILE.getPath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the wait history, including the waits of this run, for the next runs.
+     */
+    public static synchronized void save() {
+        if (!Constants.ENABLE_TIMEOUT_BUDGET || HISTORY.isEmpty()) {
+            return;
+        }
+        Map<String, long[]> history = new TreeMap<>();
+        HISTORY.forEach((key, samples) -> history.put(key, samples.toArray()));
+        try {
+            HISTORY_FILE.getParentFile().mkdirs();
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(HISTORY_FILE, history);
+            LoggerManager.info("Saved wait history of {} keys to {}", history.size(), HISTORY_FILE.getPath());
+        } catch (IOException e) {
+            LoggerManager.error("Could not write wait history {}: {}", HISTORY_FILE.getPath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Records the duration of a finished wait.
+     *
+     * @param key   the wait key, e.g. page and locator
+     * @param nanos the duration in nanoseconds
+     */
+    public static void record(String key, long nanos) {
+        if (Constants.ENABLE_TIMEOUT_BUDGET) {
+            HISTORY.computeIfAbsent(key, k -> new History()).add(TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    /**
+     * Returns the timeout for a wait, learned from its history or else the default.
+     *
+     * @param key            the wait key, e.g. page and locator
+     * @param defaultSeconds the timeout to use without enough history
+     * @return the timeout
+     */
+    public static Duration get(String key, int defaultSeconds) {
+        History samples = Constants.ENABLE_TIMEOUT_BUDGET ? HISTORY.get(key) : null;
+        long percentile = samples == null ? -1L : samples.percentile(Constants.TIMEOUT_BUDGET_PERCENTILE);
+        if (percentile < 0) {
+            DEFAULTED.incrementAndGet();
+            return Duration.ofSeconds(defaultSeconds);
+        }
+        LEARNED.incrementAndGet();
+        long millis = Math.round(percentile * Constants.TIMEOUT_BUDGET_MARGIN);
+        return Duration.ofMillis(Math.min(TimeUnit.SECONDS.toMillis(Constants.TIMEOUT_BUDGET_MAX_SECONDS),
+                Math.max(TimeUnit.SECONDS.toMillis(Constants.TIMEOUT_BUDGET_MIN_SECONDS), millis)));
+    }
+
+    /**
+     * Returns a one-line summary of how many timeouts were learned and how many fell back to the defaults.
+     *
+     * @return the metrics summary
+     */
+    public static String getMetricsSummary() {
+        return String.format("Timeout budgets: keys=%d, learned=%d, defaulted=%d",
+                HISTORY.size(), LEARNED.get(), DEFAULTED.get());
+    }
+
+    /**
+     * The last wait durations of one key, in milliseconds, oldest overwritten first.
+     */
+    private static final class History {
+        private final long[] millis = new long[Math.max(1, Constants.TIMEOUT_BUDGET_HISTORY)];
+        private int size;
+        private int next;
+
+        private synchronized void add(long duration) {
+            millis[next] = duration;
+            next = (next + 1) % millis.length;
+            size = Math.min(size + 1, millis.length);
+        }
+
+        /**
+         * @return the durations, oldest first
+         */
+        private synchronized long[] toArray() {
+            long[] samples = new long[size];
+            for (int i = 0; i < size; i++) {
+                samples[i] = millis[(next - size + i + millis.length) % millis.length];
+            }
+            return samples;
+        }
+
+        /**
+         * Returns the nearest-rank percentile of the durations.
+         *
+         * @param percentile the percentile, 1 to 100
+         * @return the duration in milliseconds, or -1 with fewer than timeout.budget.min.samples durations
+         */
+        private long percentile(int percentile) {
+            long[] samples = toArray();
+            if (samples.length == 0 || samples.length < Constants.TIMEOUT_BUDGET_MIN_SAMPLES) {
+                return -1L;
+            }
+            Arrays.sort(samples);
+            int rank = (int) Math.ceil(percentile / 100.0 * samples.length);
+            return samples[Math.min(samples.length, Math.max(1, rank)) - 1];
+        }
+    }
+}
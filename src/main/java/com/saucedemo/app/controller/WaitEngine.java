@@ -0,0 +1,195 @@
+package com.saucedemo.app.controller;
+
+import com.saucedemo.app.utils.Constants;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Polls conditions on an adaptive schedule: the first poll is immediate, then the interval starts at
+ * wait.poll.initial.ms and grows by wait.poll.backoff up to wait.poll.max.ms, with +/- wait.poll.jitter
+ * randomisation so parallel tests do not poll in lockstep. The timeout is a hard budget: the last sleep is
+ * shortened so that the wait never overruns it. NotFoundException and StaleElementReferenceException count
+ * as "not yet". Every wait records its duration, poll count and outcome per key.
+ * Setting wait.poll.initial.ms=2000 and wait.poll.backoff=1 reproduces the previous fixed 2 s FluentWait.
+ */
+public class WaitEngine {
+    private static final Map<String, WaitStats> STATS = new ConcurrentHashMap<>();
+    private static final AtomicLong WAITS = new AtomicLong();
+    private static final AtomicLong TIMEOUTS = new AtomicLong();
+    private static final AtomicLong POLLS = new AtomicLong();
+    private static final AtomicLong WAIT_NANOS = new AtomicLong();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private WaitEngine() {}
+
+    /**
+     * Waits until the condition is true.
+     *
+     * @param key       the key the wait is recorded under, e.g. page, action and locator
+     * @param condition the condition to poll
+     * @param timeout   the budget for the whole wait
+     * @param message   the message of the TimeoutException, may be null
+     * @throws TimeoutException if the condition is not true within the timeout
+     */
+    public static void until(String key, BooleanSupplier condition, Duration timeout, String message) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        double interval = Math.max(1, Constants.WAIT_POLL_INITIAL_MS);
+        int polls = 0;
+        RuntimeException lastException = null;
+        while (true) {
+            polls++;
+            try {
+                if (condition.getAsBoolean()) {
+                    record(key, start, polls, true);
+                    return;
+                }
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastException = e;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                record(key, start, polls, false);
+                throw new TimeoutException(String.format("%sCondition not met after %d ms and %d polls: %s",
+                        message == null ? "" : message + " ", timeout.toMillis(), polls, key), lastException);
+            }
+            long sleepNanos = Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(jitter(interval)));
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                record(key, start, polls, false);
+                throw new RuntimeException("Interrupted while waiting for: " + key, e);
+            }
+            interval = Math.min(Constants.WAIT_POLL_MAX_MS, interval * Constants.WAIT_POLL_BACKOFF);
+        }
+    }
+
+    /**
+     * Waits until the condition is true, without throwing on timeout.
+     *
+     * @param key       the key the wait is recorded under
+     * @param condition the condition to poll
+     * @param timeout   the budget for the whole wait
+     * @return true if the condition became true, false on timeout
+     */
+    public static boolean poll(String key, BooleanSupplier condition, Duration timeout) {
+        try {
+            until(key, condition, timeout, null);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the recorded statistics of a key.
+     *
+     * @param key the wait key
+     * @return the statistics, or null if no wait was recorded under the key
+     */
+    public static WaitStats getStats(String key) {
+        return STATS.get(key);
+    }
+
+    /**
+     * Returns a one-line summary of all waits, followed by the five keys with the most total wait time.
+     *
+     * @return the metrics summary
+     */
+    public static String getMetricsSummary() {
+        long waits = WAITS.get();
+        StringBuilder summary = new StringBuilder(String.format("Waits: count=%d, timeouts=%d, polls=%d, totalMs=%d, avgMs=%.1f",
+                waits, TIMEOUTS.get(), POLLS.get(), TimeUnit.NANOSECONDS.toMillis(WAIT_NANOS.get()),
+                waits == 0 ? 0.0 : WAIT_NANOS.get() / 1_000_000.0 / waits));
+        STATS.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().totalNanos.get(), a.getValue().totalNanos.get()))
+                .limit(5)
+                .forEach(entry -> summary.append(System.lineSeparator()).append("  ").append(entry.getKey())
+                        .append(": ").append(entry.getValue()));
+        return summary.toString();
+    }
+
+    /**
+     * Randomises a poll interval by +/- wait.poll.jitter.
+     *
+     * @param interval the interval in milliseconds
+     * @return the randomised interval in milliseconds, at least 1
+     */
+    private static long jitter(double interval) {
+        double jitter = Constants.WAIT_POLL_JITTER;
+        double factor = jitter <= 0 ? 1.0 : 1.0 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return Math.max(1L, Math.round(interval * factor));
+    }
+
+    /**
+     * Records a finished wait.
+     *
+     * @param key     the wait key
+     * @param start   the System.nanoTime() at which the wait started
+     * @param polls   the number of polls
+     * @param success whether the condition was met
+     */
+    private static void record(String key, long start, int polls, boolean success) {
+        long nanos = System.nanoTime() - start;
+        WAITS.incrementAndGet();
+        POLLS.addAndGet(polls);
+        WAIT_NANOS.addAndGet(nanos);
+        if (!success) {
+            TIMEOUTS.incrementAndGet();
+        }
+        STATS.computeIfAbsent(key, k -> new WaitStats()).add(nanos, polls, success);
+    }
+
+    /**
+     * Aggregated statistics of the waits recorded under one key.
+     */
+    public static final class WaitStats {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong polls = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void add(long nanos, int polls, boolean success) {
+            count.incrementAndGet();
+            this.polls.addAndGet(polls);
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (!success) {
+                timeouts.incrementAndGet();
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTimeouts() {
+            return timeouts.get();
+        }
+
+        public long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        @Override
+        public String toString() {
+            long waits = count.get();
+            return String.format("count=%d, timeouts=%d, avgMs=%.1f, maxMs=%d, avgPolls=%.1f", waits, timeouts.get(),
+                    waits == 0 ? 0.0 : totalNanos.get() / 1_000_000.0 / waits, getMaxMillis(),
+                    waits == 0 ? 0.0 : (double) polls.get() / waits);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.saucedemo.app.controller;
+
+import com.saucedemo.app.utils.Constants;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.SessionId;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps implicit and explicit waits from stacking. While an explicit wait runs, the implicit wait is 0, so every poll
+ * returns immediately and the explicit timeout is the only bound. The session stays at 0 after the wait; the implicit
+ * wait of implicit.wait.seconds is set again lazily, by implicitly(), before the next lookup that relies on it
+ * (ElementCache lookups, UiScrollable lookups, command batches and the PageFactory proxies BasePage acts on). Back to
+ * back explicit waits, absence checks and snapshots therefore send no timeouts command at all, and an explicit wait
+ * followed by a lookup sends two. The current value is tracked per thread and session.
+ */
+public class WaitStrategy {
+    /**
+     * Implicit wait state of the session used by the current thread.
+     */
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private WaitStrategy() {}
+
+    /**
+     * Sets the configured implicit wait on a new or reused session.
+     *
+     * @param driver the AppiumDriver
+     */
+    public static void init(AppiumDriver driver) {
+        State state = getState(driver);
+        state.implicitMillis = -1L;
+        apply(driver, state, TimeUnit.SECONDS.toMillis(Constants.IMPLICIT_WAIT_SECONDS));
+    }
+
+    /**
+     * Runs an explicit wait with the implicit wait set to 0. The implicit wait is left at 0 when the wait ends, until
+     * the next lookup that calls implicitly(). Nested explicit waits share the setting.
+     *
+     * @param driver the AppiumDriver
+     * @param wait   the explicit wait
+     */
+    public static void explicitly(AppiumDriver driver, Runnable wait) {
+        State state = getState(driver);
+        if (state.depth++ == 0) {
+            apply(driver, state, 0L);
+        }
+        try {
+            wait.run();
+        } finally {
+            state.depth--;
+        }
+    }
+
+    /**
+     * Makes sure the configured implicit wait is set before a lookup that relies on it, e.g. after an explicit wait
+     * or when a new session was not initialised. Sends nothing if it is already set; inside an explicit wait this is
+     * a no-op.
+     *
+     * @param driver the AppiumDriver
+     */
+    public static void implicitly(AppiumDriver driver) {
+        State state = getState(driver);
+        if (state.depth == 0) {
+            apply(driver, state, TimeUnit.SECONDS.toMillis(Constants.IMPLICIT_WAIT_SECONDS));
+        }
+    }
+
+    /**
+     * Finds all elements matching a locator without waiting: a single findElements round trip with implicit wait 0.
+     *
+     * @param driver  the AppiumDriver
+     * @param locator the By locator
+     * @return the matching elements, empty if there are none
+     */
+    @SuppressWarnings("unchecked")
+    public static List<WebElement> findElementsNow(AppiumDriver driver, By locator) {
+        Object[] elements = new Object[1];
+        explicitly(driver, () -> elements[0] = driver.findElements(locator));
+        return (List<WebElement>) elements[0];
+    }
+
+    /**
+     * Sends the implicit wait to the session if it differs from the current one.
+     *
+     * @param driver the AppiumDriver
+     * @param state  the state of the session
+     * @param millis the implicit wait in milliseconds
+     */
+    private static void apply(AppiumDriver driver, State state, long millis) {
+        if (state.implicitMillis != millis) {
+            driver.manage().timeouts().implicitlyWait(Duration.ofMillis(millis));
+            state.implicitMillis = millis;
+            LoggerManager.debug("Implicit wait set to {} ms", millis);
+        }
+    }
+
+    /**
+     * Returns the state of the current thread, reset when the thread has moved on to another session.
+     *
+     * @param driver the AppiumDriver
+     * @return the state
+     */
+    private static State getState(AppiumDriver driver) {
+        State state = STATE.get();
+        SessionId sessionId = driver.getSessionId();
+        if (sessionId == null || !sessionId.equals(state.sessionId)) {
+            state.sessionId = sessionId;
+            state.implicitMillis = -1L;
+            state.depth = 0;
+        }
+        return state;
+    }
+
+    /**
+     * Implicit wait last sent to a session and the nesting depth of explicit waits.
+     */
+    private static final class State {
+        private SessionId sessionId;
+        private long implicitMillis = -1L;
+        private int depth;
+    }
+}
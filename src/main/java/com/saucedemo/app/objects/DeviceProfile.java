@@ -0,0 +1,130 @@
+package com.saucedemo.app.objects;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable device profile parsed from a JSON file under device-profiles/.
+ * Well-known keys are exposed as typed fields, all other keys stay available through {@link #get(String)}.
+ */
+public final class DeviceProfile {
+    private final String name;
+    private final String platformName;
+    private final String platformVersion;
+    private final String deviceName;
+    private final String automationName;
+    private final String udid;
+    private final String language;
+    private final String locale;
+    private final String platformBuild;
+    private final String manufacturer;
+    private final String resolution;
+    private final boolean autoLaunch;
+    private final boolean enableAppiumBehavior;
+    private final Map<String, Object> values;
+
+    public DeviceProfile(String name, Map<String, Object> values) {
+        this.name = name;
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+        this.platformName = getString("platform_name");
+        this.platformVersion = getString("platform_version");
+        this.deviceName = getString("device_name");
+        this.automationName = getString("automation_name");
+        this.udid = getString("udid");
+        this.language = getString("language");
+        this.locale = getString("locale");
+        this.platformBuild = getString("platform_build");
+        this.manufacturer = getString("manufacturer");
+        this.resolution = getString("resolution");
+        this.autoLaunch = Boolean.parseBoolean(getString("auto_launch"));
+        this.enableAppiumBehavior = Boolean.parseBoolean(getString("enable_appium_behavior"));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPlatformName() {
+        return platformName;
+    }
+
+    public String getPlatformVersion() {
+        return platformVersion;
+    }
+
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    public String getAutomationName() {
+        return automationName;
+    }
+
+    public String getUdid() {
+        return udid;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public String getLocale() {
+        return locale;
+    }
+
+    public String getPlatformBuild() {
+        return platformBuild;
+    }
+
+    public String getManufacturer() {
+        return manufacturer;
+    }
+
+    public String getResolution() {
+        return resolution;
+    }
+
+    public boolean isAutoLaunch() {
+        return autoLaunch;
+    }
+
+    public boolean isEnableAppiumBehavior() {
+        return enableAppiumBehavior;
+    }
+
+    /**
+     * Returns the raw value for the given key.
+     *
+     * @param key the JSON key
+     * @return the value, or null if not present
+     */
+    public Object get(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Returns the raw value for the given key as a String.
+     *
+     * @param key the JSON key
+     * @return the value as String, or null if not present
+     */
+    public String getString(String key) {
+        Object value = values.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Returns all values of the profile.
+     *
+     * @return an unmodifiable view of the profile values
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -10,6 +10,8 @@ import io.appium.java_client.pagefactory.iOSXCUITFindBy;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.PageFactory;
 
+import java.util.Arrays;
+
 public class CheckoutInfoPage extends BasePage {
     @AndroidFindBy(uiAutomator = "new UiSelector().text(\"CHECKOUT: INFORMATION\")")
     @iOSXCUITFindBy(iOSNsPredicate = "label == 'CHECKOUT: INFORMATION' AND type == 'XCUIElementTypeOther'")
@@ -50,11 +52,8 @@ public class CheckoutInfoPage extends BasePage {
     public void enterCustomerDetails(User userDetails) {
         try {
             verifyElementDisplayed(firstNameTextField, "First Name field not displayed.");
-            enterText(firstNameTextField, userDetails.getFirstName());
-            verifyElementDisplayed(lastNameTextField, "Last Name field not displayed.");
-            enterText(lastNameTextField, userDetails.getLastName());
-            verifyElementDisplayed(zipcodeTextField, "Zip Code Name field not displayed.");
-            enterText(zipcodeTextField, userDetails.getZipCode());
+            fillFields("Customer details", Arrays.asList(firstNameTextField, lastNameTextField, zipcodeTextField),
+                    Arrays.asList(userDetails.getFirstName(), userDetails.getLastName(), userDetails.getZipCode()));
             ReportsManager.passStep("Customer details entered successfully: " + userDetails);
         } catch (RuntimeException e) {
             ReportsManager.failStep("Failed to enter customer details. Reason: " + e.getMessage());
@@ -1,8 +1,10 @@
 package com.saucedemo.app.pages;
 
 import com.saucedemo.app.base.BasePage;
+import com.saucedemo.app.base.PageSnapshot;
 import com.saucedemo.app.controller.ReportsManager;
 import com.saucedemo.app.objects.Product;
+import com.saucedemo.app.utils.Constants;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
@@ -23,17 +25,21 @@ public class CheckoutOverviewPage extends BasePage {
     @iOSXCUITFindBy(accessibility = "test-FINISH")
     private WebElement finishButton;
 
-    @AndroidFindBy(uiAutomator = "new UiSelector().textStartsWith(\"Item total:\")")
+    @AndroidFindBy(uiAutomator = ANDROID_ITEM_TOTAL)
+    @iOSXCUITFindBy(iOSNsPredicate = IOS_ITEM_TOTAL)
     private WebElement itemTotal;
 
-    private String androidProductNameScrollable = "new UiScrollable(new UiSelector()).scrollIntoView(text(\"%s\"))";
-    private String androidProductName = "new UiSelector().text(\"%s\")";
-    private String iosProductName = "label == '%s' AND type == 'XCUIElementTypeStaticText'";
+    private static final String ANDROID_PRODUCT_NAME_SCROLLABLE = "new UiScrollable(new UiSelector()).scrollIntoView(text(\"%s\"))";
+    private static final String ANDROID_PRODUCT_NAME = "new UiSelector().text(\"%s\")";
+    private static final String IOS_PRODUCT_NAME = "label == '%s' AND type == 'XCUIElementTypeStaticText'";
 
-    private String androidProductPrice = "//android.widget.TextView[@text='%s']//parent::android.view.ViewGroup//following-sibling::android.view.ViewGroup[@content-desc='test-Price']/android.widget.TextView";
-    private String iosProductPrice = "//XCUIElementTypeStaticText[@name='%s']//parent::XCUIElementTypeOther//following-sibling::XCUIElementTypeOther[@name='test-Price']/XCUIElementTypeStaticText";
+    private static final String ANDROID_PRODUCT_PRICE = "//android.widget.TextView[@text='%s']//parent::android.view.ViewGroup//following-sibling::android.view.ViewGroup[@content-desc='test-Price']/android.widget.TextView";
+    private static final String IOS_PRODUCT_PRICE = "//XCUIElementTypeStaticText[@name='%s']//parent::XCUIElementTypeOther//following-sibling::XCUIElementTypeOther[@name='test-Price']/XCUIElementTypeStaticText";
 
-    private String androidFinishButtonScrollable = "new UiScrollable(new UiSelector()).scrollIntoView(description(\"test-FINISH\"))";
+    private static final String ANDROID_ITEM_TOTAL = "new UiSelector().textStartsWith(\"Item total:\")";
+    private static final String IOS_ITEM_TOTAL = "label BEGINSWITH 'Item total:' AND type == 'XCUIElementTypeStaticText'";
+
+    private static final String ANDROID_FINISH_BUTTON_SCROLLABLE = "new UiScrollable(new UiSelector()).scrollIntoView(description(\"test-FINISH\"))";
 
     public CheckoutOverviewPage(AppiumDriver driver) {
         super(driver);
@@ -52,18 +58,51 @@ public class CheckoutOverviewPage extends BasePage {
     }
 
     public void validateProductDetails(Product... products) {
+        PageSnapshot snapshot = Constants.ENABLE_PAGE_SNAPSHOT ? takeSnapshot() : null;
         for (Product product : products) {
-            validateProductName(product);
-            validateProductPrice(product);
+            if (snapshot == null || !validateProductDetails(snapshot, product)) {
+                validateProductName(product);
+                validateProductPrice(product);
+            }
+        }
+    }
+
+    /**
+     * Validates the name and price of a product on a page snapshot, without further device round trips.
+     *
+     * @param snapshot the page snapshot
+     * @param product  the product to validate
+     * @return false if the product is not displayed in the snapshot and has to be validated live
+     */
+    private boolean validateProductDetails(PageSnapshot snapshot, Product product) {
+        By nameLocator;
+        By priceLocator;
+        if (DRIVER instanceof AndroidDriver) {
+            nameLocator = AppiumBy.androidUIAutomator(String.format(ANDROID_PRODUCT_NAME, product.getProductName()));
+            priceLocator = AppiumBy.xpath(String.format(ANDROID_PRODUCT_PRICE, product.getProductName()));
+        } else {
+            nameLocator = AppiumBy.iOSNsPredicateString(String.format(IOS_PRODUCT_NAME, product.getProductName()));
+            priceLocator = AppiumBy.xpath(String.format(IOS_PRODUCT_PRICE, product.getProductName()));
         }
+        if (!snapshot.isDisplayed(nameLocator) || !snapshot.isDisplayed(priceLocator)) {
+            return false;
+        }
+        ReportsManager.passStep(String.format("Product '%s' name validated successfully.", product.getProductName()));
+        String actualPrice = snapshot.getText(priceLocator);
+        if (!actualPrice.replace("$", "").equals(Double.toString(product.getProductPrice()))) {
+            Assert.fail(String.format("Product name: %s. Expected price: $%s. Actual price: %s",
+                    product.getProductName(), product.getProductPrice(), actualPrice));
+        }
+        ReportsManager.passStep(String.format("Product '%s' price validated successfully.", product.getProductName()));
+        return true;
     }
 
     public void validateProductName(Product product) {
         try {
             By androidScrollableLocator = AppiumBy.androidUIAutomator(
-                    String.format(androidProductNameScrollable, product.getProductName()));
-            By androidLocator = AppiumBy.androidUIAutomator(String.format(androidProductName, product.getProductName()));
-            By iosLocator = AppiumBy.xpath(String.format(iosProductName, product.getProductName()));
+                    String.format(ANDROID_PRODUCT_NAME_SCROLLABLE, product.getProductName()));
+            By androidLocator = AppiumBy.androidUIAutomator(String.format(ANDROID_PRODUCT_NAME, product.getProductName()));
+            By iosLocator = AppiumBy.iOSNsPredicateString(String.format(IOS_PRODUCT_NAME, product.getProductName()));
             scrollIntoView(androidScrollableLocator, iosLocator);
             if (DRIVER instanceof AndroidDriver)
                 validateElementDisplayed(androidLocator,
@@ -82,17 +121,17 @@ public class CheckoutOverviewPage extends BasePage {
 
     public void validateProductPrice(Product product) {
         try {
-            By androidLocator = AppiumBy.xpath(String.format(androidProductPrice, product.getProductName()));
-            By iosLocator = AppiumBy.xpath(String.format(iosProductPrice, product.getProductName()));
+            By androidLocator = AppiumBy.xpath(String.format(ANDROID_PRODUCT_PRICE, product.getProductName()));
+            By iosLocator = AppiumBy.xpath(String.format(IOS_PRODUCT_PRICE, product.getProductName()));
             String actualPrice = "";
             if (DRIVER instanceof AndroidDriver) {
                 validateElementDisplayed(androidLocator,
                         String.format("Price of product with name %s not displayed.", product.getProductName()));
-                actualPrice = getElement(androidLocator).getText();
+                actualPrice = getElementText(androidLocator);
             } else {
                 validateElementDisplayed(iosLocator,
                         String.format("Price of product with name %s not displayed.", product.getProductName()));
-                actualPrice = getElement(iosLocator).getText();
+                actualPrice = getElementText(iosLocator);
             }
             if (!actualPrice.replace("$", "").equals(Double.toString(product.getProductPrice()))) {
                 Assert.fail(String.format("Product name: %s. Expected price: $%s. Actual price: %s",
@@ -115,8 +154,11 @@ public class CheckoutOverviewPage extends BasePage {
                 expectedTotal += product.getProductPrice();
             }
             // Scroll to the item total element
-            while (!isElementDisplayed(itemTotal, 2))
-                scroll("down");
+            if (DRIVER instanceof AndroidDriver) {
+                scrollUntilVisible(AppiumBy.androidUIAutomator(ANDROID_ITEM_TOTAL));
+            } else {
+                scrollUntilVisible(AppiumBy.iOSNsPredicateString(IOS_ITEM_TOTAL));
+            }
             // Validate the item total text
             double actualTotal = Double.parseDouble(
                     getElementText(itemTotal).replace("Item total: $", ""));
@@ -131,7 +173,7 @@ public class CheckoutOverviewPage extends BasePage {
 
     public void clickFinishButton() {
         try {
-            By androiFinishButton = AppiumBy.androidUIAutomator(androidFinishButtonScrollable);
+            By androiFinishButton = AppiumBy.androidUIAutomator(ANDROID_FINISH_BUTTON_SCROLLABLE);
             scrollIntoView(androiFinishButton, null);
             verifyElementClickable(finishButton,
                     "Finish button is not displayed or not clickable.");
@@ -7,6 +7,8 @@ import io.appium.java_client.pagefactory.*;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.PageFactory;
 
+import java.util.Arrays;
+
 public class LoginPage extends BasePage {
 
     @iOSXCUITFindBy(iOSNsPredicate = "name == 'test-Username'")
@@ -29,11 +31,8 @@ public class LoginPage extends BasePage {
     public void login(String userName, String password) {
         try {
             verifyElementDisplayed(userNameInput, "Username input field is not displayed");
-            enterText(userNameInput, userName);
-            verifyElementDisplayed(passwordInput, "Password input field is not displayed");
-            enterText(passwordInput, password);
-            verifyElementClickable(loginButton, "Login button is not clickable");
-            tap(loginButton);
+            submitForm("Login", Arrays.asList(userNameInput, passwordInput), Arrays.asList(userName, password),
+                    loginButton, "Login button is not clickable");
             ReportsManager.passStep("Login action completed successfully with username: " + userName);
         } catch (RuntimeException e) {
             ReportsManager.failStep("Login action failed. Reason: " + e.getMessage());
@@ -1,7 +1,11 @@
 package com.saucedemo.app.pages;
 
 import com.saucedemo.app.base.BasePage;
+import com.saucedemo.app.base.PageSnapshot;
+import com.saucedemo.app.controller.LoggerManager;
 import com.saucedemo.app.controller.ReportsManager;
+import com.saucedemo.app.objects.Product;
+import com.saucedemo.app.utils.Constants;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
@@ -9,8 +13,18 @@ import io.appium.java_client.pagefactory.AndroidFindBy;
 import io.appium.java_client.pagefactory.AppiumFieldDecorator;
 import io.appium.java_client.pagefactory.iOSXCUITFindBy;
 import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.Rectangle;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.PageFactory;
+import org.w3c.dom.Element;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ProductsPage extends BasePage {
     @AndroidFindBy(uiAutomator = "new UiSelector().text(\"PRODUCTS\")")
@@ -25,12 +39,24 @@ public class ProductsPage extends BasePage {
     @iOSXCUITFindBy(accessibility = "test-Menu")
     private WebElement menuButton;
 
-    private String androidAddToCartScrollable = "new UiScrollable(new UiSelector()).scrollIntoView(text(\"%s\"))";
-    private String iosAddToCartScrollable = "label == '%s'";
-    private String androidAddToCartByProductName = "//android.widget.TextView[@text='%s']//following-sibling::android.view.ViewGroup[@content-desc='test-ADD TO CART']";
-    private String iosAddToCartByProductName = "//XCUIElementTypeStaticText[@label='%s']//ancestor::XCUIElementTypeOther[contains(@label, '%s')][2]//XCUIElementTypeOther[@name='ADD TO CART']";
-    private String androidRemoveByProductName = "//android.widget.TextView[@text='%s']//following-sibling::android.view.ViewGroup[@content-desc='test-REMOVE']";
-    private String iosRemoveByProductName = "//XCUIElementTypeStaticText[@label='%s']//ancestor::XCUIElementTypeOther[contains(@label, '%s')][2]//XCUIElementTypeOther[@name='REMOVE']";
+    private static final String ANDROID_ADD_TO_CART_SCROLLABLE = "new UiScrollable(new UiSelector()).scrollIntoView(text(\"%s\"))";
+    private static final String IOS_ADD_TO_CART_SCROLLABLE = "label == '%s'";
+    private static final String ANDROID_ADD_TO_CART_BY_PRODUCT_NAME = "//android.widget.TextView[@text='%s']//following-sibling::android.view.ViewGroup[@content-desc='test-ADD TO CART']";
+    private static final String IOS_ADD_TO_CART_BY_PRODUCT_NAME = "//XCUIElementTypeStaticText[@label='%s']//ancestor::XCUIElementTypeOther[contains(@label, '%s')][2]//XCUIElementTypeOther[@name='ADD TO CART']";
+    private static final String ANDROID_REMOVE_BY_PRODUCT_NAME = "//android.widget.TextView[@text='%s']//following-sibling::android.view.ViewGroup[@content-desc='test-REMOVE']";
+    private static final String IOS_REMOVE_BY_PRODUCT_NAME = "//XCUIElementTypeStaticText[@label='%s']//ancestor::XCUIElementTypeOther[contains(@label, '%s')][2]//XCUIElementTypeOther[@name='REMOVE']";
+
+    private static final By PRODUCT_ITEM = AppiumBy.accessibilityId("test-Item");
+    private static final By PRODUCT_TITLE = AppiumBy.accessibilityId("test-Item title");
+    private static final By ANDROID_ADD_TO_CART_BUTTON = AppiumBy.accessibilityId("test-ADD TO CART");
+    private static final By IOS_ADD_TO_CART_BUTTON = AppiumBy.accessibilityId("ADD TO CART");
+    private static final By ANDROID_REMOVE_BUTTON = AppiumBy.accessibilityId("test-REMOVE");
+    private static final By IOS_REMOVE_BUTTON = AppiumBy.accessibilityId("REMOVE");
+
+    /**
+     * Products seen during the current visit of the screen, in scroll order.
+     */
+    private final Map<String, CatalogEntry> catalog = new LinkedHashMap<>();
 
     public ProductsPage(AppiumDriver driver) {
         super(driver);
@@ -57,23 +83,78 @@ public class ProductsPage extends BasePage {
         }
     }
 
+    /**
+     * Adds several products to the cart in a single downward pass over the product list. Each screen is indexed
+     * from one page snapshot, the wanted products on it are tapped in list order, and their remove buttons are
+     * checked on one further snapshot before scrolling on. The list is expected to be scrolled to the top.
+     *
+     * @param products the products to add
+     */
+    public void addProductsToCart(Product... products) {
+        Set<String> remaining = new LinkedHashSet<>();
+        for (Product product : products) {
+            remaining.add(product.getProductName());
+        }
+        try {
+            catalog.clear();
+            int scrolls = 0;
+            while (true) {
+                int indexed = catalog.size();
+                List<CatalogEntry> added = new ArrayList<>();
+                for (CatalogEntry entry : indexScreen(takeSnapshot())) {
+                    if (!remaining.contains(entry.productName) || entry.buttonLocator == null) {
+                        continue;
+                    }
+                    if (entry.inCart) {
+                        throw new IllegalStateException(String.format("Product '%s' is already in the cart.", entry.productName));
+                    }
+                    if (entry.buttonRect != null) {
+                        tap(entry.buttonRect);
+                    } else {
+                        tap(entry.buttonLocator);
+                    }
+                    remaining.remove(entry.productName);
+                    added.add(entry);
+                }
+                if (!added.isEmpty()) {
+                    validateRemoveButtons(added);
+                }
+                if (remaining.isEmpty()) {
+                    break;
+                }
+                if (scrolls >= Constants.SCROLL_MAX_SCROLLS || (scrolls > 0 && catalog.size() == indexed)) {
+                    throw new NoSuchElementException(String.format("Products %s not found after indexing %d products in %d scrolls.",
+                            remaining, catalog.size(), scrolls));
+                }
+                scroll("down");
+                scrolls++;
+            }
+            LoggerManager.debug("Product catalog: {}", catalog.values());
+            ReportsManager.passStep(String.format("%d products added to cart after indexing %d products in %d scrolls.",
+                    products.length, catalog.size(), scrolls));
+        } catch (RuntimeException e) {
+            ReportsManager.failStep("Failed to add products to cart. Reason: " + e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
     public void scrollToProductAndClick(String productName) {
         try {
-            By androidAddToCartScrollableLocator = AppiumBy.androidUIAutomator(String.format(androidAddToCartScrollable, productName));
-            By androidAddToCartLocator = AppiumBy.xpath(String.format(androidAddToCartByProductName, productName));
-            By iosAddToCartLocator = AppiumBy.xpath(String.format(iosAddToCartByProductName, productName, productName));
+            By androidAddToCartScrollableLocator = AppiumBy.androidUIAutomator(String.format(ANDROID_ADD_TO_CART_SCROLLABLE, productName));
+            By androidAddToCartLocator = AppiumBy.xpath(String.format(ANDROID_ADD_TO_CART_BY_PRODUCT_NAME, productName));
+            By iosAddToCartLocator = AppiumBy.xpath(String.format(IOS_ADD_TO_CART_BY_PRODUCT_NAME, productName, productName));
             // Scroll product to view
             if (DRIVER instanceof AndroidDriver) {
-                getElement(androidAddToCartScrollableLocator);
+                scrollIntoView(androidAddToCartScrollableLocator, null);
             } else {
                 iosScroll(DRIVER,
-                        String.format(iosAddToCartScrollable, "\uDB81\uDF41 " + productName), "predicateString");
+                        String.format(IOS_ADD_TO_CART_SCROLLABLE, "\uDB81\uDF41 " + productName), "predicateString");
             }
             // Click on Add to Cart button
             if (DRIVER instanceof AndroidDriver) {
-                tap(DRIVER.findElement(androidAddToCartLocator));
+                tap(androidAddToCartLocator);
             } else {
-                tap(DRIVER.findElement(iosAddToCartLocator));
+                tap(iosAddToCartLocator);
             }
             ReportsManager.passStep(
                     String.format("Product '%s' added to cart successfully.", productName));
@@ -85,8 +166,8 @@ public class ProductsPage extends BasePage {
 
     public void validateRemoveButtonForProduct(String productName) {
         try {
-            By androidRemoveLocator = AppiumBy.xpath(String.format(androidRemoveByProductName, productName, productName));
-            By iosRemoveLocator = AppiumBy.xpath(String.format(iosRemoveByProductName, productName, productName));
+            By androidRemoveLocator = AppiumBy.xpath(String.format(ANDROID_REMOVE_BY_PRODUCT_NAME, productName, productName));
+            By iosRemoveLocator = AppiumBy.xpath(String.format(IOS_REMOVE_BY_PRODUCT_NAME, productName, productName));
             if (DRIVER instanceof AndroidDriver)
                 validateElementDisplayed(androidRemoveLocator ,
                         String.format("Remove button for product %s not displayed.", productName));
@@ -101,11 +182,84 @@ public class ProductsPage extends BasePage {
         }
     }
 
+    /**
+     * Indexes the products of the current screen: adds new products to the catalog with their position, and records
+     * the add or remove button of every product whose button is on screen, with its bounds if the page source has
+     * them.
+     *
+     * @param snapshot the snapshot of the current screen
+     * @return the catalog entries of the products on screen, in list order
+     */
+    private List<CatalogEntry> indexScreen(PageSnapshot snapshot) {
+        boolean android = DRIVER instanceof AndroidDriver;
+        List<CatalogEntry> screen = new ArrayList<>();
+        for (Element item : snapshot.findElements(PRODUCT_ITEM)) {
+            List<Element> titles = snapshot.findElements(item, PRODUCT_TITLE);
+            if (titles.isEmpty()) {
+                continue;
+            }
+            String productName = snapshot.getText(titles.get(0));
+            CatalogEntry entry = catalog.computeIfAbsent(productName, name -> new CatalogEntry(name, catalog.size()));
+            Element addButton = findDisplayed(snapshot, item, android ? ANDROID_ADD_TO_CART_BUTTON : IOS_ADD_TO_CART_BUTTON);
+            Element removeButton = addButton != null ? null
+                    : findDisplayed(snapshot, item, android ? ANDROID_REMOVE_BUTTON : IOS_REMOVE_BUTTON);
+            entry.buttonRect = addButton != null ? snapshot.getRect(addButton)
+                    : removeButton != null ? snapshot.getRect(removeButton) : null;
+            if (addButton != null) {
+                entry.inCart = false;
+                entry.buttonLocator = android
+                        ? AppiumBy.xpath(String.format(ANDROID_ADD_TO_CART_BY_PRODUCT_NAME, productName))
+                        : AppiumBy.xpath(String.format(IOS_ADD_TO_CART_BY_PRODUCT_NAME, productName, productName));
+            } else if (removeButton != null) {
+                entry.inCart = true;
+                entry.buttonLocator = android
+                        ? AppiumBy.xpath(String.format(ANDROID_REMOVE_BY_PRODUCT_NAME, productName))
+                        : AppiumBy.xpath(String.format(IOS_REMOVE_BY_PRODUCT_NAME, productName, productName));
+            } else {
+                entry.buttonLocator = null;
+            }
+            screen.add(entry);
+        }
+        return screen;
+    }
+
+    /**
+     * Returns a button of a product item if it is on screen in the snapshot.
+     *
+     * @param snapshot the page snapshot
+     * @param item     the product item
+     * @param button   the button locator
+     * @return the button, or null if it is not displayed
+     */
+    private Element findDisplayed(PageSnapshot snapshot, Element item, By button) {
+        List<Element> buttons = snapshot.findElements(item, button);
+        return !buttons.isEmpty() && snapshot.isDisplayed(buttons.get(0)) ? buttons.get(0) : null;
+    }
+
+    /**
+     * Validates the remove buttons of the products just added on one snapshot. Products whose button has not turned
+     * into a remove button in the snapshot yet are validated live.
+     *
+     * @param added the catalog entries of the added products
+     */
+    private void validateRemoveButtons(List<CatalogEntry> added) {
+        if (Constants.ENABLE_PAGE_SNAPSHOT) {
+            indexScreen(takeSnapshot());
+        }
+        for (CatalogEntry entry : added) {
+            if (!entry.inCart) {
+                validateRemoveButtonForProduct(entry.productName);
+            } else {
+                ReportsManager.passStep(String.format("Product '%s' added to cart successfully.", entry.productName));
+            }
+        }
+    }
+
     public void clickCartButton() {
         try {
             verifyElementClickable(cartButton,
                     "Cart button is not displayed or clickable.", 2);
-            addDelay(5);
+            waitForElementStable(cartButton, "Cart button did not settle.", 5);
             click(cartButton);
             ReportsManager.passStep("Cart button clicked successfully.");
         } catch (RuntimeException e) {
@@ -125,4 +279,26 @@ public class ProductsPage extends BasePage {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * A product of the catalog: its position in the list, and the locator and on-screen bounds of its add or remove
+     * button.
+     */
+    private static final class CatalogEntry {
+        private final String productName;
+        private final int position;
+        private boolean inCart;
+        private By buttonLocator;
+        private Rectangle buttonRect;
+
+        private CatalogEntry(String productName, int position) {
+            this.productName = productName;
+            this.position = position;
+        }
+
+        @Override
+        public String toString() {
+            return position + ": " + productName + (inCart ? " (in cart)" : "");
+        }
+    }
 }
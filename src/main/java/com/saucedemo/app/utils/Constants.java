@@ -15,22 +15,87 @@ public interface Constants {
     public static final int APPIUM_PORT = Integer.parseInt(Config.getProperty("appium.port"));
     public static final String APPIUM_JS_FILEPATH = Config.getProperty("appium.js.path");
     public static final String APPIUM_NODE_EXECUTABLE = Config.getProperty("appium.node.path");
+    public static final int APPIUM_FLEET_SIZE = Integer.parseInt(Config.getProperty("appium.fleet.size", "1"));
     // Device details
     public static final boolean IS_APP_PRE_INSTALLED = Boolean.parseBoolean(Config.getProperty("is.app.preinstalled"));
     public static final String DEVICE_PROFILE = Config.getProperty("device.profile");
-    public static String getPlatformName() { return JsonUtils.getString("platform_name"); }
-    public static String getPlatformVersion() { return JsonUtils.getString("platform_version"); }
-    public static String getDeviceName() { return JsonUtils.getString("device_name"); }
-    public static String getAutomationName() { return JsonUtils.getString("automation_name"); }
+    public static String getPlatformName() { return JsonUtils.getDeviceProfile().getPlatformName(); }
+    public static String getPlatformVersion() { return JsonUtils.getDeviceProfile().getPlatformVersion(); }
+    public static String getDeviceName() { return JsonUtils.getDeviceProfile().getDeviceName(); }
+    public static String getAutomationName() { return JsonUtils.getDeviceProfile().getAutomationName(); }
+    // Device pool details
+    public static final boolean ENABLE_DEVICE_POOL = Boolean.parseBoolean(Config.getProperty("device.pool.enabled", "false"));
+    public static final String DEVICE_POOL_PROFILES = Config.getProperty("device.pool.profiles", Config.getProperty("device.profile"));
+    public static final int DEVICE_POOL_BOOT_TIMEOUT_SECONDS = Integer.parseInt(Config.getProperty("device.pool.boot.timeout.seconds", "300"));
+    public static final int DEVICE_POOL_LEASE_TIMEOUT_SECONDS = Integer.parseInt(Config.getProperty("device.pool.lease.timeout.seconds", "900"));
+    public static final String ANDROID_EMULATOR_PATH = Config.getProperty("android.emulator.path", "emulator");
+    public static final String ANDROID_ADB_PATH = Config.getProperty("android.adb.path", "adb");
+    // Session pool details
+    public static final boolean ENABLE_SESSION_POOL = Boolean.parseBoolean(Config.getProperty("session.pool.enabled", "false"));
+    public static final int SESSION_POOL_MAX_SIZE = Integer.parseInt(Config.getProperty("session.pool.max.size", "1"));
+    public static final int SESSION_POOL_MAX_AGE_MINUTES = Integer.parseInt(Config.getProperty("session.pool.max.age.minutes", "30"));
+    public static final int SESSION_POOL_MAX_USES = Integer.parseInt(Config.getProperty("session.pool.max.uses", "20"));
+    public static final int SESSION_POOL_CHECKOUT_TIMEOUT_SECONDS = Integer.parseInt(Config.getProperty("session.pool.checkout.timeout.seconds", "300"));
+    public static final boolean ENABLE_SESSION_PREWARM = Boolean.parseBoolean(Config.getProperty("session.prewarm.enabled", "false"));
+    // Session port details
+    public static final int SESSION_PORT_SLOTS = Integer.parseInt(Config.getProperty("session.port.slots", "16"));
+    public static final int SESSION_SYSTEM_PORT_BASE = Integer.parseInt(Config.getProperty("session.system.port.base", "8200"));
+    public static final int SESSION_MJPEG_PORT_BASE = Integer.parseInt(Config.getProperty("session.mjpeg.port.base", "9200"));
+    public static final int SESSION_CHROMEDRIVER_PORT_BASE = Integer.parseInt(Config.getProperty("session.chromedriver.port.base", "9600"));
+    public static final int SESSION_WDA_PORT_BASE = Integer.parseInt(Config.getProperty("session.wda.port.base", "8100"));
+    // Screenshot details
+    public static final int SCREENSHOT_QUEUE_CAPACITY = Integer.parseInt(Config.getProperty("screenshot.queue.capacity", "32"));
+    public static final String SCREENSHOT_QUEUE_FULL_POLICY = Config.getProperty("screenshot.queue.full.policy", "block");
+    public static final String SCREENSHOT_POLICY = Config.getProperty("screenshot.policy", "always");
+    public static final int SCREENSHOT_EVERY_N = Integer.parseInt(Config.getProperty("screenshot.every.n", "5"));
+    public static final int SCREENSHOT_CHANGE_THRESHOLD = Integer.parseInt(Config.getProperty("screenshot.change.threshold", "6"));
+    // Report details
+    public static final boolean ENABLE_REPORT_STREAMING = Boolean.parseBoolean(Config.getProperty("report.stream.enabled", "false"));
+    public static final int REPORT_STREAM_PAGE_SIZE = Integer.parseInt(Config.getProperty("report.stream.page.size", "100"));
+    public static final int REPORT_STREAM_RENDER_INTERVAL = Integer.parseInt(Config.getProperty("report.stream.render.interval", "25"));
+    // Flight recorder details
+    public static final boolean ENABLE_FLIGHT_RECORDER = Boolean.parseBoolean(Config.getProperty("flight.recorder.enabled", "true"));
+    public static final int FLIGHT_RECORDER_STEPS = Integer.parseInt(Config.getProperty("flight.recorder.steps", "30"));
+    public static final boolean FLIGHT_RECORDER_PAGE_SOURCE = Boolean.parseBoolean(Config.getProperty("flight.recorder.page.source", "false"));
+    public static final boolean FLIGHT_RECORDER_FRAMES = Boolean.parseBoolean(Config.getProperty("flight.recorder.frames", "false"));
+    public static final int FLIGHT_RECORDER_FRAME_WIDTH = Integer.parseInt(Config.getProperty("flight.recorder.frame.width", "270"));
+    // Element cache details
+    public static final boolean ENABLE_ELEMENT_CACHE = Boolean.parseBoolean(Config.getProperty("element.cache.enabled", "true"));
+    public static final boolean ENABLE_ELEMENT_STATE_CACHE = Boolean.parseBoolean(Config.getProperty("element.state.cache.enabled", "true"));
+    public static final boolean ENABLE_PAGE_SNAPSHOT = Boolean.parseBoolean(Config.getProperty("page.snapshot.enabled", "true"));
+    // Wait details
+    public static final int IMPLICIT_WAIT_SECONDS = Integer.parseInt(Config.getProperty("implicit.wait.seconds", "10"));
+    public static final long WAIT_POLL_INITIAL_MS = Long.parseLong(Config.getProperty("wait.poll.initial.ms", "50"));
+    public static final long WAIT_POLL_MAX_MS = Long.parseLong(Config.getProperty("wait.poll.max.ms", "1000"));
+    public static final double WAIT_POLL_BACKOFF = Double.parseDouble(Config.getProperty("wait.poll.backoff", "1.5"));
+    public static final double WAIT_POLL_JITTER = Double.parseDouble(Config.getProperty("wait.poll.jitter", "0.2"));
+    public static final boolean ENABLE_TIMEOUT_BUDGET = Boolean.parseBoolean(Config.getProperty("timeout.budget.enabled", "true"));
+    public static final String TIMEOUT_BUDGET_FILE = Config.getProperty("timeout.budget.file", "timeout-history/timeout_budgets.json");
+    public static final int TIMEOUT_BUDGET_HISTORY = Integer.parseInt(Config.getProperty("timeout.budget.history", "50"));
+    public static final int TIMEOUT_BUDGET_MIN_SAMPLES = Integer.parseInt(Config.getProperty("timeout.budget.min.samples", "5"));
+    public static final int TIMEOUT_BUDGET_PERCENTILE = Integer.parseInt(Config.getProperty("timeout.budget.percentile", "95"));
+    public static final double TIMEOUT_BUDGET_MARGIN = Double.parseDouble(Config.getProperty("timeout.budget.margin", "2.0"));
+    public static final int TIMEOUT_BUDGET_MIN_SECONDS = Integer.parseInt(Config.getProperty("timeout.budget.min.seconds", "2"));
+    public static final int TIMEOUT_BUDGET_MAX_SECONDS = Integer.parseInt(Config.getProperty("timeout.budget.max.seconds", "30"));
+    // Scroll details
+    public static final int SCROLL_MAX_SCROLLS = Integer.parseInt(Config.getProperty("scroll.max.scrolls", "10"));
+    public static final double SCROLL_STEP_FAR = Double.parseDouble(Config.getProperty("scroll.step.far", "0.8"));
+    public static final double SCROLL_STEP_MIN = Double.parseDouble(Config.getProperty("scroll.step.min", "0.1"));
+    // Text entry details
+    public static final boolean ENABLE_FAST_TEXT_ENTRY = Boolean.parseBoolean(Config.getProperty("fast.text.entry.enabled", "true"));
+    // Command batch details
+    public static final boolean ENABLE_COMMAND_BATCH = Boolean.parseBoolean(Config.getProperty("command.batch.enabled", "true"));
+    public static final long COMMAND_BATCH_TIMEOUT_MS = Long.parseLong(Config.getProperty("command.batch.timeout.ms", "60000"));
+    public static final boolean COMMAND_BATCH_APPIUM_PLUGIN = Boolean.parseBoolean(Config.getProperty("command.batch.appium.plugin", "false"));
     // Perfecto details
     public static boolean ENABLE_PERFECTO = Boolean.parseBoolean(Config.getProperty("enable.perfecto"));
     interface Perfecto {
         public static final String PERFECTO_URL = Config.getProperty("perfecto.url");
         public static final String PERFECTO_TOKEN = Config.getProperty("perfecto.token");
-        public static String getPlatformBuild() { return JsonUtils.getString("platform_build"); }
-        public static String getManufacturer() { return JsonUtils.getString("manufacturer"); }
-        public static String getResolution() { return JsonUtils.getString("resolution"); }
-        public static boolean getAutoLaunch() { return Boolean.parseBoolean(JsonUtils.getString("auto_launch")); }
-        public static boolean enableAppiumBehavior() { return Boolean.parseBoolean(JsonUtils.getString("enable_appium_behavior")); }
+        public static String getPlatformBuild() { return JsonUtils.getDeviceProfile().getPlatformBuild(); }
+        public static String getManufacturer() { return JsonUtils.getDeviceProfile().getManufacturer(); }
+        public static String getResolution() { return JsonUtils.getDeviceProfile().getResolution(); }
+        public static boolean getAutoLaunch() { return JsonUtils.getDeviceProfile().isAutoLaunch(); }
+        public static boolean enableAppiumBehavior() { return JsonUtils.getDeviceProfile().isEnableAppiumBehavior(); }
     }
 }
\ No newline at end of file
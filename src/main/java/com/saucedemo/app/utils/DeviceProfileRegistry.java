@@ -0,0 +1,150 @@
+package com.saucedemo.app.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.saucedemo.app.controller.LoggerManager;
+import com.saucedemo.app.objects.DeviceProfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Registry of all device profiles, parsed once per JVM into immutable {@link DeviceProfile} objects.
+ * Profiles are read from src/test/resources/device-profiles/ when running from the source tree,
+ * and from device-profiles/ on the classpath otherwise (e.g. packaged runs).
+ */
+public class DeviceProfileRegistry {
+    private static final String PROFILE_FOLDER = "device-profiles";
+    private static final String SOURCE_FOLDER = "src/test/resources/" + PROFILE_FOLDER;
+
+    /**
+     * Shared, thread-safe reader used for all profile files.
+     */
+    private static final ObjectReader READER = new ObjectMapper().readerFor(new TypeReference<Map<String, Object>>() {});
+
+    private static final Map<String, DeviceProfile> PROFILES = new ConcurrentHashMap<>();
+    private static volatile boolean scanned;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private DeviceProfileRegistry() {}
+
+    /**
+     * Returns the device profile with the given file name, loading all profiles on first use.
+     *
+     * @param fileName Name of the JSON file (e.g., "ios/iPhone_15.json" or "android/Pixel_7.json")
+     * @return the DeviceProfile
+     * @throws IOException if the profile cannot be found or parsed
+     */
+    public static DeviceProfile get(String fileName) throws IOException {
+        DeviceProfile profile = PROFILES.get(fileName);
+        if (profile != null) {
+            return profile;
+        }
+        scanOnce();
+        profile = PROFILES.get(fileName);
+        if (profile == null) {
+            // Not found by the scan, e.g. profiles packaged in a jar cannot be listed: load it directly.
+            profile = load(fileName);
+            DeviceProfile existing = PROFILES.putIfAbsent(fileName, profile);
+            profile = existing != null ? existing : profile;
+        }
+        return profile;
+    }
+
+    /**
+     * Returns all device profiles found by the scan.
+     *
+     * @return an unmodifiable collection of the loaded profiles
+     */
+    public static Collection<DeviceProfile> getAll() {
+        scanOnce();
+        return Collections.unmodifiableCollection(PROFILES.values());
+    }
+
+    /**
+     * Loads every profile under the profile folder once. Files which cannot be parsed are logged and skipped,
+     * so that one broken profile does not prevent the others from being used.
+     */
+    private static synchronized void scanOnce() {
+        if (scanned) {
+            return;
+        }
+        Path root = getProfileRoot();
+        if (root != null) {
+            try (Stream<Path> paths = Files.walk(root)) {
+                List<Path> files = paths.filter(path -> path.toString().endsWith(".json")).collect(Collectors.toList());
+                for (Path file : files) {
+                    String fileName = root.relativize(file).toString().replace(File.separatorChar, '/');
+                    try {
+                        PROFILES.putIfAbsent(fileName, new DeviceProfile(fileName, READER.readValue(file.toFile())));
+                    } catch (IOException e) {
+                        LoggerManager.error("Failed to parse device profile " + fileName + ": " + e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                LoggerManager.error("Failed to scan device profiles in " + root + ": " + e.getMessage());
+            }
+            LoggerManager.info("Loaded " + PROFILES.size() + " device profiles from " + root);
+        }
+        scanned = true;
+    }
+
+    /**
+     * Returns the folder to scan: the source folder if present, otherwise the classpath folder if it is a directory.
+     *
+     * @return the profile folder, or null if profiles can only be loaded by name
+     */
+    private static Path getProfileRoot() {
+        Path source = Paths.get(SOURCE_FOLDER);
+        if (Files.isDirectory(source)) {
+            return source;
+        }
+        URL url = DeviceProfileRegistry.class.getClassLoader().getResource(PROFILE_FOLDER);
+        if (url != null && "file".equals(url.getProtocol())) {
+            try {
+                return Paths.get(url.toURI());
+            } catch (URISyntaxException e) {
+                LoggerManager.error("Invalid device profile folder: " + url);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads a single profile from the source folder or the classpath.
+     *
+     * @param fileName Name of the JSON file
+     * @return the parsed DeviceProfile
+     * @throws IOException if the file cannot be found or parsed
+     */
+    private static DeviceProfile load(String fileName) throws IOException {
+        File file = new File(SOURCE_FOLDER, fileName);
+        if (file.isFile()) {
+            return new DeviceProfile(fileName, READER.readValue(file));
+        }
+        try (InputStream stream = DeviceProfileRegistry.class.getClassLoader()
+                .getResourceAsStream(PROFILE_FOLDER + "/" + fileName)) {
+            if (stream == null) {
+                LoggerManager.error("JSON file not found: " + file.getPath());
+                throw new IOException("JSON file not found: " + file.getPath());
+            }
+            return new DeviceProfile(fileName, READER.readValue(stream));
+        }
+    }
+}
@@ -1,37 +1,60 @@
 package com.saucedemo.app.utils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.saucedemo.app.controller.LoggerManager;
+import com.saucedemo.app.objects.DeviceProfile;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for loading and accessing JSON device profile files.
  */
 public interface JsonUtils {
 
-    static final Map<String, Object> jsonData = new ConcurrentHashMap<>();
+    /**
+     * Immutable device profile loaded by the current thread, so that parallel workers
+     * running different profiles never see each other's configuration.
+     */
+    static final ThreadLocal<DeviceProfile> deviceProfile = new ThreadLocal<>();
 
     /**
-     * Loads a JSON file from src/test/resources/device-profiles/{fileName} into memory.
+     * Loads the device profile src/test/resources/device-profiles/{fileName} as the device profile of the current thread.
+     * Profiles are parsed once per JVM by the {@link DeviceProfileRegistry}.
      * @param fileName Name of the JSON file (e.g., "ios/iPhone_15.json" or "android/Pixel_7.json")
      * @throws IOException if the file cannot be read or parsed
      */
     public static void loadDeviceProfile(String fileName) throws IOException {
-        String filePath = "src/test/resources/device-profiles/" + fileName;
-        ObjectMapper mapper = new ObjectMapper();
-        File file = new File(filePath);
-        if (!file.exists()) {
-            LoggerManager.error("JSON file not found: " + filePath);
-            throw new IOException("JSON file not found: " + filePath);
+        useDeviceProfile(DeviceProfileRegistry.get(fileName));
+        LoggerManager.info("Loaded JSON device profile: " + fileName);
+    }
+
+    /**
+     * Binds an already loaded device profile to the current thread, e.g. to hand a worker's profile to a background task.
+     * @param profile The device profile
+     */
+    public static void useDeviceProfile(DeviceProfile profile) {
+        deviceProfile.set(profile);
+    }
+
+    /**
+     * Returns the name of the device profile loaded by the current thread.
+     * @return The profile file name, or null if none was loaded
+     */
+    public static String getDeviceProfileName() {
+        DeviceProfile profile = deviceProfile.get();
+        return profile != null ? profile.getName() : null;
+    }
+
+    /**
+     * Returns the device profile loaded by the current thread.
+     * @return The device profile
+     * @throws IllegalStateException if no profile was loaded by the current thread
+     */
+    public static DeviceProfile getDeviceProfile() {
+        DeviceProfile profile = deviceProfile.get();
+        if (profile == null) {
+            throw new IllegalStateException("No device profile loaded for thread: " + Thread.currentThread().getName());
         }
-        Map<String, Object> map = mapper.readValue(file, Map.class);
-        jsonData.clear();
-        jsonData.putAll(map);
-        LoggerManager.info("Loaded JSON device profile: " + filePath);
+        return profile;
     }
 
     /**
@@ -40,7 +63,8 @@ public interface JsonUtils {
      * @return The value as Object, or null if not found
      */
     public static Object get(String key) {
-        return jsonData.get(key);
+        DeviceProfile profile = deviceProfile.get();
+        return profile != null ? profile.get(key) : null;
     }
 
     /**
@@ -49,7 +73,7 @@ public interface JsonUtils {
      * @return The value as String, or null if not found
      */
     public static String getString(String key) {
-        Object value = jsonData.get(key);
-        return value != null ? value.toString() : null;
+        DeviceProfile profile = deviceProfile.get();
+        return profile != null ? profile.getString(key) : null;
     }
 }
@@ -0,0 +1,625 @@
+package com.saucedemo.app.utils;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates Appium locators locally against a page source captured with getPageSource(), without
+ * a round trip to the device. Supports the W3C/Appium strategies used by the page objects: accessibility id,
+ * id, xpath, UiSelector (including childSelector, fromParent and the target of UiScrollable.scrollIntoView), iOS
+ * predicate strings with ==, !=, CONTAINS, BEGINSWITH, ENDSWITH and LIKE combined through AND/OR, and iOS class
+ * chains of child (/) and descendant (**&#47;) segments with predicates, descendant predicates ([$...$]) and indexes.
+ */
+public class LocatorEvaluator {
+    public static final String ACCESSIBILITY_ID = "accessibility id";
+    public static final String ID = "id";
+    public static final String XPATH = "xpath";
+    public static final String UI_AUTOMATOR = "-android uiautomator";
+    public static final String PREDICATE = "-ios predicate string";
+    public static final String CLASS_CHAIN = "-ios class chain";
+
+    private static final Pattern UI_SELECTOR_METHOD = Pattern.compile("\\.(\\w+)\\(");
+    private static final Pattern PREDICATE_CLAUSE = Pattern.compile(
+            "^\\s*(\\w+)\\s*(==|!=|CONTAINS|BEGINSWITH|ENDSWITH|LIKE)(\\[c\\])?\\s*(['\"]?)(.*?)\\4\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CLASS_CHAIN_SEGMENT = Pattern.compile("^(\\*\\*/)?(\\w+|\\*)(?:\\[`(.*?)`\\])?(?:\\[\\$(.*?)\\$\\])?(?:\\[(-?\\d+)\\])?$");
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private LocatorEvaluator() {}
+
+    /**
+     * Parses a page source into a DOM document.
+     *
+     * @param pageSource the page source XML
+     * @return the parsed document
+     */
+    public static Document parse(String pageSource) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(new InputSource(new StringReader(pageSource)));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse page source: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks whether a page source was captured from UiAutomator2, whose root element is "hierarchy".
+     *
+     * @param document the parsed page source
+     * @return true for Android page sources, false for XCUITest page sources
+     */
+    public static boolean isAndroid(Document document) {
+        return "hierarchy".equals(document.getDocumentElement().getTagName());
+    }
+
+    /**
+     * Detects the strategy of a raw locator string, as declared in the page objects.
+     *
+     * @param locator the locator string
+     * @return the strategy
+     */
+    public static String detectStrategy(String locator) {
+        String trimmed = locator.trim();
+        if (trimmed.startsWith("/") || trimmed.startsWith("(")) {
+            return XPATH;
+        }
+        if (trimmed.startsWith("new UiSelector") || trimmed.startsWith("new UiScrollable")) {
+            return UI_AUTOMATOR;
+        }
+        if (trimmed.startsWith("**/")) {
+            return CLASS_CHAIN;
+        }
+        if (PREDICATE_CLAUSE.matcher(splitOutsideQuotes(trimmed, " AND ").get(0)).matches()) {
+            return PREDICATE;
+        }
+        return ACCESSIBILITY_ID;
+    }
+
+    /**
+     * Returns the relative cost tier of a strategy on the device: 1 for direct lookups (accessibility id, id),
+     * 2 for native queries (UiSelector, predicate, class chain) and 3 for XPath, which requires the driver to
+     * serialize the whole hierarchy first.
+     *
+     * @param strategy the strategy
+     * @return the cost tier
+     */
+    public static int getCostTier(String strategy) {
+        switch (strategy) {
+            case ACCESSIBILITY_ID:
+            case ID:
+                return 1;
+            case XPATH:
+                return 3;
+            default:
+                return 2;
+        }
+    }
+
+    /**
+     * Evaluates a locator against a page source.
+     *
+     * @param document the parsed page source
+     * @param strategy the strategy
+     * @param value    the locator value
+     * @return the matching elements in document order
+     * @throws IllegalArgumentException if the strategy or locator syntax is not supported
+     */
+    public static List<Element> evaluate(Document document, String strategy, String value) {
+        boolean android = isAndroid(document);
+        switch (strategy) {
+            case XPATH:
+                return evaluateXPath(document, value);
+            case ACCESSIBILITY_ID:
+                return filter(document, attributeEquals(android ? "content-desc" : "name", value));
+            case ID:
+                return filter(document, element -> {
+                    String resourceId = element.getAttribute("resource-id");
+                    return resourceId.equals(value) || resourceId.endsWith(":id/" + value)
+                            || (!android && element.getAttribute("name").equals(value));
+                });
+            case UI_AUTOMATOR:
+                return evaluateUiSelector(document, value);
+            case PREDICATE:
+                return filter(document, parsePredicate(value));
+            case CLASS_CHAIN:
+                return evaluateClassChain(document, value);
+            default:
+                throw new IllegalArgumentException("Unsupported locator strategy: " + strategy);
+        }
+    }
+
+    /**
+     * Returns all elements of the document in document order, including the root.
+     *
+     * @param document the parsed page source
+     * @return all elements
+     */
+    public static List<Element> getElements(Document document) {
+        NodeList nodes = document.getElementsByTagName("*");
+        List<Element> elements = new ArrayList<>(nodes.getLength());
+        for (int i = 0; i < nodes.getLength(); i++) {
+            elements.add((Element) nodes.item(i));
+        }
+        return elements;
+    }
+
+    /**
+     * Evaluates an XPath expression.
+     *
+     * @param document the parsed page source
+     * @param xpath    the XPath expression
+     * @return the matching elements
+     */
+    private static List<Element> evaluateXPath(Document document, String xpath) {
+        try {
+            NodeList nodes = (NodeList) XPathFactory.newInstance().newXPath().evaluate(xpath, document, XPathConstants.NODESET);
+            List<Element> elements = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                if (nodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                    elements.add((Element) nodes.item(i));
+                }
+            }
+            return elements;
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath: " + xpath, e);
+        }
+    }
+
+    /**
+     * Evaluates a UiSelector chain. For UiScrollable locators, the selector passed to scrollIntoView is evaluated.
+     *
+     * @param document the parsed page source
+     * @param selector the UiSelector or UiScrollable expression
+     * @return the matching elements
+     */
+    private static List<Element> evaluateUiSelector(Document document, String selector) {
+        String chain = selector.trim();
+        int scrollIntoView = chain.indexOf(".scrollIntoView(");
+        if (scrollIntoView >= 0) {
+            chain = "." + chain.substring(scrollIntoView + ".scrollIntoView(".length(), chain.lastIndexOf(')'));
+            chain = chain.replace(".new UiSelector()", "");
+        } else if (chain.startsWith("new UiSelector()")) {
+            chain = chain.substring("new UiSelector()".length());
+        } else {
+            throw new IllegalArgumentException("Unsupported UiAutomator expression: " + selector);
+        }
+        return evaluateUiSelector(chain, selector, getElements(document));
+    }
+
+    /**
+     * Evaluates the methods of one UiSelector within a scope. As in UiAutomator, a childSelector is searched among
+     * the descendants of each match and a fromParent within the parent of each match, the parent included.
+     *
+     * @param chain    the methods of the selector, e.g. .text("x").fromParent(new UiSelector().description("y"))
+     * @param selector the full selector, for error messages
+     * @param scope    the elements to search, in document order
+     * @return the matching elements in document order
+     */
+    private static List<Element> evaluateUiSelector(String chain, String selector, List<Element> scope) {
+        Predicate<Element> predicate = element -> true;
+        int instance = -1;
+        String relation = null;
+        String related = null;
+        Matcher matcher = UI_SELECTOR_METHOD.matcher(chain);
+        int end = 0;
+        while (end < chain.length()) {
+            if (!matcher.find(end) || matcher.start() != end) {
+                throw new IllegalArgumentException("Unsupported UiSelector: " + selector);
+            }
+            String method = matcher.group(1);
+            int close = findClosingParenthesis(chain, matcher.end(), selector);
+            String argument = chain.substring(matcher.end(), close);
+            end = close + 1;
+            if (method.equals("instance")) {
+                instance = Integer.parseInt(argument.trim());
+            } else if (method.equals("childSelector") || method.equals("fromParent")) {
+                if (relation != null || !argument.trim().startsWith("new UiSelector()")) {
+                    throw new IllegalArgumentException("Unsupported UiSelector: " + selector);
+                }
+                relation = method;
+                related = argument.trim().substring("new UiSelector()".length());
+            } else {
+                predicate = predicate.and(uiSelectorMethod(method, unquote(argument), selector));
+            }
+        }
+        List<Element> elements = new ArrayList<>();
+        for (Element element : scope) {
+            if (predicate.test(element)) {
+                elements.add(element);
+            }
+        }
+        if (instance >= 0) {
+            elements = instance < elements.size() ? elements.subList(instance, instance + 1) : new ArrayList<>();
+        }
+        if (relation == null) {
+            return elements;
+        }
+        Set<Element> matches = new LinkedHashSet<>();
+        for (Element element : elements) {
+            List<Element> relatedScope;
+            if (relation.equals("childSelector")) {
+                relatedScope = getDescendants(element);
+            } else if (element.getParentNode() instanceof Element) {
+                relatedScope = getDescendants((Element) element.getParentNode());
+                relatedScope.add(0, (Element) element.getParentNode());
+            } else {
+                continue;
+            }
+            matches.addAll(evaluateUiSelector(related, selector, relatedScope));
+        }
+        return inDocumentOrder(matches);
+    }
+
+    /**
+     * Finds the parenthesis closing a UiSelector method argument, skipping quoted strings and nested selectors.
+     *
+     * @param chain    the methods of the selector
+     * @param start    the index after the opening parenthesis
+     * @param selector the full selector, for error messages
+     * @return the index of the closing parenthesis
+     */
+    private static int findClosingParenthesis(String chain, int start, String selector) {
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = start; i < chain.length(); i++) {
+            char c = chain.charAt(i);
+            if (quoted) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported UiSelector: " + selector);
+    }
+
+    /**
+     * Translates one UiSelector method into an element predicate.
+     *
+     * @param method   the UiSelector method
+     * @param argument the unquoted argument
+     * @param selector the full selector, for error messages
+     * @return the element predicate
+     */
+    private static Predicate<Element> uiSelectorMethod(String method, String argument, String selector) {
+        switch (method) {
+            case "text":
+                return attributeEquals("text", argument);
+            case "textContains":
+                return element -> element.getAttribute("text").contains(argument);
+            case "textStartsWith":
+                return element -> element.getAttribute("text").startsWith(argument);
+            case "textMatches":
+                return element -> element.getAttribute("text").matches(argument);
+            case "description":
+                return attributeEquals("content-desc", argument);
+            case "descriptionContains":
+                return element -> element.getAttribute("content-desc").contains(argument);
+            case "descriptionStartsWith":
+                return element -> element.getAttribute("content-desc").startsWith(argument);
+            case "descriptionMatches":
+                return element -> element.getAttribute("content-desc").matches(argument);
+            case "resourceId":
+                return attributeEquals("resource-id", argument);
+            case "className":
+                return attributeEquals("class", argument);
+            case "index":
+                return attributeEquals("index", argument);
+            case "checked":
+            case "enabled":
+            case "clickable":
+            case "focused":
+            case "selected":
+            case "scrollable":
+                return attributeEquals(method, argument);
+            default:
+                throw new IllegalArgumentException("Unsupported UiSelector method " + method + " in: " + selector);
+        }
+    }
+
+    /**
+     * Evaluates a class chain such as **&#47;XCUIElementTypeOther[`label CONTAINS "x"`]/XCUIElementTypeButton[1].
+     * A segment prefixed with **&#47; searches all descendants of the previous matches, any other segment their
+     * children. A descendant predicate [$...$] keeps the elements with a matching descendant; an index selects among
+     * the matches of each previous match.
+     *
+     * @param document   the parsed page source
+     * @param classChain the class chain
+     * @return the matching elements
+     */
+    private static List<Element> evaluateClassChain(Document document, String classChain) {
+        List<String> segments = splitClassChain(classChain.trim());
+        if (!segments.get(0).startsWith("**/")) {
+            throw new IllegalArgumentException("Unsupported class chain: " + classChain);
+        }
+        List<Element> contexts = new ArrayList<>();
+        contexts.add(document.getDocumentElement());
+        for (String segment : segments) {
+            Matcher matcher = CLASS_CHAIN_SEGMENT.matcher(segment);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Unsupported class chain: " + classChain);
+            }
+            String type = matcher.group(2);
+            Predicate<Element> predicate = element -> type.equals("*") || type.equals(element.getTagName());
+            if (matcher.group(3) != null) {
+                predicate = predicate.and(parsePredicate(matcher.group(3)));
+            }
+            if (matcher.group(4) != null) {
+                Predicate<Element> descendant = parsePredicate(matcher.group(4));
+                predicate = predicate.and(element -> getDescendants(element).stream().anyMatch(descendant));
+            }
+            Set<Element> matches = new LinkedHashSet<>();
+            for (Element context : contexts) {
+                List<Element> elements = new ArrayList<>();
+                for (Element element : matcher.group(1) != null ? getDescendants(context) : getChildren(context)) {
+                    if (predicate.test(element)) {
+                        elements.add(element);
+                    }
+                }
+                if (matcher.group(5) != null) {
+                    int index = Integer.parseInt(matcher.group(5));
+                    int position = index > 0 ? index - 1 : elements.size() + index;
+                    if (position >= 0 && position < elements.size()) {
+                        matches.add(elements.get(position));
+                    }
+                } else {
+                    matches.addAll(elements);
+                }
+            }
+            contexts = inDocumentOrder(matches);
+        }
+        return contexts;
+    }
+
+    /**
+     * Splits a class chain into its segments, keeping the **&#47; prefix with the segment it applies to.
+     * Slashes inside predicates and quoted values do not split.
+     *
+     * @param classChain the class chain
+     * @return the segments
+     */
+    private static List<String> splitClassChain(String classChain) {
+        List<String> segments = new ArrayList<>();
+        StringBuilder segment = new StringBuilder();
+        char quote = 0;
+        int depth = 0;
+        for (char c : classChain.toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            }
+            if (c == '/' && quote == 0 && depth == 0 && !"**".contentEquals(segment)) {
+                segments.add(segment.toString());
+                segment.setLength(0);
+            } else {
+                segment.append(c);
+            }
+        }
+        segments.add(segment.toString());
+        return segments;
+    }
+
+    /**
+     * Parses a predicate string. AND binds tighter than OR; parentheses are not supported.
+     *
+     * @param predicate the predicate string
+     * @return the element predicate
+     */
+    private static Predicate<Element> parsePredicate(String predicate) {
+        Predicate<Element> any = element -> false;
+        for (String alternative : splitOutsideQuotes(predicate, " OR ")) {
+            Predicate<Element> all = element -> true;
+            for (String clause : splitOutsideQuotes(alternative, " AND ")) {
+                all = all.and(parsePredicateClause(clause));
+            }
+            any = any.or(all);
+        }
+        return any;
+    }
+
+    /**
+     * Parses one comparison of a predicate string.
+     *
+     * @param clause the comparison, e.g. label == 'PRODUCTS'
+     * @return the element predicate
+     */
+    private static Predicate<Element> parsePredicateClause(String clause) {
+        Matcher matcher = PREDICATE_CLAUSE.matcher(clause);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unsupported predicate: " + clause);
+        }
+        String attribute = matcher.group(1);
+        String operator = matcher.group(2).toUpperCase(Locale.ROOT);
+        boolean ignoreCase = matcher.group(3) != null;
+        String expected = ignoreCase ? matcher.group(5).toLowerCase(Locale.ROOT) : matcher.group(5);
+        return element -> {
+            String actual = attribute.equals("type") && !element.hasAttribute("type")
+                    ? element.getTagName() : element.getAttribute(attribute);
+            if (ignoreCase) {
+                actual = actual.toLowerCase(Locale.ROOT);
+            }
+            switch (operator) {
+                case "==":
+                    return normalizeBoolean(actual).equals(normalizeBoolean(expected));
+                case "!=":
+                    return !normalizeBoolean(actual).equals(normalizeBoolean(expected));
+                case "CONTAINS":
+                    return actual.contains(expected);
+                case "BEGINSWITH":
+                    return actual.startsWith(expected);
+                case "ENDSWITH":
+                    return actual.endsWith(expected);
+                default:
+                    return actual.matches(Pattern.quote(expected).replace("*", "\\E.*\\Q").replace("?", "\\E.\\Q"));
+            }
+        };
+    }
+
+    /**
+     * Maps the boolean spellings used by XCUITest page sources and predicates onto one form.
+     *
+     * @param value the attribute or predicate value
+     * @return "1" or "0" for booleans, the value itself otherwise
+     */
+    private static String normalizeBoolean(String value) {
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("yes")) {
+            return "1";
+        }
+        if (value.equalsIgnoreCase("false") || value.equalsIgnoreCase("no")) {
+            return "0";
+        }
+        return value;
+    }
+
+    /**
+     * Splits a string at a separator, ignoring separators inside quotes. The separator is matched case-insensitively.
+     *
+     * @param value     the string to split
+     * @param separator the separator, e.g. " AND "
+     * @return the parts
+     */
+    private static List<String> splitOutsideQuotes(String value, String separator) {
+        List<String> parts = new ArrayList<>();
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (value.regionMatches(true, i, separator, 0, separator.length())) {
+                parts.add(value.substring(start, i));
+                start = i + separator.length();
+                i = start - 1;
+            }
+        }
+        parts.add(value.substring(start));
+        return parts;
+    }
+
+    /**
+     * Returns a predicate comparing an attribute with a value.
+     *
+     * @param attribute the attribute name
+     * @param value     the expected value
+     * @return the element predicate
+     */
+    private static Predicate<Element> attributeEquals(String attribute, String value) {
+        return element -> value.equals(element.getAttribute(attribute));
+    }
+
+    /**
+     * Returns the elements of the document matching a predicate, in document order.
+     *
+     * @param document  the parsed page source
+     * @param predicate the element predicate
+     * @return the matching elements
+     */
+    private static List<Element> filter(Document document, Predicate<Element> predicate) {
+        List<Element> matches = new ArrayList<>();
+        for (Element element : getElements(document)) {
+            if (predicate.test(element)) {
+                matches.add(element);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the descendants of an element in document order, without the element itself.
+     *
+     * @param element the element
+     * @return the descendants
+     */
+    private static List<Element> getDescendants(Element element) {
+        NodeList nodes = element.getElementsByTagName("*");
+        List<Element> elements = new ArrayList<>(nodes.getLength() + 1);
+        for (int i = 0; i < nodes.getLength(); i++) {
+            elements.add((Element) nodes.item(i));
+        }
+        return elements;
+    }
+
+    /**
+     * Returns the child elements of an element in document order.
+     *
+     * @param element the element
+     * @return the child elements
+     */
+    private static List<Element> getChildren(Element element) {
+        List<Element> children = new ArrayList<>();
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                children.add((Element) child);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Sorts elements of one document into document order.
+     *
+     * @param elements the elements
+     * @return the elements in document order
+     */
+    private static List<Element> inDocumentOrder(Collection<Element> elements) {
+        List<Element> sorted = new ArrayList<>(elements);
+        sorted.sort((first, second) -> first == second ? 0
+                : (first.compareDocumentPosition(second) & Node.DOCUMENT_POSITION_FOLLOWING) != 0 ? -1 : 1);
+        return sorted;
+    }
+
+    /**
+     * Removes the quotes and escapes of a UiSelector string argument.
+     *
+     * @param argument the argument as written
+     * @return the unquoted argument
+     */
+    private static String unquote(String argument) {
+        String trimmed = argument.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).replace("\\\"", "\"").replace("\\\\", "\\");
+        }
+        return trimmed;
+    }
+}
@@ -0,0 +1,681 @@
+package com.saucedemo.app.utils;
+
+import com.saucedemo.app.controller.LoggerManager;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import io.appium.java_client.pagefactory.iOSXCUITFindBy;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Profiles every locator declared in com.saucedemo.app.pages against captured page sources and ranks them by
+ * evaluation cost. Locators are the @AndroidFindBy/@iOSXCUITFindBy annotations and the static String locator
+ * constants (ANDROID_* and IOS_*) of the page classes; %s placeholders are bound to each text of the page source.
+ * For every locator slower than an accessibility id, it suggests a cheaper accessibility id, id, UiSelector, predicate
+ * or class chain locator, either from the attributes of the matched node or from its path to the node carrying the
+ * binding, and marks it verified only if it matches exactly the same nodes for every binding.
+ * Page sources are .xml or .xml.gz files, e.g. captured by the flight recorder.
+ * Run with: mvn test -Dtest=LocatorProfilerBenchmark -Dlocator.profiler.sources=path/to/page-sources
+ */
+public class LocatorProfiler {
+    private static final String PAGES_PACKAGE = "com.saucedemo.app.pages";
+    private static final String REPORT_PATH = System.getProperty("user.dir") + "/target/reports/locator_profile.csv";
+    private static final int MEASURED_RUNS = 15;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private LocatorProfiler() {}
+
+    /**
+     * Profiles the page locators against the page sources in a folder, writes target/reports/locator_profile.csv
+     * and logs the most expensive locators.
+     *
+     * @param sourcesFolder the folder with .xml or .xml.gz page sources
+     * @return the results, most expensive first
+     */
+    public static List<Result> run(File sourcesFolder) {
+        List<Result> results = profile(findLocators(), loadPageSources(sourcesFolder));
+        writeReport(results, new File(REPORT_PATH));
+        for (Result result : results.subList(0, Math.min(10, results.size()))) {
+            LoggerManager.info("Locator profile: {}", result);
+        }
+        return results;
+    }
+
+    /**
+     * Collects the locators declared in the page classes of com.saucedemo.app.pages.
+     *
+     * @return the declared locators
+     */
+    public static List<Locator> findLocators() {
+        List<Locator> locators = new ArrayList<>();
+        for (Class<?> page : findPageClasses()) {
+            for (Field field : page.getDeclaredFields()) {
+                AndroidFindBy android = field.getAnnotation(AndroidFindBy.class);
+                if (android != null) {
+                    addAnnotated(locators, page, field, true, android.accessibility(), android.id(), android.uiAutomator(), android.xpath());
+                }
+                iOSXCUITFindBy ios = field.getAnnotation(iOSXCUITFindBy.class);
+                if (ios != null) {
+                    addAnnotated(locators, page, field, false, ios.accessibility(), ios.id(), ios.iOSNsPredicate(), ios.iOSClassChain(), ios.xpath());
+                }
+                if (field.getType() == String.class && Modifier.isStatic(field.getModifiers()) && Modifier.isFinal(field.getModifiers())
+                        && (field.getName().startsWith("ANDROID_") || field.getName().startsWith("IOS_"))) {
+                    try {
+                        field.setAccessible(true);
+                        String value = (String) field.get(null);
+                        locators.add(new Locator(page.getSimpleName(), field.getName(), field.getName().startsWith("ANDROID_"),
+                                LocatorEvaluator.detectStrategy(value), value));
+                    } catch (IllegalAccessException e) {
+                        throw new RuntimeException("Failed to read locator " + page.getSimpleName() + "." + field.getName(), e);
+                    }
+                }
+            }
+        }
+        return locators;
+    }
+
+    /**
+     * Profiles the locators against the page sources of their platform.
+     *
+     * @param locators    the locators to profile
+     * @param pageSources the parsed page sources
+     * @return one result per locator and page source it matched, plus one per locator that matched none;
+     * most expensive first
+     */
+    public static List<Result> profile(List<Locator> locators, List<Document> pageSources) {
+        List<Result> results = new ArrayList<>();
+        for (Locator locator : locators) {
+            boolean matched = false;
+            for (Document document : pageSources) {
+                if (LocatorEvaluator.isAndroid(document) != locator.android) {
+                    continue;
+                }
+                Result result = profile(locator, document);
+                if (result != null) {
+                    results.add(result);
+                    matched = true;
+                }
+            }
+            if (!matched) {
+                results.add(new Result(locator, 0, 0L, null, "no match in the page sources"));
+            }
+        }
+        results.sort(Comparator.comparingInt((Result result) -> LocatorEvaluator.getCostTier(result.locator.strategy))
+                .thenComparingLong(result -> result.medianNanos).reversed());
+        return results;
+    }
+
+    /**
+     * Writes the results as CSV.
+     *
+     * @param results the results
+     * @param file    the CSV file
+     */
+    public static void writeReport(List<Result> results, File file) {
+        file.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.println("rank,page,field,platform,strategy,tier,matches,medianUs,locator,suggestedStrategy,suggestedLocator,note");
+            int rank = 1;
+            for (Result result : results) {
+                Locator locator = result.locator;
+                writer.println(String.join(",", Arrays.asList(String.valueOf(rank++), locator.page, locator.field,
+                        locator.android ? "android" : "ios", locator.strategy, String.valueOf(LocatorEvaluator.getCostTier(locator.strategy)),
+                        String.valueOf(result.matches), String.format("%.1f", result.medianNanos / 1000.0), csv(locator.value),
+                        result.suggestion == null ? "" : result.suggestion.strategy,
+                        result.suggestion == null ? "" : csv(result.suggestion.value), csv(result.note))));
+            }
+        } catch (IOException e) {
+            LoggerManager.error("Error while writing locator profile: " + e.getMessage());
+        }
+        LoggerManager.info("Locator profile written to: {}", file.getPath());
+    }
+
+    /**
+     * Reads and parses the .xml and .xml.gz page sources of a folder.
+     *
+     * @param folder the folder
+     * @return the parsed page sources
+     */
+    public static List<Document> loadPageSources(File folder) {
+        List<Document> documents = new ArrayList<>();
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".xml") || name.endsWith(".xml.gz"));
+        if (files == null) {
+            return documents;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            try (InputStream input = file.getName().endsWith(".gz")
+                    ? new GZIPInputStream(new FileInputStream(file)) : new FileInputStream(file)) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, read);
+                }
+                documents.add(LocatorEvaluator.parse(new String(bytes.toByteArray(), StandardCharsets.UTF_8)));
+            } catch (IOException | RuntimeException e) {
+                LoggerManager.error("Skipping page source " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Profiles one locator against one page source.
+     *
+     * @param locator  the locator
+     * @param document the parsed page source
+     * @return the result, or null if the locator matches nothing in the page source
+     */
+    private static Result profile(Locator locator, Document document) {
+        List<String> bindings;
+        try {
+            bindings = findBindings(locator, document);
+        } catch (IllegalArgumentException e) {
+            return new Result(locator, 0, 0L, null, "unsupported: " + e.getMessage());
+        }
+        if (bindings.isEmpty()) {
+            return null;
+        }
+        String value = bind(locator.value, bindings.get(0));
+        List<Element> matches = LocatorEvaluator.evaluate(document, locator.strategy, value);
+        long medianNanos = measure(document, locator.strategy, value);
+        if (LocatorEvaluator.getCostTier(locator.strategy) == 1) {
+            return new Result(locator, matches.size(), medianNanos, null, "");
+        }
+        if (locator.value.contains("UiScrollable")) {
+            return new Result(locator, matches.size(), medianNanos, null, "scrolls into view; not rewritten");
+        }
+        Set<String> tried = new HashSet<>();
+        for (String binding : bindings) {
+            Element target = LocatorEvaluator.evaluate(document, locator.strategy, bind(locator.value, binding)).get(0);
+            for (Locator candidate : suggestRewrites(locator, target, binding)) {
+                if (tried.add(candidate.strategy + ":" + candidate.value)
+                        && LocatorEvaluator.getCostTier(candidate.strategy) < LocatorEvaluator.getCostTier(locator.strategy)
+                        && isEquivalent(locator, candidate, document, bindings)) {
+                    long candidateNanos = measure(document, candidate.strategy, bind(candidate.value, bindings.get(0)));
+                    return new Result(locator, matches.size(), medianNanos, candidate,
+                            String.format("verified on %d binding(s); %.1f us locally", bindings.size(), candidateNanos / 1000.0));
+                }
+            }
+        }
+        return new Result(locator, matches.size(), medianNanos, null, "no unique cheaper locator");
+    }
+
+    /**
+     * Finds the values for the %s placeholders of a locator that make it match in the page source.
+     * Locators without placeholders have a single empty binding if they match.
+     *
+     * @param locator  the locator
+     * @param document the parsed page source
+     * @return the matching bindings
+     */
+    private static List<String> findBindings(Locator locator, Document document) {
+        List<String> bindings = new ArrayList<>();
+        if (!locator.value.contains("%s")) {
+            if (!LocatorEvaluator.evaluate(document, locator.strategy, locator.value).isEmpty()) {
+                bindings.add("");
+            }
+            return bindings;
+        }
+        Set<String> candidates = new LinkedHashSet<>();
+        for (Element element : LocatorEvaluator.getElements(document)) {
+            for (String attribute : locator.android ? new String[] {"text", "content-desc"} : new String[] {"label", "name"}) {
+                String value = element.getAttribute(attribute);
+                if (!value.isEmpty() && value.indexOf('\'') < 0 && value.indexOf('"') < 0) {
+                    candidates.add(value);
+                }
+            }
+        }
+        for (String candidate : candidates) {
+            if (!LocatorEvaluator.evaluate(document, locator.strategy, bind(locator.value, candidate)).isEmpty()) {
+                bindings.add(candidate);
+            }
+        }
+        return bindings;
+    }
+
+    /**
+     * Builds rewrite candidates for the node a locator matched with one binding, cheapest first. Attribute values
+     * equal to the binding are replaced by %s, so the rewrite stays a template.
+     *
+     * @param locator the locator to rewrite
+     * @param target  the first node it matched with the binding
+     * @param binding the binding of the match
+     * @return the candidates
+     */
+    private static List<Locator> suggestRewrites(Locator locator, Element target, String binding) {
+        List<Locator> candidates = new ArrayList<>();
+        if (locator.android) {
+            String description = template(target.getAttribute("content-desc"), binding);
+            String resourceId = target.getAttribute("resource-id");
+            String text = template(target.getAttribute("text"), binding);
+            String className = target.getAttribute("class");
+            addCandidate(candidates, locator, LocatorEvaluator.ACCESSIBILITY_ID, description, description);
+            addCandidate(candidates, locator, LocatorEvaluator.ID, resourceId, resourceId);
+            addCandidate(candidates, locator, LocatorEvaluator.UI_AUTOMATOR, "new UiSelector().text(\"" + text + "\")", text);
+            addCandidate(candidates, locator, LocatorEvaluator.UI_AUTOMATOR,
+                    "new UiSelector().className(\"" + className + "\").text(\"" + text + "\")", text);
+            addCandidate(candidates, locator, LocatorEvaluator.UI_AUTOMATOR,
+                    "new UiSelector().className(\"" + className + "\").description(\"" + description + "\")", description);
+        } else {
+            String name = template(target.getAttribute("name"), binding);
+            String label = template(target.getAttribute("label"), binding);
+            String type = target.getTagName();
+            addCandidate(candidates, locator, LocatorEvaluator.ACCESSIBILITY_ID, name, name);
+            addCandidate(candidates, locator, LocatorEvaluator.PREDICATE, "label == '" + label + "' AND type == '" + type + "'", label);
+            addCandidate(candidates, locator, LocatorEvaluator.PREDICATE, "name == '" + name + "' AND type == '" + type + "'", name);
+        }
+        if (!binding.isEmpty()) {
+            addStructuralRewrites(candidates, locator, target, binding);
+        }
+        return candidates;
+    }
+
+    /**
+     * Adds relational rewrite candidates that reach the target from the node carrying the binding, for targets
+     * without a unique attribute of their own, such as the ADD TO CART button of a product. On Android the path is
+     * a UiSelector that climbs with fromParent and descends with childSelector; on iOS it is a class chain anchored
+     * on the closest common ancestor, by a label containing the binding or by a descendant predicate on the binding.
+     * Each path is tried with and without the attributes of the target.
+     *
+     * @param candidates the candidates
+     * @param locator    the locator to rewrite
+     * @param target     the first node it matched
+     * @param binding    the binding of the match
+     */
+    private static void addStructuralRewrites(List<Locator> candidates, Locator locator, Element target, String binding) {
+        Element source = findBindingNode(target, binding, locator.android);
+        if (source == null || source == target) {
+            return;
+        }
+        List<Element> targetPath = getAncestors(target);
+        List<Element> up = new ArrayList<>();
+        Element common = source;
+        while (!targetPath.contains(common)) {
+            common = (Element) common.getParentNode();
+            up.add(common);
+        }
+        List<Element> down = new ArrayList<>(targetPath.subList(0, targetPath.indexOf(common)));
+        Collections.reverse(down);
+        if (locator.android) {
+            for (boolean bareTarget : new boolean[] {false, true}) {
+                String path = null;
+                for (int i = down.size() - 1; i >= 0; i--) {
+                    String node = uiSelector(down.get(i), binding, bareTarget && down.get(i) == target);
+                    path = path == null ? node : node + ".childSelector(" + path + ")";
+                }
+                String value;
+                if (up.isEmpty()) {
+                    value = uiSelector(source, binding, false) + ".childSelector(" + path + ")";
+                } else {
+                    String inner = path != null ? path : uiSelector(common, binding, bareTarget);
+                    for (int i = up.size() - 2; i >= 0; i--) {
+                        inner = uiSelector(up.get(i), binding, false) + ".fromParent(" + inner + ")";
+                    }
+                    value = uiSelector(source, binding, false) + ".fromParent(" + inner + ")";
+                }
+                addCandidate(candidates, locator, LocatorEvaluator.UI_AUTOMATOR, value, binding);
+            }
+        } else {
+            String name = common.getAttribute("name");
+            String type = !name.isEmpty() && !name.equals(binding) && name.indexOf('\'') < 0 && name.indexOf('`') < 0
+                    ? common.getTagName() + "[`name == '" + name + "'`]" : common.getTagName();
+            String attribute = source.getAttribute("name").equals(binding) ? "name" : "label";
+            List<String> anchors = new ArrayList<>();
+            if (common == source) {
+                anchors.add("**/" + common.getTagName() + "[`" + attribute + " == '%s'`]");
+            } else {
+                if (common.getAttribute("label").contains(binding)) {
+                    anchors.add("**/" + (type.equals(common.getTagName())
+                            ? type + "[`label CONTAINS '%s'`]" : type.replace("'`]", "' AND label CONTAINS '%s'`]")));
+                }
+                anchors.add("**/" + type + "[$" + attribute + " == '%s'$]");
+            }
+            for (String anchor : anchors) {
+                if (down.isEmpty()) {
+                    addCandidate(candidates, locator, LocatorEvaluator.CLASS_CHAIN, anchor, binding);
+                    continue;
+                }
+                addCandidate(candidates, locator, LocatorEvaluator.CLASS_CHAIN, anchor + "/**/" + classChainSegment(target, binding, false), binding);
+                for (boolean bareTarget : new boolean[] {false, true}) {
+                    StringBuilder value = new StringBuilder(anchor);
+                    for (Element node : down) {
+                        value.append('/').append(classChainSegment(node, binding, bareTarget && node == target));
+                    }
+                    addCandidate(candidates, locator, LocatorEvaluator.CLASS_CHAIN, value.toString(), binding);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the node carrying the binding (text or content-desc on Android, label or name on iOS) that is closest
+     * to the target in the tree.
+     *
+     * @param target  the matched node
+     * @param binding the binding
+     * @param android whether the page source is an Android one
+     * @return the closest node carrying the binding, or null if there is none
+     */
+    private static Element findBindingNode(Element target, String binding, boolean android) {
+        List<Element> targetPath = getAncestors(target);
+        Element closest = null;
+        int closestDistance = Integer.MAX_VALUE;
+        for (Element element : LocatorEvaluator.getElements(target.getOwnerDocument())) {
+            if (!element.getAttribute(android ? "text" : "label").equals(binding)
+                    && !element.getAttribute(android ? "content-desc" : "name").equals(binding)) {
+                continue;
+            }
+            int distance = 0;
+            Element node = element;
+            while (node != null && !targetPath.contains(node)) {
+                node = node.getParentNode() instanceof Element ? (Element) node.getParentNode() : null;
+                distance++;
+            }
+            if (node != null && distance + targetPath.indexOf(node) < closestDistance) {
+                closest = element;
+                closestDistance = distance + targetPath.indexOf(node);
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Returns a node and its ancestors, the node first.
+     *
+     * @param element the node
+     * @return the node and its ancestors up to the root element
+     */
+    private static List<Element> getAncestors(Element element) {
+        List<Element> ancestors = new ArrayList<>();
+        for (Node node = element; node instanceof Element; node = node.getParentNode()) {
+            ancestors.add((Element) node);
+        }
+        return ancestors;
+    }
+
+    /**
+     * Builds a UiSelector for one node of a structural path: the binding if the node carries it, otherwise its
+     * content-desc, its text or its class.
+     *
+     * @param element the node
+     * @param binding the binding
+     * @param bare    whether to select the node by its class only
+     * @return the UiSelector
+     */
+    private static String uiSelector(Element element, String binding, boolean bare) {
+        String description = element.getAttribute("content-desc");
+        String text = element.getAttribute("text");
+        if (!bare && description.equals(binding)) {
+            return "new UiSelector().description(\"%s\")";
+        }
+        if (!bare && text.equals(binding)) {
+            return "new UiSelector().text(\"%s\")";
+        }
+        if (!bare && !description.isEmpty() && description.indexOf('"') < 0) {
+            return "new UiSelector().description(\"" + description + "\")";
+        }
+        if (!bare && !text.isEmpty() && text.indexOf('"') < 0) {
+            return "new UiSelector().text(\"" + text + "\")";
+        }
+        return "new UiSelector().className(\"" + element.getAttribute("class") + "\")";
+    }
+
+    /**
+     * Builds a class chain segment for one node of a structural path: its type, with its name unless bare.
+     *
+     * @param element the node
+     * @param binding the binding
+     * @param bare    whether to select the node by its type only
+     * @return the class chain segment
+     */
+    private static String classChainSegment(Element element, String binding, boolean bare) {
+        String name = template(element.getAttribute("name"), binding);
+        if (bare || name.isEmpty() || name.indexOf('\'') >= 0 || name.indexOf('`') >= 0) {
+            return element.getTagName();
+        }
+        return element.getTagName() + "[`name == '" + name + "'`]";
+    }
+
+    /**
+     * Adds a rewrite candidate if its key attribute is set and it keeps the placeholder of a template locator.
+     *
+     * @param candidates the candidates
+     * @param locator    the locator to rewrite
+     * @param strategy   the candidate strategy
+     * @param value      the candidate locator
+     * @param key        the attribute value the candidate relies on
+     */
+    private static void addCandidate(List<Locator> candidates, Locator locator, String strategy, String value, String key) {
+        if (key.isEmpty() || key.indexOf('\'') >= 0 || key.indexOf('"') >= 0
+                || locator.value.contains("%s") != value.contains("%s")) {
+            return;
+        }
+        candidates.add(new Locator(locator.page, locator.field, locator.android, strategy, value));
+    }
+
+    /**
+     * Checks that a rewrite matches exactly the same nodes as the original locator for every binding.
+     *
+     * @param locator   the original locator
+     * @param candidate the rewrite
+     * @param document  the parsed page source
+     * @param bindings  the bindings the original matched with
+     * @return true if both match the same nodes for every binding
+     */
+    private static boolean isEquivalent(Locator locator, Locator candidate, Document document, List<String> bindings) {
+        for (String binding : bindings) {
+            List<Element> expected = LocatorEvaluator.evaluate(document, locator.strategy, bind(locator.value, binding));
+            List<Element> actual = LocatorEvaluator.evaluate(document, candidate.strategy, bind(candidate.value, binding));
+            if (expected.size() != actual.size()) {
+                return false;
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                if (expected.get(i) != actual.get(i)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the median local evaluation time of a locator.
+     *
+     * @param document the parsed page source
+     * @param strategy the strategy
+     * @param value    the bound locator
+     * @return the median nanoseconds per evaluation
+     */
+    private static long measure(Document document, String strategy, String value) {
+        long[] nanos = new long[MEASURED_RUNS];
+        LocatorEvaluator.evaluate(document, strategy, value);
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            LocatorEvaluator.evaluate(document, strategy, value);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[MEASURED_RUNS / 2];
+    }
+
+    /**
+     * Adds the locators of a page-factory annotation. Empty annotation attributes are skipped.
+     *
+     * @param locators the locators
+     * @param page     the page class
+     * @param field    the annotated field
+     * @param android  whether the annotation is the Android one
+     * @param values   the annotation values, in the order accessibility, id, then the platform strategies
+     */
+    private static void addAnnotated(List<Locator> locators, Class<?> page, Field field, boolean android, String... values) {
+        String[] strategies = android
+                ? new String[] {LocatorEvaluator.ACCESSIBILITY_ID, LocatorEvaluator.ID, LocatorEvaluator.UI_AUTOMATOR, LocatorEvaluator.XPATH}
+                : new String[] {LocatorEvaluator.ACCESSIBILITY_ID, LocatorEvaluator.ID, LocatorEvaluator.PREDICATE, LocatorEvaluator.CLASS_CHAIN, LocatorEvaluator.XPATH};
+        for (int i = 0; i < values.length; i++) {
+            if (!values[i].isEmpty()) {
+                locators.add(new Locator(page.getSimpleName(), field.getName(), android, strategies[i], values[i]));
+            }
+        }
+    }
+
+    /**
+     * Lists the classes of com.saucedemo.app.pages from the class output folder.
+     *
+     * @return the page classes
+     */
+    private static List<Class<?>> findPageClasses() {
+        List<Class<?>> classes = new ArrayList<>();
+        URL url = LocatorProfiler.class.getClassLoader().getResource(PAGES_PACKAGE.replace('.', '/'));
+        if (url == null || !"file".equals(url.getProtocol())) {
+            throw new IllegalStateException("Page classes not found on the file system: " + url);
+        }
+        try {
+            File[] files = new File(url.toURI()).listFiles((dir, name) -> name.endsWith(".class") && !name.contains("$"));
+            Arrays.sort(files);
+            for (File file : files) {
+                classes.add(Class.forName(PAGES_PACKAGE + "." + file.getName().replace(".class", "")));
+            }
+        } catch (URISyntaxException | ClassNotFoundException e) {
+            throw new RuntimeException("Failed to list page classes: " + e.getMessage(), e);
+        }
+        return classes;
+    }
+
+    /**
+     * Replaces every %s placeholder of a locator with the binding.
+     *
+     * @param value   the locator
+     * @param binding the binding
+     * @return the bound locator
+     */
+    private static String bind(String value, String binding) {
+        return value.replace("%s", binding);
+    }
+
+    /**
+     * Turns an attribute value equal to the binding back into a %s placeholder.
+     *
+     * @param value   the attribute value
+     * @param binding the binding
+     * @return the value or %s
+     */
+    private static String template(String value, String binding) {
+        return !binding.isEmpty() && value.equals(binding) ? "%s" : value;
+    }
+
+    /**
+     * Quotes a value for CSV.
+     *
+     * @param value the value
+     * @return the quoted value
+     */
+    private static String csv(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * A locator declared in a page class.
+     */
+    public static final class Locator {
+        private final String page;
+        private final String field;
+        private final boolean android;
+        private final String strategy;
+        private final String value;
+
+        private Locator(String page, String field, boolean android, String strategy, String value) {
+            this.page = page;
+            this.field = field;
+            this.android = android;
+            this.strategy = strategy;
+            this.value = value;
+        }
+
+        public String getPage() {
+            return page;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getStrategy() {
+            return strategy;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return page + "." + field + " (" + (android ? "android" : "ios") + ", " + strategy + "): " + value;
+        }
+    }
+
+    /**
+     * The profile of one locator against one page source.
+     */
+    public static final class Result {
+        private final Locator locator;
+        private final int matches;
+        private final long medianNanos;
+        private final Locator suggestion;
+        private final String note;
+
+        private Result(Locator locator, int matches, long medianNanos, Locator suggestion, String note) {
+            this.locator = locator;
+            this.matches = matches;
+            this.medianNanos = medianNanos;
+            this.suggestion = suggestion;
+            this.note = note;
+        }
+
+        public Locator getLocator() {
+            return locator;
+        }
+
+        public long getMedianNanos() {
+            return medianNanos;
+        }
+
+        /**
+         * @return the verified cheaper locator, or null if there is none
+         */
+        public Locator getSuggestion() {
+            return suggestion;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s matches=%d, median=%.1f us%s%s", locator, matches, medianNanos / 1000.0,
+                    suggestion == null ? "" : " -> " + suggestion.strategy + ": " + suggestion.value,
+                    note.isEmpty() ? "" : " [" + note + "]");
+        }
+    }
+}
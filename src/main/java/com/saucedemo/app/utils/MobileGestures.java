@@ -1,10 +1,13 @@
 package com.saucedemo.app.utils;
 
 import com.google.common.collect.ImmutableMap;
+import com.saucedemo.app.controller.ScrollEngine;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Rectangle;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
 import org.openqa.selenium.remote.RemoteWebElement;
 
 import java.util.HashMap;
@@ -16,14 +19,30 @@ import java.util.Map;
 public interface MobileGestures {
 
     /**
-     * Performs a tap gesture on the given element.
+     * Performs a tap gesture on the given element. On Android, clickGesture targets the element id and taps its
+     * center on the device, so no geometry is queried. On iOS, the tap coordinates come from a single rect query.
      *
      * @param driver  the Appium driver instance
      * @param element the WebElement to tap
      */
     default void tap(AppiumDriver driver, WebElement element) {
-        executeGestureByElementLocation(driver, element,
-                driver instanceof AndroidDriver ? "mobile: clickGesture" : "mobile: tap");
+        if (driver instanceof AndroidDriver) {
+            executeGesture(driver, element, "mobile: clickGesture");
+        } else {
+            executeGestureByElementLocation(driver, element, "mobile: tap");
+        }
+    }
+
+    /**
+     * Performs a tap gesture at the center of the given bounds, e.g. of an element read from the page source,
+     * without looking the element up: clickGesture on Android, tap on iOS.
+     *
+     * @param driver the Appium driver instance
+     * @param rect   the bounds to tap
+     */
+    default void tap(AppiumDriver driver, Rectangle rect) {
+        executeGesture(driver, driver instanceof AndroidDriver ? "mobile: clickGesture" : "mobile: tap",
+                ImmutableMap.<String, Object>of("x", rect.getX() + rect.getWidth() / 2, "y", rect.getY() + rect.getHeight() / 2));
     }
 
     /**
@@ -58,41 +77,34 @@ public interface MobileGestures {
     }
 
     /**
-     * Scrolls down on the screen based on hardcoded coordinates.
+     * Scrolls down by scroll.step.far of the scroll region, derived from the window size.
      *
      * @param driver the Appium driver instance
      */
     default void scrollDown(AppiumDriver driver) {
-        Map<String, Object> params = new HashMap<>();
-        params.put("top", 1900);
-        params.put("left", 450);
-        params.put("width", 400);
-        params.put("height", 1300);
-        params.put("direction", "down");
-        params.put("percent", 0.75);
-        if (driver instanceof AndroidDriver)
-            executeGesture(driver, "mobile:scrollGesture", params);
-        else
-            executeGesture(driver, "mobile:scroll", params);
+        scroll(driver, "down", Constants.SCROLL_STEP_FAR);
     }
 
     /**
-     * Scrolls up on the screen based on hardcoded coordinates.
+     * Scrolls up by scroll.step.far of the scroll region, derived from the window size.
      *
      * @param driver the Appium driver instance
      */
     default void scrollUp(AppiumDriver driver) {
-        Map<String, Object> params = new HashMap<>();
-        params.put("top", 1900);
-        params.put("left", 450);
-        params.put("width", 400);
-        params.put("height", 1300);
-        params.put("direction", "up");
-        params.put("percent", 0.75);
-        if (driver instanceof AndroidDriver)
-            executeGesture(driver, "mobile:scrollGesture", params);
-        else
-            executeGesture(driver, "mobile:scroll", params);
+        scroll(driver, "up", Constants.SCROLL_STEP_FAR);
+    }
+
+    /**
+     * Scrolls within the scroll region of the ScrollEngine.
+     *
+     * @param driver    the Appium driver instance
+     * @param direction the direction to scroll ("up" or "down")
+     * @param percent   the distance as a fraction of the scroll region height
+     * @return the result of the gesture; on Android, whether the region can scroll further
+     */
+    default Object scroll(AppiumDriver driver, String direction, double percent) {
+        return executeGesture(driver, ScrollEngine.getScrollGesture(driver),
+                ScrollEngine.getScrollParams(driver, direction, percent));
     }
 
     /**
@@ -106,9 +118,7 @@ public interface MobileGestures {
         if (element == null) {
             throw new IllegalArgumentException("WebElement must not be null.");
         }
-        String elementId = ((RemoteWebElement) element).getId();
-        ((JavascriptExecutor) driver).executeScript(
-                gestureName, ImmutableMap.of("elementId", elementId));
+        executeGesture(driver, gestureName, ImmutableMap.<String, Object>of("elementId", getElementId(element)));
     }
 
     /**
@@ -134,8 +144,7 @@ public interface MobileGestures {
         if (element == null) {
             throw new IllegalArgumentException("WebElement must not be null.");
         }
-        String elementId = ((RemoteWebElement) element).getId();
-        params.put("elementId", elementId);
+        params.put("elementId", getElementId(element));
         return executeGesture(driver, gestureName, params);
     }
 
@@ -150,9 +159,30 @@ public interface MobileGestures {
         if (element == null) {
             throw new IllegalArgumentException("WebElement must not be null.");
         }
-        int centerX = element.getLocation().getX() + (element.getSize().getWidth() / 2);
-        int centerY = element.getLocation().getY() + (element.getSize().getHeight() / 2);
-        ((JavascriptExecutor) driver).executeScript(
-                gestureName, ImmutableMap.of("x", centerX, "y", centerY));
+        Rectangle rect = getElementRect(element);
+        int centerX = rect.getX() + (rect.getWidth() / 2);
+        int centerY = rect.getY() + (rect.getHeight() / 2);
+        executeGesture(driver, gestureName, ImmutableMap.<String, Object>of("x", centerX, "y", centerY));
+    }
+
+    /**
+     * Returns the id of the given element, unwrapping PageFactory proxies.
+     *
+     * @param element the WebElement
+     * @return the element id
+     */
+    default String getElementId(WebElement element) {
+        WebElement target = element instanceof WrapsElement ? ((WrapsElement) element).getWrappedElement() : element;
+        return ((RemoteWebElement) target).getId();
+    }
+
+    /**
+     * Returns the location and size of the given element in a single call.
+     *
+     * @param element the WebElement to measure
+     * @return the element rect
+     */
+    default Rectangle getElementRect(WebElement element) {
+        return element.getRect();
     }
 }
\ No newline at end of file
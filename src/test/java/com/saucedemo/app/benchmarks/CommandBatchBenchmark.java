@@ -0,0 +1,176 @@
+package com.saucedemo.app.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.saucedemo.app.base.BasePage;
+import com.saucedemo.app.controller.CommandBatch;
+import com.saucedemo.app.controller.LoggerManager;
+import com.saucedemo.app.controller.WaitStrategy;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import io.appium.java_client.pagefactory.AppiumFieldDecorator;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.PageFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Submits a login form (two text fields, their read back and a click) through BasePage.submitForm on stand-in
+ * Appium servers with 50 ms of latency per request: one with the execute-driver endpoint enabled, where the step is
+ * one round trip, and one without, where the page fills the form through fillFields and taps the button. Logs the
+ * round trips and milliseconds saved, and checks that a command failing in the batch hands the rest of the step to
+ * the page without repeating the commands the server ran.
+ * Run with: mvn test -Dtest=CommandBatchBenchmark
+ */
+public class CommandBatchBenchmark extends ConfiguredBenchmark {
+    private static final long LATENCY_MILLIS = 50;
+
+    @Test(description = "A batched step costs one round trip instead of one per driver command")
+    public void batchedStepSavesRoundTrips() throws IOException {
+        int[] perCommand = measureLogin(false);
+        int[] batched = measureLogin(true);
+
+        LoggerManager.info("Login step: {} round trips and {} ms batched, {} round trips and {} ms per command",
+                batched[0], batched[1], perCommand[0], perCommand[1]);
+        LoggerManager.info(CommandBatch.getMetricsSummary());
+        Assert.assertEquals(batched[0], 1);
+        Assert.assertTrue(batched[0] < perCommand[0], "Batched step took " + batched[0] + " round trips, per command " + perCommand[0]);
+        Assert.assertTrue(batched[1] < perCommand[1], "Batched step took " + batched[1] + " ms, per command " + perCommand[1] + " ms");
+    }
+
+    @Test(description = "A command failing in the batch hands the rest of the step to the page")
+    public void failedCommandResumesOnPage() throws IOException {
+        try (StubAppiumServer server = new StubAppiumServer()) {
+            server.setExecuteDriverEnabled(true);
+            StubAppiumServer.StubElement username = server.addElement("accessibility id", "test-Username");
+            StubAppiumServer.StubElement password = server.addElement("accessibility id", "test-Password").appearAfter(500);
+            StubAppiumServer.StubElement login = server.addElement("accessibility id", "test-LOGIN");
+            server.setScriptHandler(script -> handleScript(server, script));
+            AppiumDriver driver = server.newDriver();
+            try {
+                StubPage page = new StubPage(driver);
+
+                WaitStrategy.explicitly(driver, page::login);
+
+                Assert.assertEquals(username.getText(), "standard_user");
+                Assert.assertEquals(password.getText(), "secret_sauce");
+                Assert.assertEquals(server.getRequestCount("POST /appium/execute_driver"), 1);
+                Assert.assertEquals(countScripts(server, "mobile: replaceElementValue", username), 0L,
+                        "The username set in the batch was set again.");
+                Assert.assertEquals(countScripts(server, "mobile: replaceElementValue", password), 1L);
+                Assert.assertEquals(countScripts(server, "mobile: clickGesture", login), 1L, "The login button was not tapped once.");
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    /**
+     * Submits the login form twice on a fresh server and measures the second run, after a server without the
+     * execute-driver endpoint has rejected the first batch.
+     *
+     * @param executeDriverEnabled whether the server runs driver scripts
+     * @return the round trips and milliseconds of the step
+     */
+    private static int[] measureLogin(boolean executeDriverEnabled) throws IOException {
+        try (StubAppiumServer server = new StubAppiumServer()) {
+            server.setExecuteDriverEnabled(executeDriverEnabled);
+            StubAppiumServer.StubElement username = server.addElement("accessibility id", "test-Username");
+            StubAppiumServer.StubElement password = server.addElement("accessibility id", "test-Password");
+            server.addElement("accessibility id", "test-LOGIN");
+            server.setScriptHandler(script -> handleScript(server, script));
+            AppiumDriver driver = server.newDriver();
+            try {
+                WaitStrategy.init(driver);
+                StubPage page = new StubPage(driver);
+                page.login();
+                Assert.assertEquals(server.getRequestCount("POST /appium/execute_driver"), 1);
+                username.text("");
+                password.text("");
+                server.setLatency(LATENCY_MILLIS);
+                server.resetCounts();
+                long start = System.nanoTime();
+
+                page.login();
+
+                int millis = (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                int roundTrips = server.getTotalRequests();
+                server.setLatency(0);
+                Assert.assertEquals(username.getText(), "standard_user");
+                Assert.assertEquals(password.getText(), "secret_sauce");
+                Assert.assertEquals(server.getRequestCount("POST /appium/execute_driver"), executeDriverEnabled ? 1 : 0,
+                        "A rejected server was asked again.");
+                return new int[]{roundTrips, millis};
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    /**
+     * Counts the scripts the server received for an element.
+     *
+     * @param server  the stand-in server
+     * @param script  the script, e.g. "mobile: clickGesture"
+     * @param element the target element
+     * @return the number of scripts
+     */
+    private static long countScripts(StubAppiumServer server, String script, StubAppiumServer.StubElement element) {
+        return server.getScripts().stream().filter(body -> body.get("script").asText().equals(script)
+                && body.get("args").get(0).path("elementId").asText().equals(element.getId())).count();
+    }
+
+    /**
+     * Answers the scripts of the stand-in server: the keyboard is always shown, and replaceElementValue sets the
+     * text of its element.
+     *
+     * @param server the stand-in server
+     * @param script the recorded execute/sync body
+     * @return the script result
+     */
+    private static Object handleScript(StubAppiumServer server, JsonNode script) {
+        JsonNode args = script.get("args").size() > 0 ? script.get("args").get(0) : null;
+        switch (script.get("script").asText()) {
+            case "mobile: isKeyboardShown":
+                return true;
+            case "mobile: replaceElementValue":
+                server.getElement(args.get("elementId").asText()).text(args.get("text").asText());
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Login page of the stand-in server. It batches its steps whatever the configuration, as the stand-in servers
+     * decide whether the execute-driver endpoint exists.
+     */
+    private static final class StubPage extends BasePage {
+        @AndroidFindBy(accessibility = "test-Username")
+        private WebElement userNameInput;
+
+        @AndroidFindBy(accessibility = "test-Password")
+        private WebElement passwordInput;
+
+        @AndroidFindBy(accessibility = "test-LOGIN")
+        private WebElement loginButton;
+
+        private StubPage(AppiumDriver driver) {
+            super(driver);
+            PageFactory.initElements(new AppiumFieldDecorator(driver), this);
+        }
+
+        @Override
+        protected boolean isBatchEnabled() {
+            return true;
+        }
+
+        private void login() {
+            submitForm("Login", Arrays.asList(userNameInput, passwordInput), Arrays.asList("standard_user", "secret_sauce"),
+                    loginButton, "Login button is not clickable");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.saucedemo.app.benchmarks;
+
+import com.saucedemo.app.utils.PropertyUtils;
+import org.testng.annotations.BeforeClass;
+
+import java.io.IOException;
+
+/**
+ * Base of the benchmarks that run framework code. Loads Config.properties before Constants is first read, as
+ * BaseTest does for the suites, so that each benchmark can also be run on its own.
+ */
+public abstract class ConfiguredBenchmark {
+
+    @BeforeClass(alwaysRun = true)
+    public void loadConfig() throws IOException {
+        synchronized (PropertyUtils.Config) {
+            if (PropertyUtils.Config.isEmpty()) {
+                PropertyUtils.loadConfigProperties();
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.saucedemo.app.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.saucedemo.app.controller.DriverManager;
+import com.saucedemo.app.controller.LoggerManager;
+import com.saucedemo.app.objects.DeviceProfile;
+import com.saucedemo.app.utils.DeviceProfileRegistry;
+import com.saucedemo.app.utils.JsonUtils;
+import org.openqa.selenium.Capabilities;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Microbenchmark of the per-test device profile setup of BaseTest: JsonUtils.loadDeviceProfile followed by the
+ * base capabilities DriverManager starts a session from. The baseline parses the profile file in every test, as
+ * JsonUtils did before the profile registry, and hands it to the same DriverManager code.
+ * Run with: mvn test -Dtest=DeviceProfileSetupBenchmark
+ */
+public class DeviceProfileSetupBenchmark extends ConfiguredBenchmark {
+    private static final String PROFILE = "android/local.pixel7.json";
+    private static final String PLATFORM = "android";
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 1_000;
+
+    /**
+     * Keeps the JIT from discarding the measured work.
+     */
+    private static volatile int blackhole;
+
+    @Test(description = "Compares the per-test device profile setup cost before and after the profile registry")
+    public void deviceProfileSetupCost() throws IOException {
+        Capabilities capabilities = setupAfter();
+        Assert.assertSame(JsonUtils.getDeviceProfile(), DeviceProfileRegistry.get(PROFILE),
+                "The profile was not taken from the registry.");
+        Assert.assertSame(setupAfter(), capabilities, "The base capabilities were built again for the same profile.");
+        Assert.assertEquals(setupBefore(), capabilities, "Both setups must produce the same capabilities");
+
+        long before = measure(DeviceProfileSetupBenchmark::setupBefore);
+        long after = measure(DeviceProfileSetupBenchmark::setupAfter);
+
+        LoggerManager.info(String.format("Device profile setup: before=%d ns/test, after=%d ns/test, speedup=%.1fx",
+                before, after, (double) before / Math.max(1L, after)));
+        Assert.assertTrue(after < before, "Registry setup took " + after + " ns/test, parsing " + before + " ns/test");
+    }
+
+    /**
+     * The previous profile loading: a new ObjectMapper parses the file in every test.
+     *
+     * @return the base capabilities for the session
+     */
+    @SuppressWarnings("unchecked")
+    private static Capabilities setupBefore() throws IOException {
+        File file = new File("src/test/resources/device-profiles/" + PROFILE);
+        Map<String, Object> values = new ObjectMapper().readValue(file, Map.class);
+        JsonUtils.useDeviceProfile(new DeviceProfile(PROFILE, values));
+        LoggerManager.info("Loaded JSON device profile: " + file.getPath());
+        return DriverManager.getBaseCapabilities(PLATFORM);
+    }
+
+    /**
+     * The setup of BaseTest: the profile is bound from the registry and the base capabilities are reused.
+     *
+     * @return the base capabilities for the session
+     */
+    private static Capabilities setupAfter() throws IOException {
+        JsonUtils.loadDeviceProfile(PROFILE);
+        return DriverManager.getBaseCapabilities(PLATFORM);
+    }
+
+    /**
+     * Runs the setup for the warmup and measured iterations.
+     *
+     * @param setup the setup to measure
+     * @return the average nanoseconds per setup
+     */
+    private static long measure(Setup setup) throws IOException {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            setup.run();
+        }
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += setup.run().hashCode();
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole = sink;
+        return elapsed / MEASURED_ITERATIONS;
+    }
+
+    private interface Setup {
+        Capabilities run() throws IOException;
+    }
+}
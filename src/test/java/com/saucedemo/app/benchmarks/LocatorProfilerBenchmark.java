@@ -0,0 +1,59 @@
+package com.saucedemo.app.benchmarks;
+
+import com.saucedemo.app.utils.LocatorEvaluator;
+import com.saucedemo.app.utils.LocatorProfiler;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Profiles the page locators against the page sources in src/test/resources/page-sources (sample captures of the
+ * products, cart and checkout overview screens) or in the folder given by -Dlocator.profiler.sources, e.g. a flight
+ * recorder dump. Writes target/reports/locator_profile.csv and checks that every suggested rewrite is cheaper and
+ * matches the same nodes; on the sample captures, the deep-axis XPath locators must get such a rewrite.
+ * Run with: mvn test -Dtest=LocatorProfilerBenchmark
+ */
+public class LocatorProfilerBenchmark {
+    private static final String SOURCES_PROPERTY = "locator.profiler.sources";
+    private static final List<String> XPATH_LOCATORS = Arrays.asList(
+            "ProductsPage.ANDROID_ADD_TO_CART_BY_PRODUCT_NAME", "ProductsPage.IOS_ADD_TO_CART_BY_PRODUCT_NAME",
+            "ProductsPage.ANDROID_REMOVE_BY_PRODUCT_NAME", "ProductsPage.IOS_REMOVE_BY_PRODUCT_NAME",
+            "CartPage.ANDROID_PRODUCT_PRICE", "CartPage.IOS_PRODUCT_PRICE",
+            "CheckoutOverviewPage.IOS_PRODUCT_PRICE");
+
+    @Test(description = "Ranks the page locators by evaluation cost and verifies the suggested rewrites")
+    public void profilePageLocators() {
+        String customSources = System.getProperty(SOURCES_PROPERTY);
+        File sources = new File(customSources != null ? customSources
+                : System.getProperty("user.dir") + "/src/test/resources/page-sources");
+        List<Document> pageSources = LocatorProfiler.loadPageSources(sources);
+        if (pageSources.isEmpty()) {
+            throw new SkipException("No page sources found in " + sources);
+        }
+
+        List<LocatorProfiler.Result> results = LocatorProfiler.run(sources);
+
+        Assert.assertFalse(results.isEmpty(), "No page locators were profiled.");
+        Set<String> rewritten = new HashSet<>();
+        for (LocatorProfiler.Result result : results) {
+            LocatorProfiler.Locator suggestion = result.getSuggestion();
+            if (suggestion != null) {
+                Assert.assertTrue(LocatorEvaluator.getCostTier(suggestion.getStrategy())
+                        < LocatorEvaluator.getCostTier(result.getLocator().getStrategy()), "Rewrite is not cheaper: " + result);
+                rewritten.add(result.getLocator().getPage() + "." + result.getLocator().getField());
+            }
+        }
+        if (customSources == null) {
+            for (String locator : XPATH_LOCATORS) {
+                Assert.assertTrue(rewritten.contains(locator), "No verified rewrite for " + locator);
+            }
+        }
+    }
+}
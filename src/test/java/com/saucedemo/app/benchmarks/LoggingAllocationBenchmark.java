@@ -0,0 +1,72 @@
+package com.saucedemo.app.benchmarks;
+
+import com.saucedemo.app.controller.LoggerManager;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated per call for debug logging while the debug level is disabled
+ * (log4j2.xml logs at info level): string concatenation, {} templates, suppliers and structured events.
+ * Templates and structured events must not allocate at all; a supplier only allocates its capturing lambda.
+ * Run with: mvn test -Dtest=LoggingAllocationBenchmark
+ */
+public class LoggingAllocationBenchmark {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+    private static final double LAMBDA_BYTES = 32.0;
+
+    private final String url = "http://127.0.0.1:4723";
+    private final String platform = "android";
+
+    @Test(description = "Shows the garbage created by disabled debug logging for each logging style")
+    public void disabledLevelAllocations() {
+        com.sun.management.ThreadMXBean threads = getThreadMXBean();
+        Assert.assertFalse(LoggerManager.getLogger().isDebugEnabled(), "The benchmark needs debug logging disabled.");
+
+        double concatenation = bytesPerCall(threads, () -> LoggerManager.debug("Initializing driver for platform: " + platform + " with URL: " + url));
+        double template = bytesPerCall(threads, () -> LoggerManager.debug("Initializing driver for platform: {} with URL: {}", platform, url));
+        double supplier = bytesPerCall(threads, () -> LoggerManager.debug(() -> "Initializing driver for platform: " + platform + " with URL: " + url));
+        double structured = bytesPerCall(threads, () -> LoggerManager.atDebug()
+                .with("page", "LoginPage").with("locator", url).with("durationMs", 42L).log("Wait finished"));
+
+        LoggerManager.info(String.format("Disabled debug logging, bytes per call: concatenation=%.1f, template=%.1f, "
+                + "supplier=%.1f, structured=%.1f", concatenation, template, supplier, structured));
+        Assert.assertTrue(template < 1.0, "Templates must not allocate when the level is disabled: " + template);
+        Assert.assertTrue(structured < 1.0, "Structured events must not allocate when the level is disabled: " + structured);
+        Assert.assertTrue(supplier <= LAMBDA_BYTES, "Suppliers must only allocate their lambda when the level is disabled: " + supplier);
+    }
+
+    /**
+     * Runs the call repeatedly and returns the bytes the current thread allocated per call.
+     *
+     * @param threads the ThreadMXBean reporting allocated bytes
+     * @param call    the logging call
+     * @return the allocated bytes per call
+     */
+    private static double bytesPerCall(com.sun.management.ThreadMXBean threads, Runnable call) {
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            call.run();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            call.run();
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+        return (double) (after - before) / MEASURED_ITERATIONS;
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            throw new SkipException("Thread allocation counters are not supported by this JVM.");
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+}
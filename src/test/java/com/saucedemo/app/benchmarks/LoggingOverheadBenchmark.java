@@ -0,0 +1,142 @@
+package com.saucedemo.app.benchmarks;
+
+import com.saucedemo.app.controller.LoggerManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the logging overhead a test step pays at 1, 4 and 16 threads, with log4j2.xml in the
+ * default synchronous mode and in asynchronous mode (-Dlog.mode=async). Both modes are measured in
+ * alternating rounds and compared by their median; at 16 threads, async must not be slower than sync.
+ * Run with: mvn test -Dtest=LoggingOverheadBenchmark
+ */
+public class LoggingOverheadBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 4, 16};
+    private static final int WARMUP_STEPS = 200;
+    private static final int MEASURED_STEPS = 500;
+    private static final int ROUNDS = 5;
+    private static final String LOG_MODE_PROPERTY = "log.mode";
+
+    private final String originalMode = System.getProperty(LOG_MODE_PROPERTY);
+
+    @Test(description = "Measures the logging overhead per step in synchronous and asynchronous mode")
+    public void loggingOverheadPerStep() throws Exception {
+        List<String> results = new ArrayList<>();
+        long syncNanos = 0L;
+        long asyncNanos = 0L;
+        for (int threads : THREAD_COUNTS) {
+            long[] sync = new long[ROUNDS];
+            long[] async = new long[ROUNDS];
+            for (int round = 0; round < ROUNDS; round++) {
+                useLogMode("sync");
+                sync[round] = measure("sync-" + round, threads);
+                useLogMode("async");
+                async[round] = measure("async-" + round, threads);
+            }
+            syncNanos = median(sync);
+            asyncNanos = median(async);
+            results.add(String.format("threads=%d, sync=%.1f us/step, async=%.1f us/step",
+                    threads, syncNanos / 1000.0, asyncNanos / 1000.0));
+        }
+        useLogMode(originalMode);
+        for (String result : results) {
+            LoggerManager.info("Logging overhead: " + result);
+        }
+        Assert.assertTrue(asyncNanos <= syncNanos, String.format("Async logging took %.1f us/step at %d threads, sync %.1f us/step",
+                asyncNanos / 1000.0, THREAD_COUNTS[THREAD_COUNTS.length - 1], syncNanos / 1000.0));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restoreLogMode() {
+        useLogMode(originalMode);
+    }
+
+    /**
+     * Runs the steps on the given number of threads, each thread logging as one test.
+     *
+     * @param mode    the log mode and round, used in the test ids
+     * @param threads the number of concurrent threads
+     * @return the average nanoseconds spent logging per step and thread
+     */
+    private static long measure(String mode, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String testId = "benchmark-" + mode + "-" + threads + "-" + i;
+            workers.add(executor.submit(() -> {
+                LoggerManager.startTest(testId);
+                try {
+                    for (int step = 0; step < WARMUP_STEPS; step++) {
+                        logStep(step);
+                    }
+                    start.await();
+                    long begin = System.nanoTime();
+                    for (int step = 0; step < MEASURED_STEPS; step++) {
+                        logStep(step);
+                    }
+                    return System.nanoTime() - begin;
+                } finally {
+                    LoggerManager.endTest();
+                }
+            }));
+        }
+        start.countDown();
+        long total = 0L;
+        for (Future<Long> worker : workers) {
+            total += worker.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return total / ((long) threads * MEASURED_STEPS);
+    }
+
+    /**
+     * Returns the median of the measured rounds.
+     *
+     * @param nanos the nanoseconds per step of each round
+     * @return the median nanoseconds per step
+     */
+    private static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Logs what a typical page step logs: the action, the element and the outcome.
+     *
+     * @param step the step number
+     */
+    private static void logStep(int step) {
+        LoggerManager.info("Step " + step + ": tapping element");
+        LoggerManager.debug("Step " + step + ": element located");
+        LoggerManager.info("Step " + step + ": passed");
+    }
+
+    /**
+     * Switches log4j2.xml between synchronous and asynchronous mode by reconfiguring the logger context.
+     *
+     * @param mode "sync", "async" or null for the default
+     */
+    private static void useLogMode(String mode) {
+        if (mode == null) {
+            System.clearProperty(LOG_MODE_PROPERTY);
+        } else {
+            System.setProperty(LOG_MODE_PROPERTY, mode);
+        }
+        ((LoggerContext) LogManager.getContext(false)).reconfigure();
+    }
+}
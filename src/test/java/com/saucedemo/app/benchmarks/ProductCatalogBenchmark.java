@@ -0,0 +1,109 @@
+package com.saucedemo.app.benchmarks;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.saucedemo.app.controller.LoggerManager;
+import com.saucedemo.app.controller.ReportsManager;
+import com.saucedemo.app.controller.ScreenshotPolicy;
+import com.saucedemo.app.objects.Product;
+import com.saucedemo.app.pages.ProductsPage;
+import io.appium.java_client.AppiumDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Adds products to the cart on a stand-in Appium server that serves a six-product list over three screens, and
+ * checks that ProductsPage.addProductsToCart visits them in a single downward pass: one scroll per screen, one
+ * tap per product at the button bounds of the page source and no search from the top of the list per product.
+ * Report steps go to a detached report test, and screenshots are only taken on failure, as the stand-in server
+ * serves none.
+ * Run with: mvn test -Dtest=ProductCatalogBenchmark
+ */
+public class ProductCatalogBenchmark extends ConfiguredBenchmark {
+    private static final List<List<String>> SCREENS = Arrays.asList(
+            Arrays.asList("Sauce Labs Backpack", "Sauce Labs Bike Light", "Sauce Labs Bolt T-Shirt"),
+            Arrays.asList("Sauce Labs Bolt T-Shirt", "Sauce Labs Fleece Jacket", "Sauce Labs Onesie"),
+            Arrays.asList("Sauce Labs Onesie", "Test.allTheThings() T-Shirt (Red)"));
+
+    @BeforeClass
+    public void startReportTest() {
+        ScreenshotPolicy.startTest(ScreenshotPolicy.ON_FAILURE);
+        ReportsManager.setTest(new ExtentReports().createTest(getClass().getSimpleName()));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void endReportTest() {
+        ReportsManager.removeTest();
+        ScreenshotPolicy.startTest();
+    }
+
+    @Test(description = "Products spread over the list are added in one downward pass")
+    public void addProductsInOnePass() throws IOException {
+        try (StubAppiumServer server = new StubAppiumServer()) {
+            AtomicInteger screen = new AtomicInteger();
+            server.setPageSource(pageSource(SCREENS.get(0), "Sauce Labs Bolt T-Shirt"));
+            server.setScriptHandler(script -> {
+                if (script.get("script").asText().equals("mobile: scrollGesture")) {
+                    int next = Math.min(screen.incrementAndGet(), SCREENS.size() - 1);
+                    server.setPageSource(pageSource(SCREENS.get(next), null));
+                    return next < SCREENS.size() - 1;
+                }
+                return null;
+            });
+            server.addElement("xpath", "*");
+            AppiumDriver driver = server.newDriver();
+            try {
+                server.resetCounts();
+                long start = System.nanoTime();
+
+                new ProductsPage(driver).addProductsToCart(new Product("Sauce Labs Bike Light", 9.99),
+                        new Product("Sauce Labs Bolt T-Shirt", 15.99), new Product("Test.allTheThings() T-Shirt (Red)", 15.99));
+
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                LoggerManager.info("Added 3 products in {} ms with {} requests: {}", millis, server.getTotalRequests(),
+                        server.getRequestCounts());
+                List<String> gestures = server.getScripts().stream().map(script -> script.get("script").asText())
+                        .collect(Collectors.toList());
+                Assert.assertEquals(gestures, Arrays.asList("mobile: clickGesture", "mobile: scrollGesture",
+                        "mobile: clickGesture", "mobile: scrollGesture", "mobile: clickGesture"));
+                List<String> taps = server.getScripts().stream()
+                        .filter(script -> script.get("script").asText().equals("mobile: clickGesture"))
+                        .map(script -> script.get("args").get(0).get("x") + "," + script.get("args").get(0).get("y"))
+                        .collect(Collectors.toList());
+                Assert.assertEquals(taps, Arrays.asList("300,940", "300,440", "300,940"), "Buttons were not tapped at their snapshot bounds.");
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    /**
+     * Builds the Android page source of a screen of the product list.
+     *
+     * @param products        the products on screen, in list order
+     * @param buttonOffScreen the product whose button is below the bottom of the screen, may be null
+     * @return the page source
+     */
+    private static String pageSource(List<String> products, String buttonOffScreen) {
+        StringBuilder source = new StringBuilder("<hierarchy class=\"hierarchy\"><android.widget.ScrollView content-desc=\"test-PRODUCTS\" displayed=\"true\">");
+        for (int i = 0; i < products.size(); i++) {
+            String product = products.get(i);
+            source.append("<android.view.ViewGroup content-desc=\"test-Item\" displayed=\"true\">")
+                    .append("<android.widget.TextView content-desc=\"test-Item title\" displayed=\"true\" text=\"")
+                    .append(product).append("\"/>");
+            if (!product.equals(buttonOffScreen)) {
+                source.append("<android.view.ViewGroup content-desc=\"test-ADD TO CART\" displayed=\"true\" bounds=\"[100,")
+                        .append(500 * i + 400).append("][500,").append(500 * i + 480).append("]\"/>");
+            }
+            source.append("</android.view.ViewGroup>");
+        }
+        return source.append("</android.widget.ScrollView></hierarchy>").toString();
+    }
+}
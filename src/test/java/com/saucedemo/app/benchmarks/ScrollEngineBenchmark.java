@@ -0,0 +1,158 @@
+package com.saucedemo.app.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.saucedemo.app.base.BasePage;
+import com.saucedemo.app.controller.LoggerManager;
+import com.saucedemo.app.controller.ScrollEngine;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Scrolls a simulated list on a stand-in Appium server: a scroll moves the target up by the scrolled distance, and
+ * the target can only be found once its top is on screen, as in the Android hierarchy. Checks that the window size
+ * is read once, that the steps shrink near the target, and that the end of the list stops the search.
+ * Run with: mvn test -Dtest=ScrollEngineBenchmark
+ */
+public class ScrollEngineBenchmark extends ConfiguredBenchmark {
+    private static final By TARGET = AppiumBy.accessibilityId("target");
+    private static final int WINDOW_HEIGHT = 2000;
+    private static final int TARGET_HEIGHT = 100;
+
+    @Test(description = "Far targets are approached with big steps and reached with a small one")
+    public void scrollStepsAdaptToTheTarget() throws IOException {
+        try (StubAppiumServer server = new StubAppiumServer()) {
+            StubAppiumServer.StubElement target = server.addElement("accessibility id", "target");
+            // Three big steps of 0.8 of the 1200 px scroll region leave the target 50 px below the window.
+            simulateList(server, target, 1950 + 3 * 960, Integer.MAX_VALUE);
+            AppiumDriver driver = server.newDriver();
+            try {
+                StubPage page = new StubPage(driver);
+                WebElement element = page.scrollTo(TARGET);
+
+                List<JsonNode> scripts = server.getScripts();
+                LoggerManager.info("Scrolled {} times: {}", scripts.size(), ScrollEngine.getMetricsSummary());
+                Assert.assertNotNull(element);
+                Assert.assertEquals(scripts.size(), 4);
+                Assert.assertEquals(percent(scripts.get(0)), 0.8);
+                Assert.assertEquals(percent(scripts.get(3)), 0.1, "The last step was not sized to the target.");
+                Assert.assertTrue(target.getY() + TARGET_HEIGHT <= WINDOW_HEIGHT, "Target is not fully on screen.");
+                Assert.assertEquals(server.getRequestCount("GET /window/rect"), 1);
+
+                page.scrollTo(TARGET);
+                Assert.assertEquals(server.getRequestCount("GET /window/rect"), 1, "Window size was read again.");
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    @Test(description = "The search stops at the end of an Android list before scroll.max.scrolls")
+    public void androidEndOfListStopsSearch() throws IOException {
+        try (StubAppiumServer server = new StubAppiumServer()) {
+            StubAppiumServer.StubElement target = server.addElement("accessibility id", "target");
+            simulateList(server, target, 100_000, 2);
+            AppiumDriver driver = server.newDriver();
+            try {
+                Assert.assertThrows(NoSuchElementException.class, () -> new StubPage(driver).scrollTo(TARGET));
+
+                Assert.assertEquals(server.getScripts().size(), 2);
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    @Test(description = "On iOS, the page source is only fetched while the target is not on screen")
+    public void iosSearchFetchesPageSourceOnlyWhileTargetIsMissing() throws IOException {
+        try (StubAppiumServer server = new StubAppiumServer()) {
+            server.setPlatformName("iOS");
+            StubAppiumServer.StubElement target = server.addElement("accessibility id", "target");
+            int y = 1950 + 3 * 960;
+            target.rect(100, y, 800, TARGET_HEIGHT).present(false);
+            server.setScriptHandler(script -> {
+                JsonNode args = script.get("args").get(0);
+                int top = target.getY() - (args.get("fromY").asInt() - args.get("toY").asInt());
+                target.rect(100, top, 800, TARGET_HEIGHT).present(top < WINDOW_HEIGHT);
+                server.setPageSource("<XCUIElementTypeApplication y=\"" + top + "\"/>");
+                return null;
+            });
+            AppiumDriver driver = server.newDriver();
+            try {
+                Assert.assertNotNull(new StubPage(driver).scrollTo(TARGET));
+
+                Assert.assertEquals(server.getScripts().size(), 4);
+                Assert.assertEquals(server.getRequestCount("GET /source"), 2,
+                        "The page source was fetched before the first scroll or while the target was on screen.");
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    @Test(description = "On iOS, the search stops once the page source no longer changes")
+    public void iosEndOfListStopsSearch() throws IOException {
+        try (StubAppiumServer server = new StubAppiumServer()) {
+            server.setPlatformName("iOS");
+            server.setPageSource("<XCUIElementTypeApplication/>");
+            AppiumDriver driver = server.newDriver();
+            try {
+                Assert.assertThrows(NoSuchElementException.class, () -> new StubPage(driver).scrollTo(TARGET));
+
+                Assert.assertEquals(server.getScripts().size(), 2);
+                Assert.assertEquals(server.getRequestCount("GET /source"), 2);
+                Assert.assertEquals(server.getScripts().get(0).get("script").asText(), "mobile: dragFromToForDuration");
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    /**
+     * Makes scrollGesture scripts move the target up by the scrolled distance. The target can be found once its
+     * top is on screen, and the list stops scrolling after the given number of scrolls.
+     *
+     * @param server     the stand-in server
+     * @param target     the target element
+     * @param y          the initial top of the target
+     * @param maxScrolls the number of scrolls after which the list reports its end
+     */
+    private static void simulateList(StubAppiumServer server, StubAppiumServer.StubElement target, int y, int maxScrolls) {
+        target.rect(100, y, 800, TARGET_HEIGHT).present(y < WINDOW_HEIGHT);
+        server.setScriptHandler(script -> {
+            JsonNode args = script.get("args").get(0);
+            int distance = (int) Math.round(args.get("height").asInt() * args.get("percent").asDouble());
+            int top = target.getY() - distance;
+            target.rect(100, top, 800, TARGET_HEIGHT).present(top < WINDOW_HEIGHT);
+            return server.getScripts().size() < maxScrolls;
+        });
+    }
+
+    /**
+     * @param script the recorded execute/sync body
+     * @return the scroll percent of a scrollGesture
+     */
+    private static double percent(JsonNode script) {
+        return script.get("args").get(0).get("percent").asDouble();
+    }
+
+    /**
+     * Page exposing the BasePage scrolling to the benchmark.
+     */
+    private static final class StubPage extends BasePage {
+        private StubPage(AppiumDriver driver) {
+            super(driver);
+        }
+
+        private WebElement scrollTo(By locator) {
+            return scrollUntilVisible(locator);
+        }
+    }
+}
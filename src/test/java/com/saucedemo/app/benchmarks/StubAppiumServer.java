@@ -0,0 +1,623 @@
+package com.saucedemo.app.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.ios.IOSDriver;
+import org.openqa.selenium.remote.DesiredCapabilities;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Stand-in Appium server for timing and round-trip tests, built on the JDK HTTP server. It speaks enough of the
+ * W3C WebDriver protocol for an AndroidDriver or IOSDriver session: find element(s) honouring the implicit wait
+ * like a real server, element state, rect, text, click, clear, send keys, page source, execute/sync and, when
+ * enabled, the CommandBatch scripts of appium/execute_driver. Every
+ * request can be delayed by an injected latency, and requests are counted per endpoint, e.g. "POST /element" or
+ * "GET /element/rect".
+ */
+public class StubAppiumServer implements AutoCloseable {
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final AtomicInteger SESSIONS = new AtomicInteger();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final String sessionId = "stub-session-" + SESSIONS.incrementAndGet();
+    private final Map<String, StubElement> elementsByLocator = new ConcurrentHashMap<>();
+    private final Map<String, StubElement> elementsById = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final List<JsonNode> scripts = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger nextElementId = new AtomicInteger();
+
+    private volatile long latencyMillis;
+    private volatile long implicitWaitMillis;
+    private volatile String platformName = "Android";
+    private volatile String pageSource = "<hierarchy/>";
+    private volatile int windowWidth = 1080;
+    private volatile int windowHeight = 2000;
+    private volatile Function<JsonNode, Object> scriptHandler = script -> null;
+    private volatile boolean executeDriverEnabled;
+
+    /**
+     * Starts the server on a free local port.
+     *
+     * @throws IOException if the server cannot be started
+     */
+    public StubAppiumServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    /**
+     * @return the base URL to pass to the driver
+     */
+    public URL getUrl() {
+        try {
+            return new URL("http://127.0.0.1:" + server.getAddress().getPort());
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Adds an element that can be found with the given W3C strategy and value, e.g. "accessibility id".
+     * The value "*" matches every value of the strategy that has no element of its own.
+     *
+     * @param using the strategy
+     * @param value the locator value
+     * @return the element, to configure further
+     */
+    public StubElement addElement(String using, String value) {
+        StubElement element = new StubElement("stub-element-" + nextElementId.incrementAndGet());
+        elementsByLocator.put(using + ":" + value, element);
+        elementsById.put(element.id, element);
+        return element;
+    }
+
+    /**
+     * Opens a session on this server: an IOSDriver if the platform is iOS, an AndroidDriver otherwise.
+     *
+     * @return the driver
+     */
+    public AppiumDriver newDriver() {
+        boolean ios = platformName.equalsIgnoreCase("iOS");
+        DesiredCapabilities capabilities = new DesiredCapabilities();
+        capabilities.setCapability("appium:automationName", ios ? "XCUITest" : "UiAutomator2");
+        return ios ? new IOSDriver(getUrl(), capabilities) : new AndroidDriver(getUrl(), capabilities);
+    }
+
+    /**
+     * Returns the element with the given id, e.g. the target of a script with an elementId argument.
+     *
+     * @param id the element id
+     * @return the element, or null if there is none
+     */
+    public StubElement getElement(String id) {
+        return elementsById.get(id);
+    }
+
+    /**
+     * Sets the latency added to every request.
+     *
+     * @param latencyMillis the latency in milliseconds
+     */
+    public void setLatency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Sets the platform reported in the new session response ("Android" or "iOS").
+     *
+     * @param platformName the platform name
+     */
+    public void setPlatformName(String platformName) {
+        this.platformName = platformName;
+    }
+
+    /**
+     * Sets the window size reported to the client.
+     *
+     * @param width  the window width
+     * @param height the window height
+     */
+    public void setWindowSize(int width, int height) {
+        this.windowWidth = width;
+        this.windowHeight = height;
+    }
+
+    /**
+     * Sets the XML returned for the page source.
+     *
+     * @param pageSource the page source
+     */
+    public void setPageSource(String pageSource) {
+        this.pageSource = pageSource;
+    }
+
+    /**
+     * Sets what execute/sync returns, e.g. for "mobile: " commands. The handler receives the request body.
+     *
+     * @param scriptHandler the handler
+     */
+    public void setScriptHandler(Function<JsonNode, Object> scriptHandler) {
+        this.scriptHandler = scriptHandler;
+    }
+
+    /**
+     * Enables the execute-driver endpoint, as with the execute-driver plugin and the execute_driver_script insecure
+     * feature. The server runs the commands of CommandBatch scripts itself; scripts of other shapes are not supported.
+     * When disabled, the endpoint answers with the unknown command of a server without the plugin.
+     *
+     * @param executeDriverEnabled whether driver scripts can be executed
+     */
+    public void setExecuteDriverEnabled(boolean executeDriverEnabled) {
+        this.executeDriverEnabled = executeDriverEnabled;
+    }
+
+    /**
+     * @return the implicit wait last set by the client, in milliseconds
+     */
+    public long getImplicitWaitMillis() {
+        return implicitWaitMillis;
+    }
+
+    /**
+     * Returns the number of requests received for an endpoint since the last reset.
+     *
+     * @param endpoint the endpoint, e.g. "POST /element"
+     * @return the request count
+     */
+    public int getRequestCount(String endpoint) {
+        AtomicInteger count = requestCounts.get(endpoint);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return the number of requests received since the last reset, over all endpoints
+     */
+    public int getTotalRequests() {
+        int total = 0;
+        for (AtomicInteger count : requestCounts.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    /**
+     * @return the request counts per endpoint since the last reset
+     */
+    public Map<String, Integer> getRequestCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        requestCounts.forEach((endpoint, count) -> counts.put(endpoint, count.get()));
+        return counts;
+    }
+
+    /**
+     * @return the bodies of the execute/sync requests since the last reset
+     */
+    public List<JsonNode> getScripts() {
+        synchronized (scripts) {
+            return new ArrayList<>(scripts);
+        }
+    }
+
+    /**
+     * Resets the request counters and recorded scripts.
+     */
+    public void resetCounts() {
+        requestCounts.clear();
+        scripts.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**
+     * Handles one WebDriver request.
+     *
+     * @param exchange the HTTP exchange
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+            JsonNode body = MAPPER.readTree(exchange.getRequestBody());
+            if (path.length == 1 && path[0].equals("session")) {
+                count(method + " /session");
+                respond(exchange, 200, newSession());
+                return;
+            }
+            if (path.length == 2 && method.equals("DELETE")) {
+                count("DELETE /session");
+                respond(exchange, 200, null);
+                return;
+            }
+            String command = path.length > 2 ? path[2] : "";
+            StubElement element = null;
+            String subCommand = "";
+            if (command.equals("element") && path.length > 3) {
+                element = elementsById.get(path[3]);
+                subCommand = path.length > 4 ? "/" + String.join("/", Arrays.copyOfRange(path, 4, path.length)) : "";
+            } else if (path.length > 3) {
+                subCommand = "/" + String.join("/", Arrays.copyOfRange(path, 3, path.length));
+            }
+            String endpoint = method + " /" + command + subCommand;
+            count(endpoint.startsWith("GET /element/attribute") ? "GET /element/attribute" : endpoint);
+            handleCommand(exchange, endpoint, body, element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            respondError(exchange, 500, "unknown error", e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Handles a session command.
+     *
+     * @param exchange the HTTP exchange
+     * @param endpoint the normalised endpoint
+     * @param body     the request body, may be null
+     * @param element  the element addressed by the path, may be null
+     */
+    private void handleCommand(HttpExchange exchange, String endpoint, JsonNode body, StubElement element)
+            throws IOException, InterruptedException {
+        if (endpoint.startsWith("GET /element/") || endpoint.startsWith("POST /element/")) {
+            if (element == null || !element.isPresent()) {
+                respondError(exchange, 404, "stale element reference", "The element is no longer attached");
+                return;
+            }
+        }
+        switch (endpoint.startsWith("GET /element/attribute") ? "GET /element/attribute" : endpoint) {
+            case "POST /timeouts":
+                if (body != null && body.has("implicit")) {
+                    implicitWaitMillis = body.get("implicit").asLong();
+                }
+                respond(exchange, 200, null);
+                break;
+            case "POST /element": {
+                StubElement found = find(body);
+                if (found == null) {
+                    respondError(exchange, 404, "no such element", "An element could not be located on the page");
+                } else {
+                    respond(exchange, 200, reference(found));
+                }
+                break;
+            }
+            case "POST /elements": {
+                StubElement found = find(body);
+                respond(exchange, 200, found == null ? new ArrayList<>() : Collections.singletonList(reference(found)));
+                break;
+            }
+            case "GET /element/displayed":
+                respond(exchange, 200, element.displayed);
+                break;
+            case "GET /element/enabled":
+                respond(exchange, 200, element.enabled);
+                break;
+            case "GET /element/text":
+                respond(exchange, 200, element.text);
+                break;
+            case "GET /element/attribute":
+                respond(exchange, 200, element.text);
+                break;
+            case "GET /element/rect": {
+                Map<String, Object> rect = new HashMap<>();
+                rect.put("x", element.x);
+                rect.put("y", element.y);
+                rect.put("width", element.width);
+                rect.put("height", element.height);
+                respond(exchange, 200, rect);
+                break;
+            }
+            case "POST /element/click":
+                respond(exchange, 200, null);
+                break;
+            case "POST /element/clear":
+                element.text = "";
+                respond(exchange, 200, null);
+                break;
+            case "POST /element/value":
+                element.text = element.text + (body.has("text") ? body.get("text").asText() : "");
+                respond(exchange, 200, null);
+                break;
+            case "GET /window/rect": {
+                Map<String, Object> rect = new HashMap<>();
+                rect.put("x", 0);
+                rect.put("y", 0);
+                rect.put("width", windowWidth);
+                rect.put("height", windowHeight);
+                respond(exchange, 200, rect);
+                break;
+            }
+            case "GET /source":
+                respond(exchange, 200, pageSource);
+                break;
+            case "POST /execute/sync":
+                scripts.add(body);
+                respond(exchange, 200, scriptHandler.apply(body));
+                break;
+            case "POST /appium/execute_driver":
+                if (!executeDriverEnabled) {
+                    respondError(exchange, 404, "unknown command",
+                            "The requested resource could not be found, or a request was received using an HTTP method that is not supported by the mapped resource.");
+                    return;
+                }
+                Map<String, Object> logs = new HashMap<>();
+                logs.put("log", new ArrayList<>());
+                logs.put("warn", new ArrayList<>());
+                logs.put("error", new ArrayList<>());
+                Map<String, Object> value = new HashMap<>();
+                value.put("result", executeDriverScript(body.get("script").asText()));
+                value.put("logs", logs);
+                respond(exchange, 200, value);
+                break;
+            default:
+                respond(exchange, 200, null);
+        }
+    }
+
+    /**
+     * Runs the commands of a CommandBatch script, which starts with a "const commands = [...];" line, the way the
+     * script runs them on a real server.
+     *
+     * @param script the driver script
+     * @return the script result: the results of the commands run, and the index of the failed command or -1
+     */
+    private Map<String, Object> executeDriverScript(String script) throws IOException, InterruptedException {
+        String commandsLine = script.substring(0, script.indexOf('\n'));
+        JsonNode commands = MAPPER.readTree(commandsLine.substring("const commands = ".length(), commandsLine.length() - 1));
+        List<Object> results = new ArrayList<>();
+        Map<String, Object> result = new HashMap<>();
+        result.put("results", results);
+        result.put("failed", -1);
+        for (int i = 0; i < commands.size(); i++) {
+            JsonNode command = commands.get(i);
+            StubElement element = command.has("using") ? find(command) : null;
+            if (command.has("using") && element == null) {
+                result.put("failed", i);
+                result.put("error", "Error: An element could not be located on the page");
+                return result;
+            }
+            switch (command.get("name").asText()) {
+                case "setValue":
+                    element.text = command.get("text").asText();
+                    results.add(null);
+                    break;
+                case "getText":
+                    results.add(element.text);
+                    break;
+                case "isDisplayed":
+                    results.add(element.displayed);
+                    break;
+                case "execute": {
+                    ObjectNode args = command.get("args").deepCopy();
+                    if (element != null) {
+                        args.put("elementId", element.id);
+                    }
+                    ObjectNode body = MAPPER.createObjectNode();
+                    body.put("script", command.get("script").asText());
+                    body.putArray("args").add(args);
+                    scripts.add(body);
+                    results.add(scriptHandler.apply(body));
+                    break;
+                }
+                default:
+                    results.add(null);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the element for a find request, waiting up to the implicit wait for it to appear, as a real server does.
+     *
+     * @param body the request body with "using" and "value"
+     * @return the element, or null if it did not appear in time
+     */
+    private StubElement find(JsonNode body) throws InterruptedException {
+        String using = body.get("using").asText();
+        String key = using + ":" + body.get("value").asText();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(implicitWaitMillis);
+        while (true) {
+            StubElement element = elementsByLocator.getOrDefault(key, elementsByLocator.get(using + ":*"));
+            if (element != null && element.isPresent()) {
+                return element;
+            }
+            if (System.nanoTime() >= deadline) {
+                return null;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    /**
+     * @return the value of the new session response
+     */
+    private Map<String, Object> newSession() {
+        Map<String, Object> capabilities = new HashMap<>();
+        capabilities.put("platformName", platformName);
+        capabilities.put("appium:automationName", platformName.equalsIgnoreCase("iOS") ? "XCUITest" : "UiAutomator2");
+        Map<String, Object> value = new HashMap<>();
+        value.put("sessionId", sessionId);
+        value.put("capabilities", capabilities);
+        return value;
+    }
+
+    /**
+     * @param element the element
+     * @return the W3C element reference
+     */
+    private static Map<String, Object> reference(StubElement element) {
+        Map<String, Object> reference = new HashMap<>();
+        reference.put(ELEMENT_KEY, element.id);
+        reference.put("ELEMENT", element.id);
+        return reference;
+    }
+
+    /**
+     * Counts a request.
+     *
+     * @param endpoint the normalised endpoint
+     */
+    private void count(String endpoint) {
+        requestCounts.computeIfAbsent(endpoint, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * Writes a W3C response with the given value.
+     *
+     * @param exchange the HTTP exchange
+     * @param status   the HTTP status
+     * @param value    the response value
+     */
+    private static void respond(HttpExchange exchange, int status, Object value) throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        response.put("value", value);
+        byte[] bytes = MAPPER.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Writes a W3C error response.
+     *
+     * @param exchange the HTTP exchange
+     * @param status   the HTTP status
+     * @param error    the W3C error code
+     * @param message  the error message
+     */
+    private static void respondError(HttpExchange exchange, int status, String error, String message) throws IOException {
+        Map<String, Object> value = new HashMap<>();
+        value.put("error", error);
+        value.put("message", message);
+        value.put("stacktrace", "");
+        respond(exchange, status, value);
+    }
+
+    /**
+     * An element of the stand-in server. Fields can be changed while a test runs.
+     */
+    public static final class StubElement {
+        private final String id;
+        private volatile String text = "";
+        private volatile boolean displayed = true;
+        private volatile boolean enabled = true;
+        private volatile int x;
+        private volatile int y;
+        private volatile int width = 100;
+        private volatile int height = 50;
+        private volatile long presentFromNanos = System.nanoTime();
+        private volatile long presentUntilNanos = Long.MAX_VALUE;
+
+        private StubElement(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public StubElement text(String text) {
+            this.text = text;
+            return this;
+        }
+
+        public StubElement displayed(boolean displayed) {
+            this.displayed = displayed;
+            return this;
+        }
+
+        public StubElement enabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public StubElement rect(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            return this;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        /**
+         * Puts the element on the screen or removes it, e.g. when a scroll moves it in or out of view.
+         *
+         * @param present whether the element can be found
+         * @return the element
+         */
+        public StubElement present(boolean present) {
+            presentFromNanos = present ? 0L : Long.MAX_VALUE;
+            presentUntilNanos = Long.MAX_VALUE;
+            return this;
+        }
+
+        /**
+         * Makes the element findable only after a delay from now.
+         *
+         * @param millis the delay in milliseconds
+         * @return the element
+         */
+        public StubElement appearAfter(long millis) {
+            presentFromNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+            return this;
+        }
+
+        /**
+         * Removes the element from the screen after a delay from now.
+         *
+         * @param millis the delay in milliseconds
+         * @return the element
+         */
+        public StubElement disappearAfter(long millis) {
+            presentUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+            return this;
+        }
+
+        private boolean isPresent() {
+            long now = System.nanoTime();
+            return now >= presentFromNanos && now < presentUntilNanos;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.saucedemo.app.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableMap;
+import com.saucedemo.app.base.BasePage;
+import com.saucedemo.app.controller.LoggerManager;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures round trips and milliseconds per tap against a stand-in Appium server with 50 ms of latency per request.
+ * The baseline is the previous tap path: getLocation(), getSize() and the tap script. On Android, BasePage taps
+ * through clickGesture with the element id only; on iOS, the coordinates come from a single rect query.
+ * Run with: mvn test -Dtest=TapBenchmark
+ */
+public class TapBenchmark extends ConfiguredBenchmark {
+    private static final By BUTTON = AppiumBy.accessibilityId("button");
+    private static final int TAPS = 20;
+    private static final long LATENCY_MILLIS = 50;
+
+    @Test(description = "Android taps target the element id and query no geometry")
+    public void androidTapSkipsGeometry() throws IOException {
+        try (StubAppiumServer server = new StubAppiumServer()) {
+            AppiumDriver driver = server.newDriver();
+            try {
+                double baseline = measure(server, "Android baseline", () -> legacyTap(driver, "mobile: clickGesture"));
+                StubPage page = new StubPage(driver);
+                double tap = measure(server, "Android tap", page::tapButton);
+
+                Assert.assertEquals(server.getRequestCount("GET /element/rect"), 0);
+                Assert.assertEquals(server.getRequestCount("POST /execute/sync"), TAPS);
+                JsonNode script = server.getScripts().get(0);
+                Assert.assertEquals(script.get("script").asText(), "mobile: clickGesture");
+                Assert.assertTrue(script.get("args").get(0).has("elementId"), "clickGesture was not sent the element id: " + script);
+                Assert.assertTrue(tap < baseline, "Tap took " + tap + " ms, baseline " + baseline + " ms");
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    @Test(description = "iOS taps take their coordinates from a single rect query")
+    public void iosTapUsesSingleRectQuery() throws IOException {
+        try (StubAppiumServer server = new StubAppiumServer()) {
+            server.setPlatformName("iOS");
+            AppiumDriver driver = server.newDriver();
+            try {
+                double baseline = measure(server, "iOS baseline", () -> legacyTap(driver, "mobile: tap"));
+                StubPage page = new StubPage(driver);
+                double tap = measure(server, "iOS tap", page::tapButton);
+
+                Assert.assertEquals(server.getRequestCount("GET /element/rect"), TAPS);
+                Assert.assertEquals(server.getRequestCount("POST /execute/sync"), TAPS);
+                JsonNode args = server.getScripts().get(0).get("args").get(0);
+                Assert.assertEquals(args.get("x").asInt(), 60);
+                Assert.assertEquals(args.get("y").asInt(), 225);
+                Assert.assertTrue(tap < baseline, "Tap took " + tap + " ms, baseline " + baseline + " ms");
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    /**
+     * Runs TAPS taps of a button on a fresh screen and logs round trips and milliseconds per tap.
+     * The request counts of the taps stay on the server for the caller to check.
+     *
+     * @param server the stand-in server
+     * @param name   the name of the measurement
+     * @param tap    the tap to measure
+     * @return the milliseconds per tap
+     */
+    private static double measure(StubAppiumServer server, String name, Runnable tap) {
+        server.addElement("accessibility id", "button").rect(10, 200, 100, 50);
+        server.setLatency(LATENCY_MILLIS);
+        server.resetCounts();
+        long start = System.nanoTime();
+        for (int i = 0; i < TAPS; i++) {
+            tap.run();
+        }
+        double millisPerTap = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / (double) TAPS;
+        double roundTrips = server.getTotalRequests() / (double) TAPS;
+        server.setLatency(0);
+        LoggerManager.info("{}: {} round trips and {} ms per tap", name, roundTrips, millisPerTap);
+        return millisPerTap;
+    }
+
+    /**
+     * Taps the button the way MobileGestures did before: separate location and size queries, then the script.
+     *
+     * @param driver      the driver
+     * @param gestureName the tap script
+     */
+    private static void legacyTap(AppiumDriver driver, String gestureName) {
+        WebElement element = driver.findElement(BUTTON);
+        Point location = element.getLocation();
+        Dimension size = element.getSize();
+        driver.executeScript(gestureName, ImmutableMap.<String, Object>of(
+                "x", location.getX() + size.getWidth() / 2, "y", location.getY() + size.getHeight() / 2));
+    }
+
+    /**
+     * Page exposing the BasePage tap to the benchmark.
+     */
+    private static final class StubPage extends BasePage {
+        private StubPage(AppiumDriver driver) {
+            super(driver);
+        }
+
+        private void tapButton() {
+            tap(BUTTON);
+        }
+    }
+}
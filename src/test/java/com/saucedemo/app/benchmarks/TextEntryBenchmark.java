@@ -0,0 +1,134 @@
+package com.saucedemo.app.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.saucedemo.app.base.BasePage;
+import com.saucedemo.app.controller.LoggerManager;
+import com.saucedemo.app.utils.Constants;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills a three-field form on a stand-in Appium server with 50 ms of latency per request, on which the keyboard is
+ * always shown. The baseline is enterText per field: clear, click, keyboard check and sendKeys. The fast path of
+ * fillFields sets each value with replaceElementValue, hides the keyboard once and reads each value back once.
+ * Run with: mvn test -Dtest=TextEntryBenchmark
+ */
+public class TextEntryBenchmark extends ConfiguredBenchmark {
+    private static final List<String> VALUES = Arrays.asList("Jane", "Doe", "12345");
+    private static final long LATENCY_MILLIS = 50;
+
+    @BeforeClass
+    public void requireFastTextEntry() {
+        if (!Constants.ENABLE_FAST_TEXT_ENTRY) {
+            throw new SkipException("Fast text entry is disabled (fast.text.entry.enabled=false).");
+        }
+    }
+
+    @Test(description = "A form is filled with fewer round trips than typing each field")
+    public void fastEntryFillsFormInFewerRoundTrips() throws IOException {
+        try (StubAppiumServer server = new StubAppiumServer()) {
+            List<StubAppiumServer.StubElement> fields = Arrays.asList(server.addElement("accessibility id", "first"),
+                    server.addElement("accessibility id", "last"), server.addElement("accessibility id", "zip"));
+            server.setScriptHandler(script -> handleScript(server, script));
+            AppiumDriver driver = server.newDriver();
+            try {
+                StubPage page = new StubPage(driver);
+                int[] baseline = measure(server, fields, "Typed form", page::typeForm);
+                int[] fast = measure(server, fields, "Fast form", page::fillForm);
+
+                Assert.assertEquals(server.getRequestCount("POST /element/value"), 0, "Values were typed.");
+                Assert.assertEquals(server.getRequestCount("POST /element/click"), 0, "Fields were focused.");
+                Assert.assertEquals(server.getScripts().stream().filter(script -> script.get("script").asText()
+                        .equals("mobile: hideKeyboard")).count(), 1L);
+                Assert.assertTrue(fast[0] < baseline[0], "Fast form took " + fast[0] + " round trips, typed " + baseline[0]);
+                Assert.assertTrue(fast[1] < baseline[1], "Fast form took " + fast[1] + " ms, typed " + baseline[1] + " ms");
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    /**
+     * Fills the form on cleared fields and logs round trips and milliseconds. The request counts stay on the
+     * server for the caller to check.
+     *
+     * @param server the stand-in server
+     * @param fields the fields of the form
+     * @param name   the name of the measurement
+     * @param fill   the form entry to measure
+     * @return the round trips and milliseconds of the form
+     */
+    private static int[] measure(StubAppiumServer server, List<StubAppiumServer.StubElement> fields, String name,
+                                 Runnable fill) {
+        fields.forEach(field -> field.text(""));
+        server.setLatency(LATENCY_MILLIS);
+        server.resetCounts();
+        long start = System.nanoTime();
+        fill.run();
+        int millis = (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int roundTrips = server.getTotalRequests();
+        server.setLatency(0);
+        LoggerManager.info("{}: {} round trips in {} ms", name, roundTrips, millis);
+        for (int i = 0; i < fields.size(); i++) {
+            Assert.assertEquals(fields.get(i).getText(), VALUES.get(i), name + " did not set field " + i);
+        }
+        return new int[]{roundTrips, millis};
+    }
+
+    /**
+     * Answers the scripts of the stand-in server: the keyboard is always shown, and replaceElementValue sets the
+     * text of its element.
+     *
+     * @param server the stand-in server
+     * @param script the recorded execute/sync body
+     * @return the script result
+     */
+    private static Object handleScript(StubAppiumServer server, JsonNode script) {
+        JsonNode args = script.get("args").size() > 0 ? script.get("args").get(0) : null;
+        switch (script.get("script").asText()) {
+            case "mobile: isKeyboardShown":
+                return true;
+            case "mobile: replaceElementValue":
+                server.getElement(args.get("elementId").asText()).text(args.get("text").asText());
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Page exposing the BasePage text entry to the benchmark.
+     */
+    private static final class StubPage extends BasePage {
+        private StubPage(AppiumDriver driver) {
+            super(driver);
+        }
+
+        private List<WebElement> fields() {
+            return Arrays.asList(DRIVER.findElement(AppiumBy.accessibilityId("first")),
+                    DRIVER.findElement(AppiumBy.accessibilityId("last")),
+                    DRIVER.findElement(AppiumBy.accessibilityId("zip")));
+        }
+
+        private void typeForm() {
+            List<WebElement> fields = fields();
+            for (int i = 0; i < fields.size(); i++) {
+                enterText(fields.get(i), VALUES.get(i));
+            }
+        }
+
+        private void fillForm() {
+            fillFields("Benchmark", fields(), VALUES);
+        }
+    }
+}
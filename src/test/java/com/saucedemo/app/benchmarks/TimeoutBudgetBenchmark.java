@@ -0,0 +1,76 @@
+package com.saucedemo.app.benchmarks;
+
+import com.saucedemo.app.controller.TimeoutBudget;
+import com.saucedemo.app.utils.Constants;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the timeouts TimeoutBudget derives from recorded wait durations, with the shipped configuration:
+ * fast waits get a short timeout, slow waits a longer one than the default, and keys without enough history
+ * keep the default.
+ * Run with: mvn test -Dtest=TimeoutBudgetBenchmark
+ */
+public class TimeoutBudgetBenchmark extends ConfiguredBenchmark {
+
+    @BeforeClass
+    public void requireTimeoutBudgets() {
+        if (!Constants.ENABLE_TIMEOUT_BUDGET) {
+            throw new SkipException("Timeout budgets are disabled (timeout.budget.enabled=false).");
+        }
+    }
+
+    @Test(description = "Keys with too few recorded waits fall back to the default timeout")
+    public void unknownKeysUseDefault() {
+        Assert.assertEquals(TimeoutBudget.get("TimeoutBudgetBenchmark unknown", 10), Duration.ofSeconds(10));
+
+        record("TimeoutBudgetBenchmark sparse", 100, Constants.TIMEOUT_BUDGET_MIN_SAMPLES - 1);
+
+        Assert.assertEquals(TimeoutBudget.get("TimeoutBudgetBenchmark sparse", 5), Duration.ofSeconds(5));
+    }
+
+    @Test(description = "Fast screens get a short timeout, floored at timeout.budget.min.seconds")
+    public void fastKeysFailFast() {
+        record("TimeoutBudgetBenchmark fast", 200, Constants.TIMEOUT_BUDGET_HISTORY);
+
+        Duration budget = TimeoutBudget.get("TimeoutBudgetBenchmark fast", 10);
+
+        Assert.assertEquals(budget, Duration.ofSeconds(Constants.TIMEOUT_BUDGET_MIN_SECONDS));
+        Assert.assertTrue(budget.compareTo(Duration.ofSeconds(10)) < 0, "Budget is not shorter than the default: " + budget);
+    }
+
+    @Test(description = "Slow screens get the percentile duration times the margin, capped at timeout.budget.max.seconds")
+    public void slowKeysGetMoreTime() {
+        record("TimeoutBudgetBenchmark slow", 4000, Constants.TIMEOUT_BUDGET_HISTORY - 1);
+        record("TimeoutBudgetBenchmark slow", 7000, 1);
+
+        Duration budget = TimeoutBudget.get("TimeoutBudgetBenchmark slow", 5);
+
+        long expected = Math.min(TimeUnit.SECONDS.toMillis(Constants.TIMEOUT_BUDGET_MAX_SECONDS),
+                Math.round(4000 * Constants.TIMEOUT_BUDGET_MARGIN));
+        Assert.assertEquals(budget.toMillis(), expected, "A single outlier must not move the percentile.");
+        Assert.assertTrue(budget.compareTo(Duration.ofSeconds(5)) > 0, "Budget is not longer than the default: " + budget);
+
+        record("TimeoutBudgetBenchmark slow", 60_000, Constants.TIMEOUT_BUDGET_HISTORY);
+
+        Assert.assertEquals(TimeoutBudget.get("TimeoutBudgetBenchmark slow", 5), Duration.ofSeconds(Constants.TIMEOUT_BUDGET_MAX_SECONDS));
+    }
+
+    /**
+     * Records the same wait duration a number of times.
+     *
+     * @param key    the wait key
+     * @param millis the duration in milliseconds
+     * @param times  the number of waits
+     */
+    private static void record(String key, long millis, int times) {
+        for (int i = 0; i < times; i++) {
+            TimeoutBudget.record(key, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+}
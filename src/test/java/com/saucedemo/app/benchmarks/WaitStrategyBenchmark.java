@@ -0,0 +1,155 @@
+package com.saucedemo.app.benchmarks;
+
+import com.saucedemo.app.base.BasePage;
+import com.saucedemo.app.controller.WaitStrategy;
+import com.saucedemo.app.utils.Constants;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the waits of BasePage against a stand-in Appium server that honours the implicit wait like a real one.
+ * With implicit.wait.seconds at 10, an explicit wait of N seconds must end after about N seconds, not N + 10,
+ * and an absence check must return after a single findElements round trip. The implicit wait is only set again
+ * before the next lookup that relies on it, so consecutive explicit waits send a single timeouts command.
+ * Run with: mvn test -Dtest=WaitStrategyBenchmark
+ */
+public class WaitStrategyBenchmark extends ConfiguredBenchmark {
+    private static final By PRESENT = AppiumBy.accessibilityId("present");
+    private static final By MISSING = AppiumBy.accessibilityId("missing");
+    private static final By DELAYED = AppiumBy.accessibilityId("delayed");
+    private static final long SLACK_MILLIS = 1000;
+
+    private StubAppiumServer server;
+    private AppiumDriver driver;
+    private StubPage page;
+
+    @BeforeClass
+    public void startSession() throws IOException {
+        server = new StubAppiumServer();
+        server.addElement("accessibility id", "present").text("Present");
+        driver = server.newDriver();
+        WaitStrategy.init(driver);
+        page = new StubPage(driver);
+    }
+
+    @BeforeMethod
+    public void resetCounts() {
+        server.resetCounts();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopSession() {
+        if (driver != null) {
+            driver.quit();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test(description = "An absence check takes one findElements round trip, whatever the implicit wait")
+    public void absenceCheckIsImmediate() {
+        WaitStrategy.implicitly(driver);
+        Assert.assertEquals(server.getImplicitWaitMillis(), TimeUnit.SECONDS.toMillis(Constants.IMPLICIT_WAIT_SECONDS));
+
+        long millis = time(() -> Assert.assertTrue(page.isAbsent(MISSING)));
+
+        Assert.assertTrue(millis < SLACK_MILLIS, "Absence check took " + millis + " ms");
+        Assert.assertEquals(server.getRequestCount("POST /elements"), 1);
+        Assert.assertFalse(page.isAbsent(PRESENT));
+    }
+
+    @Test(description = "An explicit wait for a missing element is bounded by its own timeout, not timeout plus implicit wait")
+    public void explicitWaitIsBoundedByItsTimeout() {
+        long millis = time(() -> Assert.assertFalse(page.isDisplayed(MISSING, 2)));
+
+        Assert.assertTrue(millis >= 2000 && millis < 2000 + SLACK_MILLIS, "Explicit 2 s wait took " + millis + " ms");
+        Assert.assertEquals(server.getImplicitWaitMillis(), 0L);
+    }
+
+    @Test(description = "An element that appears during an explicit wait is found on the next poll")
+    public void explicitWaitDetectsLateElement() {
+        server.addElement("accessibility id", "delayed").appearAfter(300);
+
+        long millis = time(() -> Assert.assertTrue(page.isDisplayed(DELAYED, 5)));
+
+        Assert.assertTrue(millis < 300 + SLACK_MILLIS, "Late element detected after " + millis + " ms");
+    }
+
+    @Test(description = "Consecutive explicit waits share one timeouts command; the next lookup sets the implicit wait again",
+            dependsOnMethods = "explicitWaitIsBoundedByItsTimeout")
+    public void implicitWaitIsRestoredLazily() {
+        server.addElement("accessibility id", "label").text("Label");
+        By label = AppiumBy.accessibilityId("label");
+        WaitStrategy.implicitly(driver);
+        server.resetCounts();
+
+        Assert.assertTrue(page.isDisplayed(PRESENT, 1));
+        Assert.assertTrue(page.isAbsent(MISSING));
+        Assert.assertTrue(page.isDisplayed(PRESENT, 1));
+        Assert.assertEquals(server.getRequestCount("POST /timeouts"), 1);
+        Assert.assertEquals(server.getImplicitWaitMillis(), 0L);
+
+        Assert.assertEquals(page.getText(PRESENT), "Present");
+        Assert.assertEquals(server.getRequestCount("POST /timeouts"), 1, "A cached element needs no implicit wait.");
+        Assert.assertEquals(page.getText(label), "Label");
+        Assert.assertEquals(page.getText(label), "Label");
+
+        Assert.assertEquals(server.getImplicitWaitMillis(), TimeUnit.SECONDS.toMillis(Constants.IMPLICIT_WAIT_SECONDS));
+        Assert.assertEquals(server.getRequestCount("POST /timeouts"), 2);
+    }
+
+    @Test(description = "A lookup of a missing element outside explicit waits still waits out the implicit wait",
+            dependsOnMethods = "implicitWaitIsRestoredLazily")
+    public void plainLookupUsesImplicitWait() {
+        server.addElement("accessibility id", "slow").appearAfter(500);
+
+        long millis = time(() -> Assert.assertEquals(page.getText(AppiumBy.accessibilityId("slow")), ""));
+
+        Assert.assertTrue(millis >= 500, "Lookup returned after " + millis + " ms, before the element appeared");
+        Assert.assertThrows(NoSuchElementException.class, () -> WaitStrategy.explicitly(driver, () -> driver.findElement(MISSING)));
+    }
+
+    /**
+     * Runs an action and returns its duration.
+     *
+     * @param action the action to time
+     * @return the duration in milliseconds
+     */
+    private static long time(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Page exposing the BasePage waits to the benchmark.
+     */
+    private static final class StubPage extends BasePage {
+        private StubPage(AppiumDriver driver) {
+            super(driver);
+        }
+
+        private boolean isAbsent(By locator) {
+            return isElementAbsent(locator);
+        }
+
+        private boolean isDisplayed(By locator, int timeoutInSeconds) {
+            return isElementDisplayed(locator, timeoutInSeconds);
+        }
+
+        private String getText(By locator) {
+            return getElementText(locator);
+        }
+    }
+}
@@ -140,4 +140,44 @@ public class CheckoutTests extends BaseTest {
             Assert.fail(errorMsg.toString());
         }
     }
+
+    @Test(description = "Validate that user is able to add multiple products to the cart in one pass over the product list.",
+            groups = {"Dev1"})
+    public void validateAddingMultipleProductsToCart() {
+        try {
+            Product product1 = new Product("Sauce Labs Bike Light", 9.99);
+            Product product2 = new Product("Sauce Labs Fleece Jacket", 49.99);
+            Product product3 = new Product("Test.allTheThings() T-Shirt (Red)", 15.99);
+            LoggerManager.info("Data setup completed.");
+
+            LoginPage loginPage = new LoginPage(DriverManager.getDriver());
+            loginPage.login("standard_user", "secret_sauce");
+            LoggerManager.info("Login action completed.");
+
+            ProductsPage productsPage = new ProductsPage(DriverManager.getDriver());
+            productsPage.validateNavigationToProductsPage();
+            LoggerManager.info("Navigated to Products page.");
+
+            productsPage.addProductsToCart(product1, product2, product3);
+            LoggerManager.info(String.format("Products %s, %s and %s selected", product1.getProductName(),
+                    product2.getProductName(), product3.getProductName()));
+
+            productsPage.clickCartButton();
+
+            CartPage cartPage = new CartPage(DriverManager.getDriver());
+            cartPage.validateNavigationToCartPage();
+            LoggerManager.info("Navigated to Your Cart page.");
+
+            cartPage.validateProductDetails(product1, product2, product3);
+            LoggerManager.info("Product details in Your Cart page validated.");
+
+        } catch (Exception e) {
+            StringBuilder errorMsg = new StringBuilder();
+            errorMsg.append("Test failed. Reason: ").append(e.getMessage()).append("\n");
+            for (StackTraceElement ste : e.getStackTrace()) {
+                errorMsg.append("\tat ").append(ste.toString()).append("\n");
+            }
+            Assert.fail(errorMsg.toString());
+        }
+    }
 }